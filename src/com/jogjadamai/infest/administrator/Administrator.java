@@ -39,9 +39,11 @@ public final class Administrator {
     private java.util.List<com.jogjadamai.infest.entity.Features> features;
     private java.rmi.registry.Registry registry;
     private com.jogjadamai.infest.communication.IProtocolClient protocolClient;
-    private com.jogjadamai.infest.communication.IProtocolServer protocolServer;
+    private com.jogjadamai.infest.communication.IExtendedProtocolServer protocolServer;
     
     private com.jogjadamai.infest.service.ProgramPropertiesManager programPropertiesManager;
+    private java.util.concurrent.ScheduledExecutorService dashboardExecutor;
+    private com.jogjadamai.infest.communication.ProtocolMetrics.Snapshot lastMetricsSnapshot;
     
     private enum ViewFrame {
         SIGN_IN, MAIN
@@ -98,7 +100,7 @@ public final class Administrator {
         try {
             this.registry = java.rmi.registry.LocateRegistry.getRegistry(serverAddress, 42700);
             this.protocolClient = new com.jogjadamai.infest.communication.AdministratorClient();
-            this.protocolServer = (com.jogjadamai.infest.communication.IProtocolServer) this.registry.lookup("InfestAPIServer");
+            this.protocolServer = (com.jogjadamai.infest.communication.IExtendedProtocolServer) this.registry.lookup("InfestAPIServer");
             this.protocolServer.authenticate(this.protocolClient);
         } catch (java.rmi.NotBoundException | java.rmi.RemoteException ex) {
             System.err.println("[INFEST] " +  getNowTime() + ": " + ex);
@@ -123,197 +125,147 @@ public final class Administrator {
         return java.time.format.DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss.SSS").format(java.time.LocalDateTime.now());
     }
     
-    protected String getCurrentAdministratorUsername(java.awt.Component parent) {
-        com.jogjadamai.infest.security.Credentials savedCred = null;
+    protected String getCurrentAdministratorUsername() throws java.rmi.RemoteException {
+        com.jogjadamai.infest.security.Credentials savedCred = this.protocolServer.getCredentials(protocolClient);
+        if(savedCred == null) throw new NullPointerException("Administrator credentials are not available.");
+        return savedCred.getUsername();
+    }
+    
+    private Boolean isCredentialsCurrent(com.jogjadamai.infest.security.Credentials credentials) throws java.rmi.RemoteException, java.security.GeneralSecurityException {
+        com.jogjadamai.infest.security.Credentials savedCred = this.protocolServer.getCredentials(protocolClient);
+        if(savedCred == null) throw new NullPointerException("Administrator credentials are not available.");
+        String salt = getSalt();
         try {
-            savedCred = this.protocolServer.getCredentials(protocolClient);
-            if(savedCred == null) {
-                savedCred = com.jogjadamai.infest.security.CredentialsManager.createCredentials("", "");
-                System.err.println("[INFEST] " +  getNowTime() + ": " + "java.lang.NullPointerException");
-                javax.swing.JOptionPane.showMessageDialog(parent,
-                        "Infest Configuration File is miss-configured!\n\n"
-                                + "Please verify that the Infest Configuration File (infest.conf) is exist in the current\n"
-                                + "working directory and is properly configured. Any wrong setting or modification of\n"
-                                + "Infest Configuration File would cause this error.",
-                        "INFEST: Program Configuration Manager", javax.swing.JOptionPane.ERROR_MESSAGE);
-                fatalExit(-1);
-            }
-            return savedCred.getUsername();
-        } catch (java.rmi.RemoteException ex) {
-            savedCred = com.jogjadamai.infest.security.CredentialsManager.createCredentials("", "");
-            System.err.println("[INFEST] " +  getNowTime() + ": " + ex);
-            javax.swing.JOptionPane.showMessageDialog(parent, 
-                    "There's is an error with Infest API Server! Please contact Infest Developer Team.\n\n"
-                            + "Program error detected.", 
-                    "INFEST: Remote Connection Error", javax.swing.JOptionPane.ERROR_MESSAGE);
-            fatalExit(-1);
-            return null;
+            com.jogjadamai.infest.security.CredentialsManager.encryptCredentials(credentials, salt);
+        } catch (Exception ex) {
+            throw new java.security.GeneralSecurityException(ex);
         }
+        return savedCred.equals(credentials);
     }
     
-    private Boolean isCredentialsCurrent(java.awt.Component parent, com.jogjadamai.infest.security.Credentials credentials) {
-        com.jogjadamai.infest.security.Credentials savedCred = null;
-        try {    
-            savedCred = this.protocolServer.getCredentials(protocolClient);
-            if(savedCred == null) {
-                savedCred = com.jogjadamai.infest.security.CredentialsManager.createCredentials("", "");
-                System.err.println("[INFEST] " +  getNowTime() + ": " + "java.lang.NullPointerException");
-                javax.swing.JOptionPane.showMessageDialog(parent, 
-                        "Infest Configuration File is miss-configured!\n\n"
-                        + "Please verify that the Infest Configuration File (infest.conf) is exist in the current\n"
-                        + "working directory and is properly configured. Any wrong setting or modification of\n"
-                        + "Infest Configuration File would cause this error.", 
-                        "INFEST: Program Configuration Manager", javax.swing.JOptionPane.ERROR_MESSAGE);
-                fatalExit(-1);
-            }
-            try {
-                String salt = getSalt();
-                try {
-                    com.jogjadamai.infest.security.CredentialsManager.encryptCredentials(credentials, salt);
-                    return savedCred.equals(credentials);
-                } catch (Exception ex) {
-                    System.err.println("[INFEST] " +  getNowTime() + ": " + ex);
-                    javax.swing.JOptionPane.showMessageDialog(parent,
-                            "Failed to encrypt credentials!\n\n"
-                            + "Please contact an Infest Administrator for further help.", 
-                            "INFEST: Encryption Service", javax.swing.JOptionPane.ERROR_MESSAGE);
-                    return false;
-                }
-            } catch (NullPointerException ex) {
-                System.err.println("[INFEST] " +  getNowTime() + ": " + ex);
-                javax.swing.JOptionPane.showMessageDialog(parent, 
-                        "Infest Configuration File is miss-configured!\n\n"
-                        + "Please verify that the Infest Configuration File (infest.conf) is exist in the current\n"
-                        + "working directory and is properly configured. Any wrong setting or modification of\n"
-                        + "Infest Configuration File would cause this error.", 
-                        "INFEST: Program Configuration Manager", javax.swing.JOptionPane.ERROR_MESSAGE);
-                fatalExit(-1);
-                return false;
-            }
-        } catch (java.rmi.RemoteException ex) {
-            savedCred = com.jogjadamai.infest.security.CredentialsManager.createCredentials("", "");
-            System.err.println("[INFEST] " +  getNowTime() + ": " + ex);
+    private void handleTaskFailure(java.awt.Component parent, Throwable cause) {
+        if(cause instanceof java.rmi.RemoteException) {
             javax.swing.JOptionPane.showMessageDialog(parent, 
                     "There's is an error with Infest API Server! Please contact Infest Developer Team.\n\n"
                             + "Program error detected.", 
                     "INFEST: Remote Connection Error", javax.swing.JOptionPane.ERROR_MESSAGE);
             fatalExit(-1);
-            return false;
+        } else if(cause instanceof NullPointerException) {
+            javax.swing.JOptionPane.showMessageDialog(parent, 
+                    "Infest Configuration File is miss-configured!\n\n"
+                    + "Please verify that the Infest Configuration File (infest.conf) is exist in the current\n"
+                    + "working directory and is properly configured. Any wrong setting or modification of\n"
+                    + "Infest Configuration File would cause this error.", 
+                    "INFEST: Program Configuration Manager", javax.swing.JOptionPane.ERROR_MESSAGE);
+            fatalExit(-1);
+        } else if(cause instanceof java.security.GeneralSecurityException) {
+            javax.swing.JOptionPane.showMessageDialog(parent,
+                    "Failed to encrypt credentials!\n\n"
+                    + "Please contact an Infest Administrator for further help.", 
+                    "INFEST: Encryption Service", javax.swing.JOptionPane.ERROR_MESSAGE);
+        } else {
+            javax.swing.JOptionPane.showMessageDialog(parent,
+                    "Unexpected error occured!\n\n" + cause, 
+                    "INFEST: System Error", javax.swing.JOptionPane.ERROR_MESSAGE);
         }
     }
     
     protected void signIn() {
-        if(isCredentialsCurrent((activeFrame == ViewFrame.MAIN) ? mainFrame : signInFrame, com.jogjadamai.infest.security.CredentialsManager.createCredentials(signInFrame.usernameField.getText(), signInFrame.passwordField.getPassword()))) {
-            signInFrame.setVisible(false);
-            mainFrame.setVisible(true);
-            activeFrame = ViewFrame.MAIN;
-        } else {
-            javax.swing.JOptionPane.showMessageDialog((activeFrame == ViewFrame.MAIN) ? mainFrame : signInFrame, 
-                    "Authentication Failed!\n\n"
-                        + "Either username or password is wrong, or your\n"
-                        + "Infest Configuration File is miss-configured.",
-                    "INFEST: Authentication System", javax.swing.JOptionPane.ERROR_MESSAGE);
-        }
+        final com.jogjadamai.infest.security.Credentials credentials = com.jogjadamai.infest.security.CredentialsManager.createCredentials(signInFrame.usernameField.getText(), signInFrame.passwordField.getPassword());
+        new BackgroundTask<Boolean>(signInFrame, "Signing in to Infest API Server...", () -> isCredentialsCurrent(credentials), (isCurrent) -> {
+            if(isCurrent) {
+                signInFrame.setVisible(false);
+                mainFrame.setVisible(true);
+                activeFrame = ViewFrame.MAIN;
+                startDashboard();
+            } else {
+                javax.swing.JOptionPane.showMessageDialog(signInFrame, 
+                        "Authentication Failed!\n\n"
+                            + "Either username or password is wrong, or your\n"
+                            + "Infest Configuration File is miss-configured.",
+                        "INFEST: Authentication System", javax.swing.JOptionPane.ERROR_MESSAGE);
+            }
+        }, (cause) -> handleTaskFailure(signInFrame, cause)).start();
     }
     
     protected void signOut() {
-        try {
-            if(com.jogjadamai.infest.communication.ProtocolServer.getInstance().isServerActive())
-                toggleServer();
-        } catch (java.rmi.RemoteException ex) {
-            System.err.println("[INFEST] " +  getNowTime() + ": " + ex);
-            javax.swing.JOptionPane.showMessageDialog((activeFrame == ViewFrame.MAIN) ? mainFrame : signInFrame, 
-                    "There's is an error with Infest API Server! Please contact Infest Developer Team.\n\n"
-                            + "Program error detected.", 
-                    "INFEST: Remote Connection Error", javax.swing.JOptionPane.ERROR_MESSAGE);
-            fatalExit(-1);
-        }
+        stopDashboard();
         mainFrame.setVisible(false);
         signInFrame.usernameField.requestFocusInWindow();
         signInFrame.passwordField.setText("");
         signInFrame.setVisible(true);
         activeFrame = ViewFrame.SIGN_IN;
+        new BackgroundTask<Void>(signInFrame, "Stopping Infest API Server...", () -> {
+            com.jogjadamai.infest.communication.ProtocolServer server = com.jogjadamai.infest.communication.ProtocolServer.getInstance();
+            if(server.isServerActive()) server.stop();
+            return null;
+        }, (result) -> refreshServerStatus(), (cause) -> handleTaskFailure(signInFrame, cause)).start();
     }
     
     protected void shutdown(int code) {
         System.out.println("[INFEST] " +  getNowTime() + ": System exited with code " + code + ".");
+        stopDashboard();
         signInFrame.setVisible(false);
         mainFrame.setVisible(false);
         System.exit(code);
     }
     
-    protected Boolean readAllFeatures() {
-        Boolean isSuccess = true;
-        try {
-            this.features = this.protocolServer.readAllFeature(protocolClient);
-        } catch (java.rmi.RemoteException ex) {
-            System.err.println("[INFEST] " +  getNowTime() + ": " + ex);
-            javax.swing.JOptionPane.showMessageDialog((activeFrame == ViewFrame.MAIN) ? mainFrame : signInFrame, 
-                    "There's is an error with Infest API Server! Please contact Infest Developer Team.\n\n"
-                            + "Program error detected.", 
-                    "INFEST: Remote Connection Error", javax.swing.JOptionPane.ERROR_MESSAGE);
-            fatalExit(-1);
+    private java.util.List<javax.swing.JCheckBox> getFeaturesCheckBox() {
+        if(this.featuresCheckBox == null) {
+            this.featuresCheckBox = new java.util.ArrayList<>();
+            this.featuresCheckBox.add(mainFrame.maintenanceModeCheckBox);
+            this.featuresCheckBox.add(mainFrame.showCurrencyCheckBox);
+            this.featuresCheckBox.add(mainFrame.operatorGenerateReportCheckBox);
+            this.featuresCheckBox.add(mainFrame.customerPrintBillCheckBox);
+            this.featuresCheckBox.add(mainFrame.customerShowMenuDurationCheckBox);
+            this.featuresCheckBox.add(mainFrame.customerShowMenuImageCheckBox);
         }
-        this.featuresCheckBox = new java.util.ArrayList<>();
-        this.featuresCheckBox.add(mainFrame.maintenanceModeCheckBox);
-        this.featuresCheckBox.add(mainFrame.showCurrencyCheckBox);
-        this.featuresCheckBox.add(mainFrame.operatorGenerateReportCheckBox);
-        this.featuresCheckBox.add(mainFrame.customerPrintBillCheckBox);
-        this.featuresCheckBox.add(mainFrame.customerShowMenuDurationCheckBox);
-        this.featuresCheckBox.add(mainFrame.customerShowMenuImageCheckBox);
-        features.forEach((feature) -> {
-            this.featuresCheckBox.get(feature.getId()-1).setSelected((feature.getStatus() == 1));
-            if(feature.getName().equals("CURRENCY")) mainFrame.currencyTextField.setText(feature.getDescription());
-        });
-        return isSuccess;
+        return this.featuresCheckBox;
     }
     
-    protected Boolean writeAllFeatures() {
-        Boolean isSuccess = true;
-        try {
-            this.features = this.protocolServer.readAllFeature(protocolClient);
-        } catch (java.rmi.RemoteException ex) {
-            System.err.println("[INFEST] " +  getNowTime() + ": " + ex);
-            javax.swing.JOptionPane.showMessageDialog((activeFrame == ViewFrame.MAIN) ? mainFrame : signInFrame, 
-                    "There's is an error with Infest API Server! Please contact Infest Developer Team.\n\n"
-                            + "Program error detected.", 
-                    "INFEST: Remote Connection Error", javax.swing.JOptionPane.ERROR_MESSAGE);
-            fatalExit(-1);
-        }
-        this.featuresCheckBox.add(mainFrame.maintenanceModeCheckBox);
-        this.featuresCheckBox.add(mainFrame.showCurrencyCheckBox);
-        this.featuresCheckBox.add(mainFrame.operatorGenerateReportCheckBox);
-        this.featuresCheckBox.add(mainFrame.customerPrintBillCheckBox);
-        this.featuresCheckBox.add(mainFrame.customerShowMenuDurationCheckBox);
-        this.featuresCheckBox.add(mainFrame.customerShowMenuImageCheckBox);
-        features.forEach((feature) -> {
-            if(featuresCheckBox.get(feature.getId()-1).isSelected()) feature.setStatus(1);
-            else feature.setStatus(0);
-            if(feature.getName().equals("CURRENCY")) feature.setDescription(mainFrame.currencyTextField.getText());
-            try {
-                this.protocolServer.updateFeature(protocolClient, feature);
-            } catch (java.rmi.RemoteException ex) {
-                System.err.println("[INFEST] " +  getNowTime() + ": " + ex);
-                javax.swing.JOptionPane.showMessageDialog((activeFrame == ViewFrame.MAIN) ? mainFrame : signInFrame, 
-                        "There's is an error with Infest API Server! Please contact Infest Developer Team.\n\n"
-                                + "Program error detected.", 
-                        "INFEST: Remote Connection Error", javax.swing.JOptionPane.ERROR_MESSAGE);
-                fatalExit(-1);
+    protected void readAllFeatures() {
+        new BackgroundTask<java.util.List<com.jogjadamai.infest.entity.Features>>(mainFrame, "Reading Features Configuration...", () -> this.protocolServer.readAllFeature(protocolClient), (features) -> {
+            if(features == null) {
+                javax.swing.JOptionPane.showMessageDialog(mainFrame, "Failed to read Features Configuration!", "Read Configuration", javax.swing.JOptionPane.ERROR_MESSAGE);
+                return;
             }
+            this.features = features;
+            features.forEach((feature) -> {
+                getFeaturesCheckBox().get(feature.getId()-1).setSelected((feature.getStatus() == 1));
+                if(feature.getName().equals("CURRENCY")) mainFrame.currencyTextField.setText(feature.getDescription());
+            });
+        }, (cause) -> handleTaskFailure(mainFrame, cause)).start();
+    }
+    
+    protected void writeAllFeatures() {
+        // Compare the panel with the features last read here on the EDT, so
+        // that only the changed ones are sent, in one batched remote call.
+        final java.util.List<com.jogjadamai.infest.entity.Features> changedFeatures = new java.util.ArrayList<>();
+        if(this.features != null) this.features.forEach((feature) -> {
+            int status = getFeaturesCheckBox().get(feature.getId()-1).isSelected() ? 1 : 0;
+            String description = feature.getName().equals("CURRENCY") ? mainFrame.currencyTextField.getText() : feature.getDescription();
+            if(feature.getStatus() != status || !java.util.Objects.equals(feature.getDescription(), description))
+                changedFeatures.add(new com.jogjadamai.infest.entity.Features(feature.getId(), feature.getName(), description, status));
         });
-        isSuccess = true;
-        return isSuccess;
+        new BackgroundTask<Boolean>(mainFrame, "Saving Features Configuration...", () -> {
+            if(changedFeatures.isEmpty()) return true;
+            return this.protocolServer.updateFeatures(protocolClient, changedFeatures);
+        }, (isSuccess) -> {
+            if(isSuccess) javax.swing.JOptionPane.showMessageDialog(mainFrame, "Features Configuration saved successfully!", "Save Configuration", javax.swing.JOptionPane.INFORMATION_MESSAGE);
+            else javax.swing.JOptionPane.showMessageDialog(mainFrame, "Features Configuration failed to be save!", "Save Configuration", javax.swing.JOptionPane.ERROR_MESSAGE);
+            if(!changedFeatures.isEmpty()) readAllFeatures();
+        }, (cause) -> handleTaskFailure(mainFrame, cause)).start();
     }
     
     protected void refreshServerStatus() {
-        try {
-            if(com.jogjadamai.infest.communication.ProtocolServer.getInstance().isServerActive()) {
+        new BackgroundTask<Boolean>((activeFrame == ViewFrame.MAIN) ? mainFrame : signInFrame, "Reading Infest API Server status...", () -> com.jogjadamai.infest.communication.ProtocolServer.getInstance().isServerActive(), (isServerActive) -> {
+            if(isServerActive) {
                 mainFrame.statusLabel.setText("Started & Listening");
                 mainFrame.statusLabel.setForeground(java.awt.Color.BLUE);
                 mainFrame.serverToggleButton.setText("STOP SERVER");
                 mainFrame.serverToggleButton.setForeground(java.awt.Color.RED);
                 this.repaintPane(true);
-                if (!this.readAllFeatures()) javax.swing.JOptionPane.showMessageDialog((activeFrame == ViewFrame.MAIN) ? mainFrame : signInFrame, "Failed to read Features Configuration!", "Read Configuration", javax.swing.JOptionPane.ERROR_MESSAGE);
+                this.readAllFeatures();
             } else {
                 mainFrame.statusLabel.setText("Idle");
                 mainFrame.statusLabel.setForeground(java.awt.Color.RED);
@@ -321,14 +273,7 @@ public final class Administrator {
                 mainFrame.serverToggleButton.setForeground(java.awt.Color.BLUE);
                 this.repaintPane(false);
             }
-        } catch (java.rmi.RemoteException ex) {
-            System.err.println("[INFEST] " +  getNowTime() + ": " + ex);
-            javax.swing.JOptionPane.showMessageDialog((activeFrame == ViewFrame.MAIN) ? mainFrame : signInFrame, 
-                    "There's is an error with Infest API Server! Please contact Infest Developer Team.\n\n"
-                            + "Program error detected.", 
-                    "INFEST: Remote Connection Error", javax.swing.JOptionPane.ERROR_MESSAGE);
-            fatalExit(-1);
-        }
+        }, (cause) -> handleTaskFailure((activeFrame == ViewFrame.MAIN) ? mainFrame : signInFrame, cause)).start();
     }
     
     protected void repaintPane(Boolean isEnabled) {
@@ -353,18 +298,87 @@ public final class Administrator {
     }
         
     protected void toggleServer() {
+        new BackgroundTask<Void>(mainFrame, "Starting or stopping Infest API Server...", () -> {
+            com.jogjadamai.infest.communication.ProtocolServer server = com.jogjadamai.infest.communication.ProtocolServer.getInstance();
+            if(!server.isServerActive()) server.start();
+            else server.stop();
+            return null;
+        }, (result) -> refreshServerStatus(), (cause) -> handleTaskFailure(mainFrame, cause)).start();
+    }
+    
+    protected synchronized void startDashboard() {
+        if(dashboardExecutor != null) return;
+        lastMetricsSnapshot = null;
+        dashboardExecutor = java.util.concurrent.Executors.newSingleThreadScheduledExecutor((runnable) -> {
+            Thread thread = new Thread(runnable, "DashboardThread");
+            thread.setDaemon(true);
+            return thread;
+        });
+        dashboardExecutor.scheduleAtFixedRate(this::refreshDashboard, 0, 1, java.util.concurrent.TimeUnit.SECONDS);
+    }
+    
+    protected synchronized void stopDashboard() {
+        if(dashboardExecutor == null) return;
+        dashboardExecutor.shutdownNow();
+        dashboardExecutor = null;
+    }
+    
+    private void refreshDashboard() {
+        // Runs on the dashboard thread; only the final component update is
+        // handed to the EDT, so a slow refresh never freezes the window.
         try {
-            if(!com.jogjadamai.infest.communication.ProtocolServer.getInstance().isServerActive()) com.jogjadamai.infest.communication.ProtocolServer.getInstance().start();
-            else com.jogjadamai.infest.communication.ProtocolServer.getInstance().stop();
-        } catch (java.rmi.RemoteException ex) {
+            com.jogjadamai.infest.communication.ProtocolServer server = com.jogjadamai.infest.communication.ProtocolServer.getInstance();
+            com.jogjadamai.infest.communication.ProtocolMetrics.Snapshot snapshot = server.getMetrics().snapshot();
+            com.jogjadamai.infest.communication.ProtocolMetrics.Snapshot previous = lastMetricsSnapshot;
+            lastMetricsSnapshot = snapshot;
+            // Rates and latencies cover the last refresh interval only; the
+            // call and denial counts are totals since the server started.
+            com.jogjadamai.infest.communication.ProtocolMetrics.Snapshot interval = snapshot.since(previous);
+            double elapsedSeconds = (snapshot.getTakenAt() - ((previous != null) ? previous.getTakenAt() : snapshot.getStartedAt())) / 1e9;
+            java.util.List<Object[]> rows = new java.util.ArrayList<>();
+            for(com.jogjadamai.infest.communication.ProtocolMetrics.MethodSnapshot method : snapshot.getMethods()) {
+                com.jogjadamai.infest.communication.ProtocolMetrics.MethodSnapshot recent = interval.getMethod(method.getMethod());
+                long denied = 0;
+                for(Long count : method.getDenials().values()) denied += count;
+                rows.add(new Object[] {
+                    method.getMethod(),
+                    String.format("%.1f", (elapsedSeconds > 0) ? recent.getCount() / elapsedSeconds : 0.0),
+                    method.getCount(),
+                    toMillis(recent.getP50()),
+                    toMillis(recent.getP99()),
+                    toMillis(recent.getP999()),
+                    toMillis(recent.getMax()),
+                    denied
+                });
+            }
+            StringBuilder sessions = new StringBuilder("Active Sessions:");
+            server.getSessionCounts().forEach((type, count) -> sessions.append("  ").append(type.name()).append(" ").append(count));
+            com.jogjadamai.infest.communication.ProtocolMetrics.MethodSnapshot database = interval.getDatabase();
+            String databaseText = "Database: " + snapshot.getDatabase().getCount() + " calls, avg "
+                    + toMillis((database.getCount() > 0) ? database.getTotalLatency() / database.getCount() : 0)
+                    + " ms, p99 " + toMillis(database.getP99()) + " ms, max " + toMillis(database.getMax()) + " ms";
+            java.lang.management.MemoryUsage heap = java.lang.management.ManagementFactory.getMemoryMXBean().getHeapMemoryUsage();
+            long gcCount = 0, gcTime = 0;
+            for(java.lang.management.GarbageCollectorMXBean gc : java.lang.management.ManagementFactory.getGarbageCollectorMXBeans()) {
+                gcCount += Math.max(0, gc.getCollectionCount());
+                gcTime += Math.max(0, gc.getCollectionTime());
+            }
+            String jvmText = "JVM: heap " + (heap.getUsed() >> 20) + " / " + (heap.getCommitted() >> 20) + " MB (max "
+                    + ((heap.getMax() < 0) ? "-" : String.valueOf(heap.getMax() >> 20)) + " MB), GC " + gcCount + " collections, " + gcTime + " ms";
+            java.awt.EventQueue.invokeLater(() -> {
+                mainFrame.methodTableModel.setRowCount(0);
+                rows.forEach(mainFrame.methodTableModel::addRow);
+                mainFrame.sessionsLabel.setText(sessions.toString());
+                mainFrame.databaseLabel.setText(databaseText);
+                mainFrame.jvmLabel.setText(jvmText);
+            });
+        } catch (java.rmi.RemoteException | RuntimeException ex) {
             System.err.println("[INFEST] " +  getNowTime() + ": " + ex);
-            javax.swing.JOptionPane.showMessageDialog((activeFrame == ViewFrame.MAIN) ? mainFrame : signInFrame, 
-                    "There's is an error with Infest API Server! Please contact Infest Developer Team.\n\n"
-                            + "Program error detected.", 
-                    "INFEST: Remote Connection Error", javax.swing.JOptionPane.ERROR_MESSAGE);
-            fatalExit(-1);
         }
-        this.refreshServerStatus();
+    }
+    
+    private String toMillis(long nanos) {
+        return String.format("%.2f", nanos / 1e6);
     }
     
     protected void openDocumentation() {
@@ -381,58 +395,29 @@ public final class Administrator {
     }
     
     protected void changePassword(com.jogjadamai.infest.administrator.ChangePasswordDialog changePasswordDialog) {
-        if(isCredentialsCurrent(changePasswordDialog, com.jogjadamai.infest.security.CredentialsManager.createCredentials(getCurrentAdministratorUsername((activeFrame == ViewFrame.MAIN) ? mainFrame : signInFrame), changePasswordDialog.currentPasswordField.getPassword()))) {
-            try {
-                String salt = getSalt();
-                try {
-                    com.jogjadamai.infest.security.Credentials newCredentials = com.jogjadamai.infest.security.CredentialsManager.createEncryptedCredentials(getCurrentAdministratorUsername((activeFrame == ViewFrame.MAIN) ? mainFrame : signInFrame), changePasswordDialog.newPasswordField.getPassword(), salt);
-                    java.io.File credFile = new java.io.File(com.jogjadamai.infest.communication.IProtocolClient.Type.ADMINISTRATOR.name().toLowerCase() + ".crd");
-                    credFile.createNewFile();
-                    java.io.FileOutputStream fos = new java.io.FileOutputStream(credFile, false);
-                    try (java.io.ObjectOutputStream oos = new java.io.ObjectOutputStream(fos)) {
-                        oos.writeObject(newCredentials);
-                        javax.swing.JOptionPane.showMessageDialog(changePasswordDialog,
-                                "New Administrator Credentials has been saved!",
-                                "INFEST: Credentials Manager", javax.swing.JOptionPane.INFORMATION_MESSAGE);
-                        changePasswordDialog.setVisible(false);
-                    } catch (java.io.IOException ex) {
-                        System.err.println("[INFEST] " +  getNowTime() + ": " + ex);
-                        javax.swing.JOptionPane.showMessageDialog(changePasswordDialog,
-                                "Failed to set new credentials!\n\n"
-                                        + "The program is unable to create new credentials file.\n"
-                                        + "The file probably is under used by another proccess.",
-                                "INFEST: Credentials Manager", javax.swing.JOptionPane.ERROR_MESSAGE);
-                    } finally {
-                        try {
-                            fos.close();
-                        } catch (java.io.IOException ex) {
-                            System.err.println("[INFEST] " +  getNowTime() + ": " + ex);
-                        }
-                    }
-                } catch (Exception ex) {
-                    System.err.println("[INFEST] " +  getNowTime() + ": " + ex);
-                    javax.swing.JOptionPane.showMessageDialog(changePasswordDialog,
-                            "Failed to encrypt credentials!\n\n"
-                                    + "Please contact Infest Developer Team for further help.",
-                            "INFEST: Encryption System", javax.swing.JOptionPane.ERROR_MESSAGE);
-                }
-            } catch (NullPointerException ex) {
-                System.err.println("[INFEST] " +  getNowTime() + ": " + ex);
+        final char[] currentPassword = changePasswordDialog.currentPasswordField.getPassword();
+        final char[] newPassword = changePasswordDialog.newPasswordField.getPassword();
+        new BackgroundTask<Boolean>(changePasswordDialog, "Saving new Administrator Credentials...", () -> {
+            String username = getCurrentAdministratorUsername();
+            if(!isCredentialsCurrent(com.jogjadamai.infest.security.CredentialsManager.createCredentials(username, currentPassword))) return false;
+            writeCredentials(com.jogjadamai.infest.communication.IProtocolClient.Type.ADMINISTRATOR, username, newPassword);
+            return true;
+        }, (isSaved) -> {
+            if(isSaved) {
+                javax.swing.JOptionPane.showMessageDialog(changePasswordDialog,
+                        "New Administrator Credentials has been saved!",
+                        "INFEST: Credentials Manager", javax.swing.JOptionPane.INFORMATION_MESSAGE);
+                changePasswordDialog.setVisible(false);
+            } else {
                 javax.swing.JOptionPane.showMessageDialog(changePasswordDialog, 
-                        "Infest Configuration File is miss-configured!\n\n"
-                        + "Please verify that the Infest Configuration File (infest.conf) is exist in the current\n"
-                        + "working directory and is properly configured. Any wrong setting or modification of\n"
-                        + "Infest Configuration File would cause this error.", 
-                        "INFEST: Program Configuration Manager", javax.swing.JOptionPane.ERROR_MESSAGE);
-                fatalExit(-1);
+                        "Authentication Failed!\n\n"
+                            + "Either current password is wrong, or your\n"
+                            + "Infest Configuration File is miss-configured.",
+                        "INFEST: Authentication System", javax.swing.JOptionPane.ERROR_MESSAGE);
             }
-        } else {
-            javax.swing.JOptionPane.showMessageDialog(changePasswordDialog, 
-                    "Authentication Failed!\n\n"
-                        + "Either current password is wrong, or your\n"
-                        + "Infest Configuration File is miss-configured.",
-                    "INFEST: Authentication System", javax.swing.JOptionPane.ERROR_MESSAGE);
-        }
+        }, (cause) -> handleCredentialsFailure(changePasswordDialog, cause, "Failed to set new credentials!\n\n"
+                + "The program is unable to create new credentials file.\n"
+                + "The file probably is under used by another proccess.")).start();
     }
     
     protected void setOperatorCredentials() {
@@ -440,16 +425,17 @@ public final class Administrator {
     }
     
     protected void setOperatorCredentials(com.jogjadamai.infest.administrator.OperatorCredentialsDialog operatorCredentialsDialog) {
-        if(createCredentials(com.jogjadamai.infest.communication.IProtocolClient.Type.OPERATOR,
-                operatorCredentialsDialog.usernameField.getText(), 
-                operatorCredentialsDialog.newPasswordField.getPassword())) {
+        final String username = operatorCredentialsDialog.usernameField.getText();
+        final char[] password = operatorCredentialsDialog.newPasswordField.getPassword();
+        new BackgroundTask<Void>(operatorCredentialsDialog, "Saving new Operator Credentials...", () -> {
+            writeCredentials(com.jogjadamai.infest.communication.IProtocolClient.Type.OPERATOR, username, password);
+            return null;
+        }, (result) -> {
             javax.swing.JOptionPane.showMessageDialog((activeFrame == ViewFrame.MAIN) ? mainFrame : signInFrame, 
                     "New Operator Credentials has been successfully set!",
                     "INFEST: Credentials Manager", javax.swing.JOptionPane.INFORMATION_MESSAGE);
             operatorCredentialsDialog.setVisible(false);
-        } else javax.swing.JOptionPane.showMessageDialog((activeFrame == ViewFrame.MAIN) ? mainFrame : signInFrame,
-                "Failed to set new Operator Credentials!",
-                "INFEST: Credentials Manager", javax.swing.JOptionPane.ERROR_MESSAGE);
+        }, (cause) -> handleCredentialsFailure((activeFrame == ViewFrame.MAIN) ? mainFrame : signInFrame, cause, "Failed to set new Operator Credentials!")).start();
     }
     
     protected void resetOperatorCredentials() {
@@ -458,12 +444,13 @@ public final class Administrator {
                 "INFEST: Credentials Manager", 
                 javax.swing.JOptionPane.YES_NO_OPTION, 
                 javax.swing.JOptionPane.QUESTION_MESSAGE) == javax.swing.JOptionPane.YES_OPTION){
-            if(createOperatorCredentials()) javax.swing.JOptionPane.showMessageDialog((activeFrame == ViewFrame.MAIN) ? mainFrame : signInFrame, 
+            new BackgroundTask<Void>((activeFrame == ViewFrame.MAIN) ? mainFrame : signInFrame, "Resetting Operator Credentials...", () -> {
+                writeCredentials(com.jogjadamai.infest.communication.IProtocolClient.Type.OPERATOR, null, null);
+                return null;
+            }, (result) -> javax.swing.JOptionPane.showMessageDialog((activeFrame == ViewFrame.MAIN) ? mainFrame : signInFrame, 
                     "Operator Credentials has been successfully reset!",
-                    "INFEST: Credentials Manager", javax.swing.JOptionPane.INFORMATION_MESSAGE);
-            else javax.swing.JOptionPane.showMessageDialog((activeFrame == ViewFrame.MAIN) ? mainFrame : signInFrame, 
-                    "Failed to reset Operator Credentials!",
-                    "INFEST: Credentials Manager", javax.swing.JOptionPane.ERROR_MESSAGE);
+                    "INFEST: Credentials Manager", javax.swing.JOptionPane.INFORMATION_MESSAGE),
+            (cause) -> handleCredentialsFailure((activeFrame == ViewFrame.MAIN) ? mainFrame : signInFrame, cause, "Failed to reset Operator Credentials!")).start();
         }
     }
     
@@ -481,50 +468,37 @@ public final class Administrator {
         return salt;
     }
     
-    protected Boolean createOperatorCredentials() {
-        return createCredentials(com.jogjadamai.infest.communication.IProtocolClient.Type.OPERATOR, null, null);
+    protected void createCredentials(java.awt.Component parent, com.jogjadamai.infest.communication.IProtocolClient.Type clientType, String username, char[] password, Runnable onDone) {
+        // The first run carries on whether or not the credentials could be
+        // written, so a failure is reported before onDone is run.
+        new BackgroundTask<Void>(parent, "Saving Credentials...", () -> {
+            writeCredentials(clientType, username, password);
+            return null;
+        }, (result) -> onDone.run(), (cause) -> {
+            handleCredentialsFailure(parent, cause, "Failed to save Credentials!");
+            onDone.run();
+        }).start();
     }
     
-    protected Boolean createCredentials(com.jogjadamai.infest.communication.IProtocolClient.Type clientType, String username, char[] password) {
-        Boolean isSuccess = false;
+    private void writeCredentials(com.jogjadamai.infest.communication.IProtocolClient.Type clientType, String username, char[] password) throws java.io.IOException, java.security.GeneralSecurityException {
+        String salt = getSalt();
+        com.jogjadamai.infest.security.Credentials credentials;
         try {
-            String salt = getSalt();
-            com.jogjadamai.infest.security.Credentials credentials;
-            try {
-                if(username == null || password == null) credentials = com.jogjadamai.infest.security.CredentialsManager.createDefaultEncryptedCredentials(clientType, salt);
-                else credentials = com.jogjadamai.infest.security.CredentialsManager.createEncryptedCredentials(username, password, salt);
-                java.io.File credFile = new java.io.File(clientType.name().toLowerCase() + ".crd");
-                credFile.createNewFile();
-                java.io.FileOutputStream fos = new java.io.FileOutputStream(credFile, false);
-                try (java.io.ObjectOutputStream oos = new java.io.ObjectOutputStream(fos)) {
-                    oos.writeObject(credentials);
-                    isSuccess = true;
-                } catch (java.io.IOException ex) {
-                    System.err.println("[INFEST] " + ex);
-                } finally {
-                    try {
-                        fos.close();
-                    } catch (java.io.IOException ex) {
-                        System.err.println("[INFEST] " + ex);
-                    }
-                }
-            } catch (Exception ex) {
-                System.err.println("[INFEST] " +  getNowTime() + ": " + ex);
-                javax.swing.JOptionPane.showMessageDialog((activeFrame == ViewFrame.MAIN) ? mainFrame : signInFrame,
-                        "Failed to encrypt credentials.",
-                        "INFEST: Encryption System", javax.swing.JOptionPane.ERROR_MESSAGE);
-            }
-        } catch (NullPointerException ex) {
-            System.err.println("[INFEST] " +  getNowTime() + ": " + ex);
-            javax.swing.JOptionPane.showMessageDialog((activeFrame == ViewFrame.MAIN) ? mainFrame : signInFrame,
-                    "Infest Configuration File is miss-configured!\n\n"
-                            + "Please verify that the Infest Configuration File (infest.conf) is exist in the current\n"
-                            + "working directory and is properly configured. Any wrong setting or modification of\n"
-                            + "Infest Configuration File would cause this error.", 
-                    "INFEST: Program Configuration Manager", javax.swing.JOptionPane.ERROR_MESSAGE);
-            fatalExit(-1);
+            if(username == null || password == null) credentials = com.jogjadamai.infest.security.CredentialsManager.createDefaultEncryptedCredentials(clientType, salt);
+            else credentials = com.jogjadamai.infest.security.CredentialsManager.createEncryptedCredentials(username, password, salt);
+        } catch (Exception ex) {
+            throw new java.security.GeneralSecurityException(ex);
+        }
+        java.io.File credFile = new java.io.File(clientType.name().toLowerCase() + ".crd");
+        try (java.io.ObjectOutputStream oos = new java.io.ObjectOutputStream(new java.io.FileOutputStream(credFile, false))) {
+            oos.writeObject(credentials);
         }
-        return isSuccess;
+    }
+    
+    private void handleCredentialsFailure(java.awt.Component parent, Throwable cause, String message) {
+        if(cause instanceof java.io.IOException && !(cause instanceof java.rmi.RemoteException)) {
+            javax.swing.JOptionPane.showMessageDialog(parent, message, "INFEST: Credentials Manager", javax.swing.JOptionPane.ERROR_MESSAGE);
+        } else handleTaskFailure(parent, cause);
     }
     
 }
@@ -0,0 +1,134 @@
+/*
+ * Copyright 2017 Danang Galuh Tegar P.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.jogjadamai.infest.administrator;
+
+/**
+ * <h1>class <code>BackgroundTask</code></h1>
+ * <p><code>BackgroundTask</code> runs remote, file, and encryption work of
+ * <code>Administrator</code> on a <code>SwingWorker</code> thread, then hands
+ * the result or the failure back to the Event Dispatch Thread. While the task
+ * runs the parent window shows a wait cursor; when it takes longer than a
+ * moment a progress dialog with a <i>Cancel</i> button is shown. A cancelled
+ * task never calls back, so a late answer from the server is discarded.</p>
+ * <br>
+ * <p><b><i>Coded, built, and packaged with passion by Danang Galuh Tegar P for Infest.</i></b></p>
+ *
+ * @author Danang Galuh Tegar P
+ * @version 2017.03.10.0001
+ * @param <T> Result type of the background work.
+ * @see com.jogjadamai.infest.administrator.Administrator
+ */
+final class BackgroundTask<T> extends javax.swing.SwingWorker<T, Void> {
+
+    private static final int DIALOG_DELAY = 400;
+
+    private final java.awt.Component parent;
+    private final String description;
+    private final java.util.concurrent.Callable<T> work;
+    private final java.util.function.Consumer<T> onSuccess;
+    private final java.util.function.Consumer<Throwable> onFailure;
+    private final javax.swing.Timer dialogTimer;
+
+    private javax.swing.JDialog progressDialog;
+    private java.awt.Cursor parentCursor;
+
+    /**
+     * <h2>constructor <code>BackgroundTask()</code></h2>
+     * <p>Create a new background task. The task is not run until
+     * <code>start()</code> is called.</p>
+     *
+     * @param parent      Component owning the progress indication.
+     * @param description Text shown on the progress dialog.
+     * @param work        Work to be run off the Event Dispatch Thread.
+     * @param onSuccess   Called on the Event Dispatch Thread with the result.
+     * @param onFailure   Called on the Event Dispatch Thread with the cause of
+     *                    the failure.
+     */
+    protected BackgroundTask(java.awt.Component parent, String description, java.util.concurrent.Callable<T> work, java.util.function.Consumer<T> onSuccess, java.util.function.Consumer<Throwable> onFailure) {
+        this.parent = parent;
+        this.description = description;
+        this.work = work;
+        this.onSuccess = onSuccess;
+        this.onFailure = onFailure;
+        this.dialogTimer = new javax.swing.Timer(DIALOG_DELAY, (evt) -> showProgressDialog());
+        this.dialogTimer.setRepeats(false);
+    }
+
+    /**
+     * <h2>method <code>start()</code></h2>
+     * <p>Method <code>start</code> is used to show the progress indication and
+     * run the work in the background. It must be called on the Event Dispatch
+     * Thread.</p>
+     */
+    protected void start() {
+        parentCursor = parent.getCursor();
+        parent.setCursor(java.awt.Cursor.getPredefinedCursor(java.awt.Cursor.WAIT_CURSOR));
+        dialogTimer.start();
+        execute();
+    }
+
+    @Override
+    protected T doInBackground() throws Exception {
+        return work.call();
+    }
+
+    @Override
+    protected void done() {
+        dialogTimer.stop();
+        if(progressDialog != null) progressDialog.dispose();
+        parent.setCursor(parentCursor);
+        if(isCancelled()) {
+            System.out.println("[INFEST] " +  getNowTime() + ": " + description + " cancelled.");
+            return;
+        }
+        try {
+            onSuccess.accept(get());
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        } catch (java.util.concurrent.ExecutionException ex) {
+            System.err.println("[INFEST] " +  getNowTime() + ": " + ex.getCause());
+            onFailure.accept(ex.getCause());
+        }
+    }
+
+    private void showProgressDialog() {
+        if(isDone()) return;
+        java.awt.Window owner = (parent instanceof java.awt.Window) ? (java.awt.Window) parent : javax.swing.SwingUtilities.getWindowAncestor(parent);
+        progressDialog = new javax.swing.JDialog(owner, "INFEST: Please Wait", java.awt.Dialog.ModalityType.DOCUMENT_MODAL);
+        progressDialog.setDefaultCloseOperation(javax.swing.WindowConstants.DO_NOTHING_ON_CLOSE);
+        javax.swing.JProgressBar progressBar = new javax.swing.JProgressBar();
+        progressBar.setIndeterminate(true);
+        javax.swing.JButton cancelButton = new javax.swing.JButton("Cancel");
+        cancelButton.addActionListener((evt) -> cancel(true));
+        javax.swing.JPanel contentPanel = new javax.swing.JPanel(new java.awt.BorderLayout(10, 10));
+        contentPanel.setBorder(javax.swing.BorderFactory.createEmptyBorder(15, 15, 15, 15));
+        contentPanel.add(new javax.swing.JLabel(description), java.awt.BorderLayout.NORTH);
+        contentPanel.add(progressBar, java.awt.BorderLayout.CENTER);
+        contentPanel.add(cancelButton, java.awt.BorderLayout.EAST);
+        progressDialog.setContentPane(contentPanel);
+        progressDialog.pack();
+        progressDialog.setLocationRelativeTo(owner);
+        if(owner != null) progressDialog.setAlwaysOnTop(owner.isAlwaysOnTop());
+        // Showing a modal dialog pumps events until done() disposes it, so
+        // the owner window stays painted but cannot start a second task.
+        progressDialog.setVisible(true);
+    }
+
+    private String getNowTime() {
+        return java.time.format.DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss.SSS").format(java.time.LocalDateTime.now());
+    }
+
+}
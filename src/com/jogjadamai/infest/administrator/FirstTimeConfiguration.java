@@ -247,8 +247,6 @@ public class FirstTimeConfiguration extends javax.swing.JFrame {
                         "INFEST: Program Configuration Manager", 
                         javax.swing.JOptionPane.INFORMATION_MESSAGE);
                 createCredentials();
-                administrator.onFirstRun();
-                dispose();
             } else {
                 if(javax.swing.JOptionPane.showConfirmDialog(this,
                         "We detected that Server Address is not a Valid URL.\n"
@@ -267,8 +265,6 @@ public class FirstTimeConfiguration extends javax.swing.JFrame {
                         "INFEST: Program Configuration Manager", 
                         javax.swing.JOptionPane.INFORMATION_MESSAGE);
                     createCredentials();
-                    administrator.onFirstRun();
-                    dispose();
                 }
             }
         }
@@ -487,6 +483,9 @@ public class FirstTimeConfiguration extends javax.swing.JFrame {
     }
     
     private void createCredentials() {
-        administrator.createCredentials(com.jogjadamai.infest.communication.IProtocolClient.Type.ADMINISTRATOR, username, password);
+        administrator.createCredentials(this, com.jogjadamai.infest.communication.IProtocolClient.Type.ADMINISTRATOR, username, password, () -> {
+            administrator.onFirstRun();
+            dispose();
+        });
     }
 }
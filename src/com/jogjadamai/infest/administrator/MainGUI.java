@@ -63,6 +63,13 @@ public final class MainGUI extends javax.swing.JFrame implements Runnable {
         resetOperatorCredential = new javax.swing.JMenuItem();
         helpMenu = new javax.swing.JMenu();
         seeDocumentationMenuItem = new javax.swing.JMenuItem();
+        mainTabbedPane = new javax.swing.JTabbedPane();
+        performancePanel = new javax.swing.JPanel();
+        methodScrollPane = new javax.swing.JScrollPane();
+        methodTable = new javax.swing.JTable();
+        sessionsLabel = new javax.swing.JLabel();
+        databaseLabel = new javax.swing.JLabel();
+        jvmLabel = new javax.swing.JLabel();
 
         setDefaultCloseOperation(javax.swing.WindowConstants.EXIT_ON_CLOSE);
         setTitle("INFEST: Administrator Panel");
@@ -183,6 +190,74 @@ public final class MainGUI extends javax.swing.JFrame implements Runnable {
                 .addGap(15, 15, 15))
         );
 
+        performancePanel.setBackground(new java.awt.Color(0xffffff));
+        performancePanel.setBorder(javax.swing.BorderFactory.createTitledBorder(null, "Performance Dashboard", javax.swing.border.TitledBorder.DEFAULT_JUSTIFICATION, javax.swing.border.TitledBorder.DEFAULT_POSITION, new java.awt.Font("Segoe UI", 0, 12))); // NOI18N
+        performancePanel.setToolTipText("Live performance figures of the Infest API Server, refreshed every second.");
+        performancePanel.setMaximumSize(new java.awt.Dimension(625, 400));
+        performancePanel.setMinimumSize(new java.awt.Dimension(625, 400));
+
+        methodTableModel = new javax.swing.table.DefaultTableModel(
+            new Object[][] {},
+            new String[] {"Method", "Req/s", "Calls", "p50 (ms)", "p99 (ms)", "p99.9 (ms)", "Max (ms)", "Denied"}
+        ) {
+            @Override
+            public boolean isCellEditable(int row, int column) {
+                return false;
+            }
+        };
+        methodTable.setModel(methodTableModel);
+        methodTable.setFont(new java.awt.Font("Segoe UI", 0, 11)); // NOI18N
+        methodTable.setToolTipText("Throughput and latency of every Infest API Server method.");
+        methodTable.setDoubleBuffered(true);
+        methodTable.setFillsViewportHeight(true);
+        methodTable.getTableHeader().setReorderingAllowed(false);
+        methodTable.getColumnModel().getColumn(0).setPreferredWidth(150);
+        methodScrollPane.setViewportView(methodTable);
+
+        sessionsLabel.setFont(new java.awt.Font("Segoe UI", 0, 12)); // NOI18N
+        sessionsLabel.setText("Active Sessions: -");
+        sessionsLabel.setToolTipText("Open client sessions by client type.");
+
+        databaseLabel.setFont(new java.awt.Font("Segoe UI", 0, 12)); // NOI18N
+        databaseLabel.setText("Database: -");
+        databaseLabel.setToolTipText("Time spent by the Infest API Server in database calls.");
+
+        jvmLabel.setFont(new java.awt.Font("Segoe UI", 0, 12)); // NOI18N
+        jvmLabel.setText("JVM: -");
+        jvmLabel.setToolTipText("Heap usage and garbage collection of this program.");
+
+        javax.swing.GroupLayout performancePanelLayout = new javax.swing.GroupLayout(performancePanel);
+        performancePanel.setLayout(performancePanelLayout);
+        performancePanelLayout.setHorizontalGroup(
+            performancePanelLayout.createParallelGroup(javax.swing.GroupLayout.Alignment.LEADING)
+            .addGroup(performancePanelLayout.createSequentialGroup()
+                .addContainerGap()
+                .addGroup(performancePanelLayout.createParallelGroup(javax.swing.GroupLayout.Alignment.LEADING)
+                    .addComponent(methodScrollPane, javax.swing.GroupLayout.DEFAULT_SIZE, 595, Short.MAX_VALUE)
+                    .addComponent(sessionsLabel)
+                    .addComponent(databaseLabel)
+                    .addComponent(jvmLabel))
+                .addContainerGap())
+        );
+        performancePanelLayout.setVerticalGroup(
+            performancePanelLayout.createParallelGroup(javax.swing.GroupLayout.Alignment.LEADING)
+            .addGroup(performancePanelLayout.createSequentialGroup()
+                .addContainerGap()
+                .addComponent(methodScrollPane, javax.swing.GroupLayout.DEFAULT_SIZE, 220, Short.MAX_VALUE)
+                .addGap(10, 10, 10)
+                .addComponent(sessionsLabel)
+                .addGap(6, 6, 6)
+                .addComponent(databaseLabel)
+                .addGap(6, 6, 6)
+                .addComponent(jvmLabel)
+                .addContainerGap())
+        );
+
+        mainTabbedPane.setFont(new java.awt.Font("Segoe UI", 0, 12)); // NOI18N
+        mainTabbedPane.setDoubleBuffered(true);
+        mainTabbedPane.addTab("Features", featurePanel);
+        mainTabbedPane.addTab("Performance", performancePanel);
+
         serverToggleButton.setFont(new java.awt.Font("Segoe UI", 1, 14)); // NOI18N
         serverToggleButton.setToolTipText("Start/stop Infest API Server.");
         serverToggleButton.setDoubleBuffered(true);
@@ -286,7 +361,7 @@ public final class MainGUI extends javax.swing.JFrame implements Runnable {
                             .addComponent(statusLabel))
                         .addPreferredGap(javax.swing.LayoutStyle.ComponentPlacement.RELATED, javax.swing.GroupLayout.DEFAULT_SIZE, Short.MAX_VALUE)
                         .addComponent(logoPanel, javax.swing.GroupLayout.PREFERRED_SIZE, javax.swing.GroupLayout.DEFAULT_SIZE, javax.swing.GroupLayout.PREFERRED_SIZE))
-                    .addComponent(featurePanel, javax.swing.GroupLayout.PREFERRED_SIZE, javax.swing.GroupLayout.DEFAULT_SIZE, javax.swing.GroupLayout.PREFERRED_SIZE))
+                    .addComponent(mainTabbedPane, javax.swing.GroupLayout.PREFERRED_SIZE, javax.swing.GroupLayout.DEFAULT_SIZE, javax.swing.GroupLayout.PREFERRED_SIZE))
                 .addGap(15, 15, 15))
         );
         layout.setVerticalGroup(
@@ -300,7 +375,7 @@ public final class MainGUI extends javax.swing.JFrame implements Runnable {
                         .addComponent(statusLabel))
                     .addComponent(logoPanel, javax.swing.GroupLayout.PREFERRED_SIZE, javax.swing.GroupLayout.DEFAULT_SIZE, javax.swing.GroupLayout.PREFERRED_SIZE))
                 .addPreferredGap(javax.swing.LayoutStyle.ComponentPlacement.RELATED)
-                .addComponent(featurePanel, javax.swing.GroupLayout.DEFAULT_SIZE, javax.swing.GroupLayout.DEFAULT_SIZE, Short.MAX_VALUE)
+                .addComponent(mainTabbedPane, javax.swing.GroupLayout.DEFAULT_SIZE, javax.swing.GroupLayout.DEFAULT_SIZE, Short.MAX_VALUE)
                 .addGap(15, 15, 15))
         );
 
@@ -309,9 +384,7 @@ public final class MainGUI extends javax.swing.JFrame implements Runnable {
     }
     
     private void saveFeaturesConfigurationActionPerformed(java.awt.event.ActionEvent evt) { 
-        if (administrator.writeAllFeatures()) javax.swing.JOptionPane.showMessageDialog(this, "Features Configuration saved successfully!", "Save Configuration", javax.swing.JOptionPane.INFORMATION_MESSAGE);
-        else javax.swing.JOptionPane.showMessageDialog(this, "Features Configuration failed to be save!", "Save Configuration", javax.swing.JOptionPane.ERROR_MESSAGE);
-        if (!administrator.readAllFeatures()) javax.swing.JOptionPane.showMessageDialog(this, "Failed to read Features Configuration!", "Read Configuration", javax.swing.JOptionPane.ERROR_MESSAGE);
+        administrator.writeAllFeatures();
     }                                                         
 
     private void serverToggleButtonActionPerformed(java.awt.event.ActionEvent evt) {
@@ -360,6 +433,7 @@ public final class MainGUI extends javax.swing.JFrame implements Runnable {
     protected javax.swing.JMenu credentialsManagerMenu;
     protected javax.swing.JPopupMenu.Separator credentialsManagerMenuSeparator;
     protected javax.swing.JTextField currencyTextField;
+    protected javax.swing.JLabel databaseLabel;
     protected javax.swing.JCheckBox customerPrintBillCheckBox;
     protected javax.swing.JCheckBox customerShowMenuDurationCheckBox;
     protected javax.swing.JCheckBox customerShowMenuImageCheckBox;
@@ -367,16 +441,23 @@ public final class MainGUI extends javax.swing.JFrame implements Runnable {
     protected javax.swing.JPanel featurePanel;
     protected javax.swing.JMenu helpMenu;
     protected javax.swing.JLabel infestLogoLabel;
+    protected javax.swing.JLabel jvmLabel;
     protected javax.swing.JPanel logoPanel;
+    protected javax.swing.JTabbedPane mainTabbedPane;
     protected javax.swing.JCheckBox maintenanceModeCheckBox;
     protected javax.swing.JMenuBar menuBar;
+    protected javax.swing.JScrollPane methodScrollPane;
+    protected javax.swing.JTable methodTable;
+    protected javax.swing.table.DefaultTableModel methodTableModel;
     protected javax.swing.JCheckBox operatorGenerateReportCheckBox;
+    protected javax.swing.JPanel performancePanel;
     protected javax.swing.JMenu programMenu;
     protected javax.swing.JMenuItem resetOperatorCredential;
     protected javax.swing.JButton saveFeaturesConfiguration;
     protected javax.swing.JMenuItem seeDocumentationMenuItem;
     protected javax.swing.JLabel serverStatusLabel;
     protected javax.swing.JToggleButton serverToggleButton;
+    protected javax.swing.JLabel sessionsLabel;
     protected javax.swing.JMenuItem setCustomOperatorCredentialMenuItem;
     protected javax.swing.JCheckBox showCurrencyCheckBox;
     protected javax.swing.JMenuItem signOutMenuItem;
@@ -392,4 +473,4 @@ public final class MainGUI extends javax.swing.JFrame implements Runnable {
         setLocationRelativeTo(null);
     }
 
-}
\ No newline at end of file
+}
\ No newline at end of file
@@ -0,0 +1,291 @@
+/*
+ * Copyright 2017 Danang Galuh Tegar P.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.jogjadamai.infest.communication;
+
+import com.jogjadamai.infest.entity.FinanceReport;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * <h1>class <code>DayCloser</code></h1>
+ * <p><code>DayCloser</code> closes the business days of
+ * <code>ProtocolServer</code>. Every day at the close time, every day before
+ * today that is not closed yet is closed: its finance report, its sales by
+ * menu, and its top sellers are computed once and saved to a file in the
+ * <code>report</code> directory. A closed day is read back from memory, or
+ * from its file after a restart; it is only computed again when an order is
+ * added to it after its close, such as an order placed just before midnight
+ * and committed after the close time.</p>
+ * <p>Days missed while the server was stopped are closed at startup, once
+ * their close time has passed, just as they would have been had the server
+ * been running. On the very first run, only the last due day is closed.</p>
+ * <br>
+ * <p><b><i>Coded, built, and packaged with passion by Danang Galuh Tegar P for Infest.</i></b></p>
+ *
+ * @author Danang Galuh Tegar P
+ * @version 2017.03.10.0001
+ * @see com.jogjadamai.infest.communication.ProtocolServer
+ */
+final class DayCloser {
+
+    private static final String FILE_EXTENSION = ".report";
+
+    private final File DIRECTORY;
+    private final Function<LocalDate, List<FinanceReport>> REPORT_BUILDER;
+    private final SalesRollup SALES_ROLLUP;
+    private final TopSellerTracker TOP_SELLERS;
+    private final Consumer<String> STATUS;
+    private final LocalTime CLOSE_TIME;
+    private final int TOP_SELLER_LIMIT;
+    private final ConcurrentMap<LocalDate, ClosedDay> CLOSED_DAY_MAP;
+    private final Set<LocalDate> RECLOSE_DATES;
+    private final ScheduledExecutorService SCHEDULER;
+
+    private LocalDate lastClosed;
+
+    /**
+     * <h2>class <code>ClosedDay</code></h2>
+     * <p>Everything saved when a day is closed.</p>
+     */
+    protected static final class ClosedDay implements Serializable {
+
+        private static final long serialVersionUID = 1L;
+
+        private final LocalDate date;
+        private final List<FinanceReport> financeReport;
+        private final Map<Integer, long[]> sales;
+        private final List<TopSeller> topSellers;
+
+        private ClosedDay(LocalDate date, List<FinanceReport> financeReport, Map<Integer, long[]> sales, List<TopSeller> topSellers) {
+            this.date = date;
+            this.financeReport = financeReport;
+            this.sales = sales;
+            this.topSellers = topSellers;
+        }
+
+        /**
+         * @return The closed day.
+         */
+        protected LocalDate getDate() {
+            return date;
+        }
+
+        /**
+         * @return A new <code>List</code> of the finance report of the day.
+         */
+        protected List<FinanceReport> getFinanceReport() {
+            return new ArrayList<FinanceReport>(financeReport);
+        }
+
+        /**
+         * @return Quantity and income, in that order, by menu ID.
+         */
+        protected Map<Integer, long[]> getSales() {
+            return sales;
+        }
+
+        /**
+         * @return Top sellers of the day, best selling first.
+         */
+        protected List<TopSeller> getTopSellers() {
+            return topSellers;
+        }
+
+    }
+
+    /**
+     * <h2>constructor <code>DayCloser()</code></h2>
+     * <p>Create a new closer. Nothing is closed until it is started.</p>
+     *
+     * @param directory      Directory of the closed day files.
+     * @param reportBuilder  Builds the finance report of a day.
+     * @param salesRollup    <code>SalesRollup</code> of the daily sales.
+     * @param topSellers     <code>TopSellerTracker</code> counting the top
+     *                       sellers of a day.
+     * @param status         Status logger of the server.
+     * @param closeTime      Time of the day at which the days are closed.
+     * @param topSellerLimit Number of top sellers saved per day.
+     */
+    protected DayCloser(File directory, Function<LocalDate, List<FinanceReport>> reportBuilder, SalesRollup salesRollup, TopSellerTracker topSellers, Consumer<String> status, LocalTime closeTime, int topSellerLimit) {
+        this.DIRECTORY = directory;
+        this.REPORT_BUILDER = reportBuilder;
+        this.SALES_ROLLUP = salesRollup;
+        this.TOP_SELLERS = topSellers;
+        this.STATUS = status;
+        this.CLOSE_TIME = closeTime;
+        this.TOP_SELLER_LIMIT = topSellerLimit;
+        this.CLOSED_DAY_MAP = new ConcurrentHashMap<LocalDate, ClosedDay>();
+        this.RECLOSE_DATES = ConcurrentHashMap.newKeySet();
+        this.SCHEDULER = Executors.newSingleThreadScheduledExecutor((runnable) -> {
+            Thread thread = new Thread(runnable, "EndOfDayScheduler");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * <h2>method <code>start()</code></h2>
+     * <p>Method <code>start</code> is used to close the days missed so far and
+     * schedule the next close.</p>
+     */
+    protected void start() {
+        SCHEDULER.execute(this::closeDueDays);
+    }
+
+    /**
+     * <h2>method <code>read()</code></h2>
+     * <p>Method <code>read</code> is used to read a closed day.</p>
+     *
+     * @param date The day to be read.
+     * @return The <code>ClosedDay</code>, or <code>null</code> if the day is
+     *         not closed.
+     */
+    protected ClosedDay read(LocalDate date) {
+        ClosedDay closedDay = CLOSED_DAY_MAP.get(date);
+        if(closedDay != null) return closedDay;
+        File file = new File(DIRECTORY, date + FILE_EXTENSION);
+        if(!file.isFile()) return null;
+        try (ObjectInputStream ois = new ObjectInputStream(new FileInputStream(file))) {
+            closedDay = (ClosedDay) ois.readObject();
+        } catch (IOException | ClassNotFoundException | ClassCastException ex) {
+            System.err.println("[INFEST] " + ex);
+            return null;
+        }
+        CLOSED_DAY_MAP.putIfAbsent(date, closedDay);
+        return closedDay;
+    }
+
+    /**
+     * <h2>method <code>reclose()</code></h2>
+     * <p>Method <code>reclose</code> is used to close a closed day again, so
+     * that its saved report follows a change to its orders. The sales rollup
+     * must already hold the change. A day that is not closed is left
+     * alone.</p>
+     *
+     * @param date The day to be closed again.
+     * @throws java.io.IOException If the day cannot be saved.
+     */
+    protected void reclose(LocalDate date) throws IOException {
+        if(read(date) != null) close(date);
+    }
+
+    /**
+     * <h2>method <code>recloseLater()</code></h2>
+     * <p>Method <code>recloseLater</code> is used to have a day closed again
+     * on the closer thread after an order has been recorded under it. Days
+     * before today are queued once until they are closed again, and a day
+     * that is not closed by then is left alone; orders of today are
+     * ignored.</p>
+     *
+     * @param date The day of a recorded order.
+     */
+    protected void recloseLater(LocalDate date) {
+        if(!date.isBefore(LocalDate.now()) || !RECLOSE_DATES.add(date)) return;
+        SCHEDULER.execute(() -> {
+            RECLOSE_DATES.remove(date);
+            try {
+                reclose(date);
+            } catch (IOException | RuntimeException ex) {
+                STATUS.accept("DayCloser: Failed to close business day " + date + " again after a late order.");
+                Logger.getLogger(DayCloser.class.getName()).log(Level.SEVERE, "Caught an exception.", ex);
+            }
+        });
+    }
+
+    private void closeDueDays() {
+        try {
+            // A day is due once the close time of the day after it has
+            // passed, so a startup before the close time leaves yesterday
+            // open for its late orders.
+            LocalDateTime now = LocalDateTime.now();
+            LocalDate lastDue = now.toLocalDate().minusDays(now.toLocalTime().isBefore(CLOSE_TIME) ? 2 : 1);
+            if(lastClosed == null) lastClosed = findLastClosed();
+            LocalDate date = (lastClosed == null) ? lastDue : lastClosed.plusDays(1);
+            for(; !date.isAfter(lastDue); date = date.plusDays(1)) {
+                close(date);
+                lastClosed = date;
+            }
+        } catch (IOException | RuntimeException ex) {
+            STATUS.accept("DayCloser: Failed to close the business day, it will be retried at the next close.");
+            Logger.getLogger(DayCloser.class.getName()).log(Level.SEVERE, "Caught an exception.", ex);
+        } finally {
+            scheduleNext();
+        }
+    }
+
+    private synchronized void close(LocalDate date) throws IOException {
+        ClosedDay closedDay = new ClosedDay(date, REPORT_BUILDER.apply(date), SALES_ROLLUP.readDay(date), TOP_SELLERS.readDay(date, TOP_SELLER_LIMIT));
+        if(!DIRECTORY.exists()) DIRECTORY.mkdir();
+        // Written aside and moved into place, so a crash never leaves a
+        // half-written day behind that would be taken as closed.
+        File temporary = new File(DIRECTORY, date + FILE_EXTENSION + ".tmp");
+        try (ObjectOutputStream oos = new ObjectOutputStream(new FileOutputStream(temporary, false))) {
+            oos.writeObject(closedDay);
+        }
+        Files.move(temporary.toPath(), new File(DIRECTORY, date + FILE_EXTENSION).toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        CLOSED_DAY_MAP.put(date, closedDay);
+        STATUS.accept("DayCloser: Business day " + date + " has been closed.");
+    }
+
+    private LocalDate findLastClosed() {
+        LocalDate last = null;
+        File[] files = DIRECTORY.listFiles((directory, name) -> name.endsWith(FILE_EXTENSION));
+        if(files == null) return null;
+        for(File file : files) {
+            try {
+                LocalDate date = LocalDate.parse(file.getName().substring(0, file.getName().length() - FILE_EXTENSION.length()));
+                if(last == null || date.isAfter(last)) last = date;
+            } catch (DateTimeParseException ex) {
+                // Not a closed day file.
+            }
+        }
+        return last;
+    }
+
+    private void scheduleNext() {
+        ZonedDateTime now = ZonedDateTime.now();
+        ZonedDateTime next = now.toLocalDate().atTime(CLOSE_TIME).atZone(now.getZone());
+        if(!next.isAfter(now)) next = next.plusDays(1);
+        SCHEDULER.schedule(this::closeDueDays, Duration.between(now, next).toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+}
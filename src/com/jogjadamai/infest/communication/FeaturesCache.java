@@ -0,0 +1,135 @@
+/*
+ * Copyright 2017 Danang Galuh Tegar P.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.jogjadamai.infest.communication;
+
+import com.jogjadamai.infest.entity.Features;
+import com.jogjadamai.infest.persistence.InfestEntityController;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * <h1>class <code>FeaturesCache</code></h1>
+ * <p><code>FeaturesCache</code> is the read-through cache of every
+ * <code>Features</code> row held by <code>ProtocolServer</code>. The rows are
+ * kept as one immutable snapshot published through a volatile reference, so
+ * reads never lock and never touch the database once the cache is loaded.
+ * After every write the snapshot is reloaded and replaced as a whole, and its
+ * version number is increased.</p>
+ * <p>Versions start from the time the cache was created, so a version seen
+ * before a server restart never matches a version issued after it.</p>
+ * <br>
+ * <p><b><i>Coded, built, and packaged with passion by Danang Galuh Tegar P for Infest.</i></b></p>
+ *
+ * @author Danang Galuh Tegar P
+ * @version 2017.03.10.0001
+ * @see com.jogjadamai.infest.communication.ProtocolServer
+ */
+final class FeaturesCache {
+
+    private final InfestEntityController<Features> CONTROLLER;
+
+    private volatile Snapshot snapshot;
+    private long lastVersion;
+
+    private static final class Snapshot {
+
+        private final long version;
+        private final List<Features> features;
+        private final Map<Integer, Features> featureMap;
+
+        private Snapshot(long version, List<Features> rows) {
+            List<Features> features = new ArrayList<Features>(rows.size());
+            Map<Integer, Features> featureMap = new HashMap<Integer, Features>();
+            for(Features row : rows) {
+                // Detached copies, so later changes to the persistence
+                // context never leak into a published snapshot.
+                Features feature = new Features(row.getId(), row.getName(), row.getDescription(), row.getStatus());
+                features.add(feature);
+                featureMap.put(feature.getId(), feature);
+            }
+            this.version = version;
+            this.features = Collections.unmodifiableList(features);
+            this.featureMap = Collections.unmodifiableMap(featureMap);
+        }
+
+    }
+
+    protected FeaturesCache(InfestEntityController<Features> controller) {
+        this.CONTROLLER = controller;
+        this.lastVersion = System.currentTimeMillis();
+    }
+
+    /**
+     * <h2>method <code>readAll()</code></h2>
+     * <p>Method <code>readAll</code> is used to read every feature of the
+     * current snapshot, loading it on first use.</p>
+     *
+     * @return A new <code>List</code> of the cached <code>Features</code>.
+     */
+    protected List<Features> readAll() {
+        return new ArrayList<Features>(current().features);
+    }
+
+    /**
+     * <h2>method <code>read()</code></h2>
+     * <p>Method <code>read</code> is used to read one feature of the current
+     * snapshot, loading it on first use.</p>
+     *
+     * @param id The ID of the feature.
+     * @return The cached <code>Features</code>, or <code>null</code> if there
+     *         is no feature with that ID.
+     */
+    protected Features read(Integer id) {
+        return current().featureMap.get(id);
+    }
+
+    /**
+     * <h2>method <code>getVersion()</code></h2>
+     * <p>Method <code>getVersion</code> is used to get the version of the
+     * current snapshot. The version changes every time the snapshot is
+     * replaced.</p>
+     *
+     * @return Version of the current snapshot.
+     */
+    protected long getVersion() {
+        return current().version;
+    }
+
+    /**
+     * <h2>method <code>reload()</code></h2>
+     * <p>Method <code>reload</code> is used to read every feature from the
+     * database and atomically replace the current snapshot. It is called after
+     * every write to the <code>Features</code> table.</p>
+     */
+    protected synchronized void reload() {
+        // Reloads are serialised, so a slower reload can never publish rows
+        // older than those of a reload that started after it.
+        snapshot = new Snapshot(++lastVersion, CONTROLLER.readAll());
+    }
+
+    private Snapshot current() {
+        Snapshot current = snapshot;
+        if(current != null) return current;
+        synchronized(this) {
+            if(snapshot == null) reload();
+            return snapshot;
+        }
+    }
+
+}
@@ -0,0 +1,373 @@
+/*
+ * Copyright 2017 Danang Galuh Tegar P.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.jogjadamai.infest.communication;
+
+import com.jogjadamai.infest.entity.Carts;
+import com.jogjadamai.infest.entity.Features;
+import com.jogjadamai.infest.entity.FinanceReport;
+import com.jogjadamai.infest.entity.Menus;
+import com.jogjadamai.infest.entity.Orders;
+import java.rmi.RemoteException;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * <h1>interface <code>IExtendedProtocolServer</code></h1>
+ * <p><code>IExtendedProtocolServer</code> is the <code>java.rmi.Remote</code>
+ * interface of the operations served by <code>ProtocolServer</code> on top
+ * of <code>IProtocolServer</code>. The remote stub bound by the server
+ * implements both interfaces, so clients simply cast the looked-up stub.</p>
+ * <br>
+ * <p><b><i>Coded, built, and packaged with passion by Danang Galuh Tegar P for Infest.</i></b></p>
+ *
+ * @author Danang Galuh Tegar P
+ * @version 2017.03.10.0001
+ * @see com.jogjadamai.infest.communication.IProtocolServer
+ * @see com.jogjadamai.infest.communication.ProtocolServer
+ */
+public interface IExtendedProtocolServer extends IProtocolServer {
+
+    /**
+     * <h2>method <code>updateFeatures()</code></h2>
+     * <p>Method <code>updateFeatures</code> is used to update several
+     * <code>Features</code> entities in a single transaction. Either every
+     * feature is updated or none is.</p>
+     *
+     * @param client   <code>IProtocolClient</code> object to execute this method.
+     * @param features <code>Features</code> objects to be updated.
+     * @return <code>true</code> if the transaction was committed.
+     * @throws java.rmi.RemoteException A <code>RemoteException</code> is the
+     *                                  common superclass for a number of
+     *                                  communication-related exceptions that
+     *                                  may occur during the execution of a
+     *                                  remote method call.
+     */
+    public Boolean updateFeatures(IProtocolClient client, List<Features> features) throws RemoteException;
+
+    /**
+     * <h2>method <code>getFeaturesVersion()</code></h2>
+     * <p>Method <code>getFeaturesVersion</code> is used to get the version of
+     * the <code>Features</code> entities. The version changes every time any
+     * feature is updated, so a client only needs to read the features again
+     * when the version differs from the one it last saw.</p>
+     *
+     * @param client <code>IProtocolClient</code> object to execute this method.
+     * @return Current version of the <code>Features</code> entities, or
+     *         <code>null</code> if the client is not permitted.
+     * @throws java.rmi.RemoteException A <code>RemoteException</code> is the
+     *                                  common superclass for a number of
+     *                                  communication-related exceptions that
+     *                                  may occur during the execution of a
+     *                                  remote method call.
+     */
+    public Long getFeaturesVersion(IProtocolClient client) throws RemoteException;
+
+    /**
+     * <h2>method <code>readMenusByType()</code></h2>
+     * <p>Method <code>readMenusByType</code> is used to read every
+     * <code>Menus</code> entity of one type, served from the in-memory menu
+     * catalog of the server.</p>
+     *
+     * @param client <code>IProtocolClient</code> object to execute this method.
+     * @param type   Type of the menus to be read.
+     * @return <code>List</code> of the <code>Menus</code> of that type, or
+     *         <code>null</code> if the client is not permitted.
+     * @throws java.rmi.RemoteException A <code>RemoteException</code> is the
+     *                                  common superclass for a number of
+     *                                  communication-related exceptions that
+     *                                  may occur during the execution of a
+     *                                  remote method call.
+     */
+    public List<Menus> readMenusByType(IProtocolClient client, Integer type) throws RemoteException;
+
+    /**
+     * <h2>method <code>getMenusVersion()</code></h2>
+     * <p>Method <code>getMenusVersion</code> is used to get the version of the
+     * menu catalog. The version changes every time any menu is created or
+     * updated, including its stock.</p>
+     *
+     * @param client <code>IProtocolClient</code> object to execute this method.
+     * @return Current version of the menu catalog, or <code>null</code> if
+     *         the client is not permitted.
+     * @throws java.rmi.RemoteException A <code>RemoteException</code> is the
+     *                                  common superclass for a number of
+     *                                  communication-related exceptions that
+     *                                  may occur during the execution of a
+     *                                  remote method call.
+     */
+    public Long getMenusVersion(IProtocolClient client) throws RemoteException;
+
+    /**
+     * <h2>method <code>createCartWithOrders()</code></h2>
+     * <p>Method <code>createCartWithOrders</code> is used to check out a whole
+     * cart in one round trip: the cart, every one of its orders, and the stock
+     * decrement of every ordered menu are persisted in a single transaction.
+     * Either all of them are created or none is.</p>
+     *
+     * @param client <code>IProtocolClient</code> object to execute this method.
+     * @param cart   <code>Carts</code> object to be created.
+     * @param orders <code>Orders</code> objects of the cart to be created.
+     * @return The created <code>Carts</code> with its orders, or
+     *         <code>null</code> if the cart was rejected.
+     * @throws java.rmi.RemoteException A <code>RemoteException</code> is the
+     *                                  common superclass for a number of
+     *                                  communication-related exceptions that
+     *                                  may occur during the execution of a
+     *                                  remote method call.
+     */
+    public Carts createCartWithOrders(IProtocolClient client, Carts cart, List<Orders> orders) throws RemoteException;
+
+    /**
+     * <h2>method <code>submitOrder()</code></h2>
+     * <p>Method <code>submitOrder</code> is used to queue a new order without
+     * waiting for it to be written. The order is safe once the receipt read
+     * back with <code>readOrderReceipt</code> reports
+     * <code>COMMITTED</code>.</p>
+     *
+     * @param client <code>IProtocolClient</code> object to execute this method.
+     * @param order  <code>Orders</code> object to be created.
+     * @return A <code>QUEUED</code> or <code>REJECTED</code>
+     *         <code>OrderReceipt</code>, or <code>null</code> if the client is
+     *         not permitted.
+     * @throws java.rmi.RemoteException A <code>RemoteException</code> is the
+     *                                  common superclass for a number of
+     *                                  communication-related exceptions that
+     *                                  may occur during the execution of a
+     *                                  remote method call.
+     */
+    public OrderReceipt submitOrder(IProtocolClient client, Orders order) throws RemoteException;
+
+    /**
+     * <h2>method <code>readOrderReceipt()</code></h2>
+     * <p>Method <code>readOrderReceipt</code> is used to read the current
+     * receipt of an order queued with <code>submitOrder</code>.</p>
+     *
+     * @param client <code>IProtocolClient</code> object to execute this method.
+     * @param ticket Ticket of the receipt returned by <code>submitOrder</code>.
+     * @return The current <code>OrderReceipt</code>, or <code>null</code> if
+     *         the ticket is unknown, expired, or not submitted by the client.
+     * @throws java.rmi.RemoteException A <code>RemoteException</code> is the
+     *                                  common superclass for a number of
+     *                                  communication-related exceptions that
+     *                                  may occur during the execution of a
+     *                                  remote method call.
+     */
+    public OrderReceipt readOrderReceipt(IProtocolClient client, Long ticket) throws RemoteException;
+
+    /**
+     * <h2>method <code>readFinanceReport()</code></h2>
+     * <p>NOTE: This method will generate financial report of a range of dates,
+     * optionally grouped by day, week, or month.</p>
+     * <br>
+     * <p>Method <code>readFinanceReport</code> is used to generate one
+     * <code>FinanceReport</code> per menu for every bucket of the range. The
+     * order date of every report is the first day of its bucket.</p>
+     *
+     * @param client <code>IProtocolClient</code> object to execute this method.
+     * @param from   First date of the report.
+     * @param to     Last date of the report, inclusive.
+     * @param bucket <code>ReportBucket</code> to group the range by, or
+     *               <code>null</code> for one report over the whole range.
+     * @return <code>List</code> of the <code>FinanceReport</code> ordered by
+     *         bucket, or <code>null</code> if the client is not permitted.
+     * @throws java.rmi.RemoteException A <code>RemoteException</code> is the
+     *                                  common superclass for a number of
+     *                                  communication-related exceptions that
+     *                                  may occur during the execution of a
+     *                                  remote method call.
+     */
+    public List<FinanceReport> readFinanceReport(IProtocolClient client, Date from, Date to, ReportBucket bucket) throws RemoteException;
+
+    /**
+     * <h2>method <code>openSalesExport()</code></h2>
+     * <p>Method <code>openSalesExport</code> is used to open a CSV export of
+     * the sales of a range of dates. The export is then pulled chunk by chunk
+     * with <code>readSalesExportChunk</code>, so an export of any length can
+     * be written to a file without holding it in memory on either side.</p>
+     *
+     * @param client <code>IProtocolClient</code> object to execute this method.
+     * @param type   <code>SalesExportType</code> of the export.
+     * @param from   First date of the export.
+     * @param to     Last date of the export, inclusive.
+     * @return ID of the export, or <code>null</code> if the client is not
+     *         permitted or the arguments are invalid.
+     * @throws java.rmi.RemoteException A <code>RemoteException</code> is the
+     *                                  common superclass for a number of
+     *                                  communication-related exceptions that
+     *                                  may occur during the execution of a
+     *                                  remote method call.
+     */
+    public Long openSalesExport(IProtocolClient client, SalesExportType type, Date from, Date to) throws RemoteException;
+
+    /**
+     * <h2>method <code>readSalesExportChunk()</code></h2>
+     * <p>Method <code>readSalesExportChunk</code> is used to pull the next
+     * chunk of an export opened with <code>openSalesExport</code>. The chunks
+     * concatenated in order form one UTF-8 CSV document starting with its
+     * header.</p>
+     *
+     * @param client   <code>IProtocolClient</code> object to execute this method.
+     * @param exportId ID returned by <code>openSalesExport</code>.
+     * @return The next chunk, or <code>null</code> once the export is
+     *         finished or if it is unknown, expired, or opened by another
+     *         client.
+     * @throws java.rmi.RemoteException A <code>RemoteException</code> is the
+     *                                  common superclass for a number of
+     *                                  communication-related exceptions that
+     *                                  may occur during the execution of a
+     *                                  remote method call.
+     */
+    public byte[] readSalesExportChunk(IProtocolClient client, Long exportId) throws RemoteException;
+
+    /**
+     * <h2>method <code>closeSalesExport()</code></h2>
+     * <p>Method <code>closeSalesExport</code> is used to abandon an export
+     * before its last chunk has been pulled.</p>
+     *
+     * @param client   <code>IProtocolClient</code> object to execute this method.
+     * @param exportId ID returned by <code>openSalesExport</code>.
+     * @return <code>true</code> if the export was open.
+     * @throws java.rmi.RemoteException A <code>RemoteException</code> is the
+     *                                  common superclass for a number of
+     *                                  communication-related exceptions that
+     *                                  may occur during the execution of a
+     *                                  remote method call.
+     */
+    public Boolean closeSalesExport(IProtocolClient client, Long exportId) throws RemoteException;
+
+    /**
+     * <h2>method <code>readSalesHeatmap()</code></h2>
+     * <p>Method <code>readSalesHeatmap</code> is used to read the number of
+     * orders and the income of a range of dates by day of the week and hour
+     * of the day, for every menu type.</p>
+     *
+     * @param client <code>IProtocolClient</code> object to execute this method.
+     * @param from   First date of the range.
+     * @param to     Last date of the range, inclusive.
+     * @return The <code>SalesHeatmap</code> of the range, or <code>null</code>
+     *         if the client is not permitted or the range is invalid.
+     * @throws java.rmi.RemoteException A <code>RemoteException</code> is the
+     *                                  common superclass for a number of
+     *                                  communication-related exceptions that
+     *                                  may occur during the execution of a
+     *                                  remote method call.
+     */
+    public SalesHeatmap readSalesHeatmap(IProtocolClient client, Date from, Date to) throws RemoteException;
+
+    /**
+     * <h2>method <code>readTopSellers()</code></h2>
+     * <p>Method <code>readTopSellers</code> is used to read the best selling
+     * menus of a window. The live list is cheap enough to be refreshed
+     * constantly but may overestimate a menu by its error; the exact list
+     * counts every order in the window.</p>
+     *
+     * @param client <code>IProtocolClient</code> object to execute this method.
+     * @param window <code>TopSellerWindow</code> to be read.
+     * @param limit  Maximum number of menus; 10 if <code>null</code>.
+     * @param exact  <code>true</code> to count every order in the window.
+     * @return <code>List</code> of the <code>TopSeller</code>, best selling
+     *         first, or <code>null</code> if the client is not permitted.
+     * @throws java.rmi.RemoteException A <code>RemoteException</code> is the
+     *                                  common superclass for a number of
+     *                                  communication-related exceptions that
+     *                                  may occur during the execution of a
+     *                                  remote method call.
+     */
+    public List<TopSeller> readTopSellers(IProtocolClient client, TopSellerWindow window, Integer limit, Boolean exact) throws RemoteException;
+
+    /**
+     * <h2>method <code>readAllMenuSummary()</code></h2>
+     * <p>Method <code>readAllMenuSummary</code> is used to read every menu
+     * without its image. Every <code>MenuSummary</code> carries the hash of
+     * its image, so images are fetched with <code>readMenuImage</code> only
+     * when the cached copy of the client is stale.</p>
+     *
+     * @param client <code>IProtocolClient</code> object to execute this method.
+     * @return <code>List</code> of the <code>MenuSummary</code>, or
+     *         <code>null</code> if the client is not permitted.
+     * @throws java.rmi.RemoteException A <code>RemoteException</code> is the
+     *                                  common superclass for a number of
+     *                                  communication-related exceptions that
+     *                                  may occur during the execution of a
+     *                                  remote method call.
+     */
+    public List<MenuSummary> readAllMenuSummary(IProtocolClient client) throws RemoteException;
+
+    /**
+     * <h2>method <code>readMenuImage()</code></h2>
+     * <p>Method <code>readMenuImage</code> is used to read the image of one
+     * menu.</p>
+     *
+     * @param client <code>IProtocolClient</code> object to execute this method.
+     * @param id     The ID of the menu.
+     * @return The image, or <code>null</code> if the client is not
+     *         permitted, the menu does not exist, or it has no image.
+     * @throws java.rmi.RemoteException A <code>RemoteException</code> is the
+     *                                  common superclass for a number of
+     *                                  communication-related exceptions that
+     *                                  may occur during the execution of a
+     *                                  remote method call.
+     */
+    public byte[] readMenuImage(IProtocolClient client, Integer id) throws RemoteException;
+
+    /**
+     * <h2>method <code>readMenuImageChunk()</code></h2>
+     * <p>Method <code>readMenuImageChunk</code> is used to download the image
+     * of one menu in chunks. The hash works like an ETag: a chunk is only
+     * served while the image still has the hash read from the
+     * <code>MenuSummary</code>, so a client keeps its cached image as long as
+     * the hash does not change. <code>MenuImageCache</code> does all of this
+     * for a client.</p>
+     *
+     * @param client <code>IProtocolClient</code> object to execute this method.
+     * @param id     The ID of the menu.
+     * @param hash   Hash of the image being downloaded.
+     * @param offset Offset of the chunk in the image.
+     * @return The <code>MenuImageChunk</code>, without data if the image no
+     *         longer has the hash, or <code>null</code> if the client is not
+     *         permitted or the menu does not exist.
+     * @throws java.rmi.RemoteException A <code>RemoteException</code> is the
+     *                                  common superclass for a number of
+     *                                  communication-related exceptions that
+     *                                  may occur during the execution of a
+     *                                  remote method call.
+     */
+    public MenuImageChunk readMenuImageChunk(IProtocolClient client, Integer id, String hash, Integer offset) throws RemoteException;
+
+    /**
+     * <h2>method <code>readMenuThumbnail()</code></h2>
+     * <p>Method <code>readMenuThumbnail</code> is used to read a thumbnail of
+     * the image of one menu: the image downscaled so that its longer side is
+     * the requested size, encoded as JPEG, or as PNG if it has transparency.
+     * The server rounds the size up to one of the few sizes it makes, so the
+     * thumbnail may be larger than requested, and an image is never
+     * upscaled.</p>
+     *
+     * @param client <code>IProtocolClient</code> object to execute this method.
+     * @param id     The ID of the menu.
+     * @param size   Length of the longer side of the thumbnail, in pixels.
+     * @return The thumbnail, or <code>null</code> if the client is not
+     *         permitted, the menu does not exist or has no image, or its image
+     *         cannot be decoded.
+     * @throws java.rmi.RemoteException A <code>RemoteException</code> is the
+     *                                  common superclass for a number of
+     *                                  communication-related exceptions that
+     *                                  may occur during the execution of a
+     *                                  remote method call.
+     */
+    public byte[] readMenuThumbnail(IProtocolClient client, Integer id, Integer size) throws RemoteException;
+
+}
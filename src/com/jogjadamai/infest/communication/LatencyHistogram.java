@@ -0,0 +1,187 @@
+/*
+ * Copyright 2017 Danang Galuh Tegar P.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.jogjadamai.infest.communication;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * <h1>class <code>LatencyHistogram</code></h1>
+ * <p><code>LatencyHistogram</code> is a lock-free log-linear histogram of
+ * latencies in nanoseconds. Every power of two is split into 16 linear
+ * sub-buckets, so recorded values are kept with about 6% precision while the
+ * whole range of <code>long</code> fits in under a thousand counters.
+ * Recording is a single atomic increment and never blocks. The histogram is
+ * never reset: percentiles of an interval are read from the difference of
+ * the bucket counts taken at its start and end.</p>
+ * <br>
+ * <p><b><i>Coded, built, and packaged with passion by Danang Galuh Tegar P for Infest.</i></b></p>
+ *
+ * @author Danang Galuh Tegar P
+ * @version 2017.03.10.0001
+ * @see com.jogjadamai.infest.communication.ProtocolMetrics
+ */
+final class LatencyHistogram {
+
+    private static final int SUB_BUCKET_BITS = 4;
+    private static final int SUB_BUCKET_COUNT = 1 << SUB_BUCKET_BITS;
+    private static final int BUCKET_COUNT = (64 - SUB_BUCKET_BITS + 1) * SUB_BUCKET_COUNT;
+
+    private final AtomicLongArray BUCKETS;
+    private final LongAdder COUNT;
+    private final LongAdder SUM;
+    private final LongAccumulator MAX;
+
+    protected LatencyHistogram() {
+        this.BUCKETS = new AtomicLongArray(BUCKET_COUNT);
+        this.COUNT = new LongAdder();
+        this.SUM = new LongAdder();
+        this.MAX = new LongAccumulator(Math::max, 0L);
+    }
+
+    /**
+     * <h2>method <code>record()</code></h2>
+     * <p>Method <code>record</code> is used to record one latency value.</p>
+     *
+     * @param nanos Latency in nanoseconds. Negative values are recorded as 0.
+     */
+    protected void record(long nanos) {
+        long value = Math.max(0L, nanos);
+        BUCKETS.incrementAndGet(indexOf(value));
+        COUNT.increment();
+        SUM.add(value);
+        MAX.accumulate(value);
+    }
+
+    /**
+     * <h2>method <code>getCount()</code></h2>
+     * <p>Method <code>getCount</code> is used to get the number of recorded
+     * values.</p>
+     *
+     * @return Number of recorded values.
+     */
+    protected long getCount() {
+        return COUNT.sum();
+    }
+
+    /**
+     * <h2>method <code>getSum()</code></h2>
+     * <p>Method <code>getSum</code> is used to get the sum of every recorded
+     * value in nanoseconds.</p>
+     *
+     * @return Sum of recorded values.
+     */
+    protected long getSum() {
+        return SUM.sum();
+    }
+
+    /**
+     * <h2>method <code>getMax()</code></h2>
+     * <p>Method <code>getMax</code> is used to get the largest recorded value
+     * in nanoseconds.</p>
+     *
+     * @return Largest recorded value.
+     */
+    protected long getMax() {
+        return MAX.get();
+    }
+
+    /**
+     * <h2>method <code>getCounts()</code></h2>
+     * <p>Method <code>getCounts</code> is used to copy the count of every
+     * bucket, so that the counts of two copies can be subtracted.</p>
+     *
+     * @return Count of every bucket.
+     */
+    protected long[] getCounts() {
+        long[] counts = new long[BUCKET_COUNT];
+        for(int i = 0; i < BUCKET_COUNT; i++) counts[i] = BUCKETS.get(i);
+        return counts;
+    }
+
+    /**
+     * <h2>method <code>getValuesAtPercentiles()</code></h2>
+     * <p>Method <code>getValuesAtPercentiles</code> is used to estimate several
+     * percentiles from one consistent pass over the buckets. Each estimate is
+     * the upper bound of the bucket holding that percentile, capped at the
+     * largest recorded value.</p>
+     *
+     * @param percentiles Percentiles in ascending order, each in 0..100.
+     * @return Estimated values in nanoseconds, in the order requested.
+     */
+    protected long[] getValuesAtPercentiles(double... percentiles) {
+        return getValuesAtPercentiles(getCounts(), getMax(), percentiles);
+    }
+
+    /**
+     * <h2>method <code>getValuesAtPercentiles()</code></h2>
+     * <p>Method <code>getValuesAtPercentiles</code> is used to estimate several
+     * percentiles from bucket counts read by <code>getCounts()</code>, or the
+     * difference of two such reads.</p>
+     *
+     * @param counts      Count of every bucket.
+     * @param max         Cap of the estimates, in nanoseconds.
+     * @param percentiles Percentiles in ascending order, each in 0..100.
+     * @return Estimated values in nanoseconds, in the order requested.
+     */
+    protected static long[] getValuesAtPercentiles(long[] counts, long max, double... percentiles) {
+        long total = 0;
+        for(long count : counts) total += count;
+        long[] values = new long[percentiles.length];
+        if(total == 0) return values;
+        int bucket = 0;
+        long seen = counts[0];
+        for(int p = 0; p < percentiles.length; p++) {
+            long rank = Math.max(1L, (long) Math.ceil(percentiles[p] / 100.0 * total));
+            while(seen < rank && bucket < BUCKET_COUNT - 1) seen += counts[++bucket];
+            values[p] = Math.min(highestValueOf(bucket), max);
+        }
+        return values;
+    }
+
+    /**
+     * <h2>method <code>getHighestValue()</code></h2>
+     * <p>Method <code>getHighestValue</code> is used to estimate the largest
+     * value counted in bucket counts read by <code>getCounts()</code>, or the
+     * difference of two such reads, as the upper bound of the highest bucket
+     * that is not empty.</p>
+     *
+     * @param counts Count of every bucket.
+     * @return Estimated largest value in nanoseconds, or 0 if every bucket is
+     *         empty.
+     */
+    protected static long getHighestValue(long[] counts) {
+        for(int i = counts.length - 1; i >= 0; i--) if(counts[i] > 0) return highestValueOf(i);
+        return 0L;
+    }
+
+    private static int indexOf(long value) {
+        if(value < SUB_BUCKET_COUNT) return (int) value;
+        int shift = (63 - Long.numberOfLeadingZeros(value)) - SUB_BUCKET_BITS;
+        int subBucket = (int) (value >>> shift) & (SUB_BUCKET_COUNT - 1);
+        return ((shift + 1) << SUB_BUCKET_BITS) + subBucket;
+    }
+
+    private static long highestValueOf(int index) {
+        if(index < SUB_BUCKET_COUNT) return index;
+        int shift = (index >>> SUB_BUCKET_BITS) - 1;
+        long subBucket = index & (SUB_BUCKET_COUNT - 1);
+        long lowest = (SUB_BUCKET_COUNT | subBucket) << shift;
+        return lowest + (1L << shift) - 1;
+    }
+
+}
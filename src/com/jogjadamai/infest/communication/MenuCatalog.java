@@ -0,0 +1,363 @@
+/*
+ * Copyright 2017 Danang Galuh Tegar P.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.jogjadamai.infest.communication;
+
+import com.jogjadamai.infest.entity.Menus;
+import com.jogjadamai.infest.persistence.InfestEntityController;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * <h1>class <code>MenuCatalog</code></h1>
+ * <p><code>MenuCatalog</code> is the in-memory catalog of every
+ * <code>Menus</code> entity held by <code>ProtocolServer</code>. Every menu is
+ * kept as an immutable entry in a concurrent map by ID, so reads never lock
+ * and never touch the database once the catalog is loaded.</p>
+ * <p>When a menu is written, only its entry is replaced. The lists of every
+ * menu, of every type, and of every summary are built from the entries the
+ * first time they are read after a change, once per version of the catalog.
+ * The cached menus are detached copies without their <code>Orders</code>
+ * list, which changes on every order and is read through the orders
+ * instead.</p>
+ * <p>Every entry also holds the SHA-256 hash of the menu image and the
+ * <code>MenuSummary</code> of the menu. A hash is only computed when the menu
+ * is read from the database, never when only its stock changes.</p>
+ * <p>The stock published after an order is the absolute stock read inside the
+ * transaction that decremented it, while the row was locked, never a delta.
+ * Every stock carries a sequence number taken at the time it was read, so a
+ * stock read earlier never replaces one read later. A menu read from the
+ * database takes a new sequence number, so an order committing just after it
+ * leaves the menu as read until the next order of that menu.</p>
+ * <br>
+ * <p><b><i>Coded, built, and packaged with passion by Danang Galuh Tegar P for Infest.</i></b></p>
+ *
+ * @author Danang Galuh Tegar P
+ * @version 2017.03.10.0001
+ * @see com.jogjadamai.infest.communication.ProtocolServer
+ */
+final class MenuCatalog {
+
+    private final InfestEntityController<Menus> CONTROLLER;
+    private final ConcurrentNavigableMap<Integer, Entry> ENTRY_MAP;
+    private final AtomicLong LAST_STOCK_SEQUENCE;
+
+    private volatile boolean isLoaded;
+    private volatile long version;
+    private volatile Views views;
+
+    private static final class Entry {
+
+        private final Menus menu;
+        private final String imageHash;
+        private final MenuSummary summary;
+        private final long stockSequence;
+
+        private Entry(Menus menu, String imageHash, long stockSequence) {
+            this.menu = menu;
+            this.imageHash = imageHash;
+            this.summary = new MenuSummary(menu, imageHash);
+            this.stockSequence = stockSequence;
+        }
+
+    }
+
+    private static final class Views {
+
+        private final long version;
+        private final List<Menus> menus;
+        private final Map<Integer, List<Menus>> typeMap;
+        private final List<MenuSummary> summaries;
+
+        private Views(long version, Collection<Entry> entries) {
+            List<Menus> menus = new ArrayList<Menus>(entries.size());
+            Map<Integer, List<Menus>> typeMap = new HashMap<Integer, List<Menus>>();
+            List<MenuSummary> summaries = new ArrayList<MenuSummary>(entries.size());
+            for(Entry entry : entries) {
+                menus.add(entry.menu);
+                typeMap.computeIfAbsent(entry.menu.getType(), (type) -> new ArrayList<Menus>()).add(entry.menu);
+                summaries.add(entry.summary);
+            }
+            this.version = version;
+            this.menus = menus;
+            this.typeMap = typeMap;
+            this.summaries = summaries;
+        }
+
+    }
+
+    protected MenuCatalog(InfestEntityController<Menus> controller) {
+        this.CONTROLLER = controller;
+        this.ENTRY_MAP = new ConcurrentSkipListMap<Integer, Entry>();
+        this.LAST_STOCK_SEQUENCE = new AtomicLong();
+        this.version = System.currentTimeMillis();
+    }
+
+    /**
+     * <h2>method <code>readAll()</code></h2>
+     * <p>Method <code>readAll</code> is used to read every menu of the
+     * catalog in ID order, loading it on first use.</p>
+     *
+     * @return A new <code>List</code> of the cached <code>Menus</code>.
+     */
+    protected List<Menus> readAll() {
+        return new ArrayList<Menus>(views().menus);
+    }
+
+    /**
+     * <h2>method <code>readByType()</code></h2>
+     * <p>Method <code>readByType</code> is used to read every menu of one type
+     * in ID order, loading the catalog on first use.</p>
+     *
+     * @param type Type of the menus.
+     * @return A new <code>List</code> of the cached <code>Menus</code> of
+     *         that type.
+     */
+    protected List<Menus> readByType(int type) {
+        List<Menus> menus = views().typeMap.get(type);
+        return (menus == null) ? new ArrayList<Menus>() : new ArrayList<Menus>(menus);
+    }
+
+    /**
+     * <h2>method <code>read()</code></h2>
+     * <p>Method <code>read</code> is used to read one menu of the catalog,
+     * loading it on first use.</p>
+     *
+     * @param id The ID of the menu.
+     * @return The cached <code>Menus</code>, or <code>null</code> if there is
+     *         no menu with that ID.
+     */
+    protected Menus read(Integer id) {
+        Entry entry = entry(id);
+        return (entry == null) ? null : entry.menu;
+    }
+
+    /**
+     * <h2>method <code>readAllSummaries()</code></h2>
+     * <p>Method <code>readAllSummaries</code> is used to read the summary of
+     * every menu of the catalog in ID order, loading it on first use.</p>
+     *
+     * @return A new <code>List</code> of the cached <code>MenuSummary</code>.
+     */
+    protected List<MenuSummary> readAllSummaries() {
+        return new ArrayList<MenuSummary>(views().summaries);
+    }
+
+    /**
+     * <h2>method <code>readImage()</code></h2>
+     * <p>Method <code>readImage</code> is used to read the image of one menu
+     * of the catalog, loading it on first use.</p>
+     *
+     * @param id The ID of the menu.
+     * @return The image, or <code>null</code> if there is no menu with that
+     *         ID or it has no image.
+     */
+    protected byte[] readImage(Integer id) {
+        Entry entry = entry(id);
+        return (entry == null) ? null : entry.menu.getImage();
+    }
+
+    /**
+     * <h2>method <code>readImageHash()</code></h2>
+     * <p>Method <code>readImageHash</code> is used to read the hash of the
+     * image of one menu of the catalog.</p>
+     *
+     * @param id The ID of the menu.
+     * @return Hash of the image, or <code>null</code> if there is no menu
+     *         with that ID or it has no image.
+     */
+    protected String readImageHash(Integer id) {
+        Entry entry = entry(id);
+        return (entry == null) ? null : entry.imageHash;
+    }
+
+    /**
+     * <h2>method <code>readImageChunk()</code></h2>
+     * <p>Method <code>readImageChunk</code> is used to read one chunk of the
+     * image of one menu, if the image still has the given hash.</p>
+     *
+     * @param id        The ID of the menu.
+     * @param hash      Hash of the image being downloaded.
+     * @param offset    Offset of the chunk in the image.
+     * @param chunkSize Maximum length of the chunk.
+     * @return The <code>MenuImageChunk</code>, without data if the image no
+     *         longer has the hash, or <code>null</code> if there is no menu
+     *         with that ID.
+     */
+    protected MenuImageChunk readImageChunk(Integer id, String hash, int offset, int chunkSize) {
+        Entry entry = entry(id);
+        if(entry == null) return null;
+        String currentHash = entry.imageHash;
+        byte[] image = entry.menu.getImage();
+        if(currentHash == null || !currentHash.equals(hash)) return new MenuImageChunk(currentHash, (image == null) ? 0 : image.length, 0, null);
+        int from = Math.max(0, Math.min(offset, image.length));
+        return new MenuImageChunk(currentHash, image.length, from, Arrays.copyOfRange(image, from, Math.min(image.length, from + chunkSize)));
+    }
+
+    /**
+     * <h2>method <code>getVersion()</code></h2>
+     * <p>Method <code>getVersion</code> is used to get the version of the
+     * catalog. The version changes every time a menu is replaced.</p>
+     *
+     * @return Version of the catalog.
+     */
+    protected long getVersion() {
+        load();
+        return version;
+    }
+
+    /**
+     * <h2>method <code>reload()</code></h2>
+     * <p>Method <code>reload</code> is used to read every menu from the
+     * database and replace every entry of the catalog.</p>
+     */
+    protected synchronized void reload() {
+        Map<Integer, Entry> entryMap = new HashMap<Integer, Entry>();
+        for(Menus menu : CONTROLLER.readAll()) entryMap.put(menu.getId(), new Entry(copyOf(menu), hashOf(menu.getImage()), LAST_STOCK_SEQUENCE.incrementAndGet()));
+        ENTRY_MAP.keySet().retainAll(entryMap.keySet());
+        ENTRY_MAP.putAll(entryMap);
+        version++;
+        isLoaded = true;
+    }
+
+    /**
+     * <h2>method <code>refresh()</code></h2>
+     * <p>Method <code>refresh</code> is used to read one menu from the
+     * database and replace only its entry. It is called after a menu has been
+     * created or updated.</p>
+     *
+     * @param id The ID of the written menu.
+     */
+    protected synchronized void refresh(Integer id) {
+        // The menu is read while holding the lock, so concurrent writers of
+        // the same menu always publish in the order they read it.
+        if(id == null) return;
+        if(!isLoaded) {
+            reload();
+            return;
+        }
+        long stockSequence = LAST_STOCK_SEQUENCE.incrementAndGet();
+        Menus menu = CONTROLLER.read(id);
+        if(menu == null) ENTRY_MAP.remove(id);
+        else ENTRY_MAP.put(id, new Entry(copyOf(menu), hashOf(menu.getImage()), stockSequence));
+        version++;
+    }
+
+    /**
+     * <h2>method <code>nextStockSequence()</code></h2>
+     * <p>Method <code>nextStockSequence</code> is used to get the sequence
+     * number of a stock just read inside the transaction that changed it,
+     * while the row is still locked.</p>
+     *
+     * @return The sequence number of the stock.
+     */
+    protected long nextStockSequence() {
+        return LAST_STOCK_SEQUENCE.incrementAndGet();
+    }
+
+    /**
+     * <h2>method <code>publishStock()</code></h2>
+     * <p>Method <code>publishStock</code> is used to replace the stock of one
+     * menu with the stock read inside the transaction that changed it, after
+     * that transaction has been committed. A stock with a sequence number
+     * lower than that of the cached stock is older and is ignored.</p>
+     *
+     * @param id            The ID of the menu.
+     * @param stock         The stock of the menu.
+     * @param stockSequence Sequence number of the stock.
+     */
+    protected synchronized void publishStock(Integer id, int stock, long stockSequence) {
+        if(!isLoaded) {
+            reload();
+            return;
+        }
+        Entry entry = ENTRY_MAP.get(id);
+        if(entry == null || entry.stockSequence > stockSequence) return;
+        Menus menu = copyOf(entry.menu);
+        menu.setStock(stock);
+        ENTRY_MAP.put(id, new Entry(menu, entry.imageHash, stockSequence));
+        version++;
+    }
+
+    private Entry entry(Integer id) {
+        load();
+        return (id == null) ? null : ENTRY_MAP.get(id);
+    }
+
+    private Views views() {
+        load();
+        // The version is read before the entries, so a change made while the
+        // lists are built only makes them be built again on the next read.
+        long currentVersion = version;
+        Views current = views;
+        if(current != null && current.version == currentVersion) return current;
+        current = new Views(currentVersion, ENTRY_MAP.values());
+        views = current;
+        return current;
+    }
+
+    private void load() {
+        if(isLoaded) return;
+        synchronized(this) {
+            if(!isLoaded) reload();
+        }
+    }
+
+    /**
+     * <h2>static method <code>hashOf()</code></h2>
+     * <p>Method <code>hashOf</code> is used to get the hash identifying the
+     * content of an image.</p>
+     *
+     * @param image The image, or <code>null</code>.
+     * @return Hexadecimal SHA-256 hash of the image, or <code>null</code> if
+     *         the image is <code>null</code>.
+     */
+    protected static String hashOf(byte[] image) {
+        if(image == null) return null;
+        try {
+            StringBuilder hash = new StringBuilder(64);
+            for(byte b : MessageDigest.getInstance("SHA-256").digest(image)) hash.append(String.format("%02x", b));
+            return hash.toString();
+        } catch (NoSuchAlgorithmException ex) {
+            // Every Java platform is required to support SHA-256.
+            throw new IllegalStateException(ex);
+        }
+    }
+
+    private static Menus copyOf(Menus menu) {
+        Menus copy = new Menus();
+        copy.setId(menu.getId());
+        copy.setName(menu.getName());
+        copy.setDescription(menu.getDescription());
+        copy.setStatus(menu.getStatus());
+        copy.setStatusDate(menu.getStatusDate());
+        copy.setType(menu.getType());
+        copy.setPrice(menu.getPrice());
+        copy.setStock(menu.getStock());
+        copy.setDuration(menu.getDuration());
+        copy.setImage(menu.getImage());
+        return copy;
+    }
+
+}
@@ -0,0 +1,122 @@
+/*
+ * Copyright 2017 Danang Galuh Tegar P.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.jogjadamai.infest.communication;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.rmi.RemoteException;
+
+/**
+ * <h1>class <code>MenuImageCache</code></h1>
+ * <p><code>MenuImageCache</code> keeps the menu images of a client on its
+ * local disk, one file per menu and image hash. An image is downloaded from
+ * <code>IExtendedProtocolServer</code> in chunks only when the hash in the
+ * <code>MenuSummary</code> has no file yet, so a menu refresh downloads only
+ * the images that have changed since the last one.</p>
+ * <br>
+ * <p><b><i>Coded, built, and packaged with passion by Danang Galuh Tegar P for Infest.</i></b></p>
+ *
+ * @author Danang Galuh Tegar P
+ * @version 2017.03.10.0001
+ * @see com.jogjadamai.infest.communication.MenuSummary
+ * @see com.jogjadamai.infest.communication.MenuImageChunk
+ */
+public final class MenuImageCache {
+
+    private static final String FILE_EXTENSION = ".img";
+    private static final int MAXIMUM_RESTARTS = 3;
+
+    private final IExtendedProtocolServer SERVER;
+    private final IProtocolClient CLIENT;
+    private final File DIRECTORY;
+
+    /**
+     * <h2>constructor <code>MenuImageCache()</code></h2>
+     * <p>Create a new cache keeping its files in the given directory.</p>
+     *
+     * @param server    <code>IExtendedProtocolServer</code> serving the images.
+     * @param client    <code>IProtocolClient</code> downloading the images.
+     * @param directory Directory of the cached images.
+     */
+    public MenuImageCache(IExtendedProtocolServer server, IProtocolClient client, File directory) {
+        this.SERVER = server;
+        this.CLIENT = client;
+        this.DIRECTORY = directory;
+    }
+
+    /**
+     * <h2>method <code>read()</code></h2>
+     * <p>Method <code>read</code> is used to read the image of a menu, from
+     * the disk if it is cached with the same hash, or else from the server.
+     * A downloaded image replaces every older image of the menu on the
+     * disk.</p>
+     *
+     * @param summary <code>MenuSummary</code> of the menu.
+     * @return The image, or <code>null</code> if the menu has no image.
+     * @throws java.rmi.RemoteException A <code>RemoteException</code> is the
+     *                                  common superclass for a number of
+     *                                  communication-related exceptions that
+     *                                  may occur during the execution of a
+     *                                  remote method call.
+     * @throws java.io.IOException      If the image cannot be downloaded
+     *                                  whole, or the cache cannot be
+     *                                  written.
+     */
+    public byte[] read(MenuSummary summary) throws RemoteException, IOException {
+        String hash = summary.getImageHash();
+        if(hash == null) return null;
+        File file = new File(DIRECTORY, summary.getId() + "-" + hash + FILE_EXTENSION);
+        if(file.isFile()) {
+            byte[] image = Files.readAllBytes(file.toPath());
+            if(hash.equals(MenuCatalog.hashOf(image))) return image;
+        }
+        for(int restart = 0; restart <= MAXIMUM_RESTARTS; restart++) {
+            ByteArrayOutputStream image = new ByteArrayOutputStream();
+            MenuImageChunk chunk;
+            do {
+                chunk = SERVER.readMenuImageChunk(CLIENT, summary.getId(), hash, image.size());
+                if(chunk == null) return null;
+                if(chunk.getData() == null) break;
+                image.write(chunk.getData(), 0, chunk.getData().length);
+            } while(image.size() < chunk.getLength() && chunk.getData().length > 0);
+            if(chunk.getData() == null) {
+                // The image changed in the middle of the download.
+                hash = chunk.getHash();
+                if(hash == null) return null;
+                file = new File(DIRECTORY, summary.getId() + "-" + hash + FILE_EXTENSION);
+                continue;
+            }
+            byte[] bytes = image.toByteArray();
+            if(!hash.equals(MenuCatalog.hashOf(bytes))) throw new IOException("Image of menu " + summary.getId() + " does not match its hash.");
+            write(summary.getId(), file, bytes);
+            return bytes;
+        }
+        throw new IOException("Image of menu " + summary.getId() + " kept changing while it was downloaded.");
+    }
+
+    private void write(Integer id, File file, byte[] image) throws IOException {
+        if(!DIRECTORY.exists()) DIRECTORY.mkdirs();
+        File temporary = new File(DIRECTORY, file.getName() + ".tmp");
+        Files.write(temporary.toPath(), image);
+        Files.move(temporary.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        File[] olderFiles = DIRECTORY.listFiles((directory, name) -> name.startsWith(id + "-") && name.endsWith(FILE_EXTENSION) && !name.equals(file.getName()));
+        if(olderFiles != null) for(File olderFile : olderFiles) olderFile.delete();
+    }
+
+}
@@ -0,0 +1,80 @@
+/*
+ * Copyright 2017 Danang Galuh Tegar P.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.jogjadamai.infest.communication;
+
+import java.io.Serializable;
+
+/**
+ * <h1>class <code>MenuImageChunk</code></h1>
+ * <p><code>MenuImageChunk</code> is one chunk of a menu image. A chunk is only
+ * served for the image hash the client asked for, so every chunk of a
+ * download belongs to the same image. When the image has changed since, the
+ * chunk carries the new hash and no data, and the download starts again.</p>
+ * <br>
+ * <p><b><i>Coded, built, and packaged with passion by Danang Galuh Tegar P for Infest.</i></b></p>
+ *
+ * @author Danang Galuh Tegar P
+ * @version 2017.03.10.0001
+ * @see com.jogjadamai.infest.communication.IExtendedProtocolServer
+ * @see com.jogjadamai.infest.communication.MenuImageCache
+ */
+public final class MenuImageChunk implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private final String hash;
+    private final int length;
+    private final int offset;
+    private final byte[] data;
+
+    protected MenuImageChunk(String hash, int length, int offset, byte[] data) {
+        this.hash = hash;
+        this.length = length;
+        this.offset = offset;
+        this.data = data;
+    }
+
+    /**
+     * @return Hash of the current image, or <code>null</code> if the menu
+     *         no longer has an image.
+     */
+    public String getHash() {
+        return hash;
+    }
+
+    /**
+     * @return Length of the whole image.
+     */
+    public int getLength() {
+        return length;
+    }
+
+    /**
+     * @return Offset of the chunk in the image.
+     */
+    public int getOffset() {
+        return offset;
+    }
+
+    /**
+     * @return Bytes of the chunk, or <code>null</code> if the image no longer
+     *         has the requested hash.
+     */
+    public byte[] getData() {
+        return data;
+    }
+
+}
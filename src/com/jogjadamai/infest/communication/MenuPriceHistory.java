@@ -0,0 +1,145 @@
+/*
+ * Copyright 2017 Danang Galuh Tegar P.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.jogjadamai.infest.communication;
+
+import com.jogjadamai.infest.entity.Menus;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.function.Consumer;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * <h1>class <code>MenuPriceHistory</code></h1>
+ * <p><code>MenuPriceHistory</code> keeps every price every menu of
+ * <code>ProtocolServer</code> has had, with the minute it took effect, and
+ * saves them to a file. An order is always priced at the price its menu had
+ * at the time of its cart, whether it is recorded live or loaded again from
+ * the database, so a restart or a price change never alters past income.</p>
+ * <p>The first price known of a menu is taken as its price since forever,
+ * which prices the orders placed before the history was started at the price
+ * the menu had then.</p>
+ * <br>
+ * <p><b><i>Coded, built, and packaged with passion by Danang Galuh Tegar P for Infest.</i></b></p>
+ *
+ * @author Danang Galuh Tegar P
+ * @version 2017.03.10.0001
+ * @see com.jogjadamai.infest.communication.SalesRollup
+ * @see com.jogjadamai.infest.communication.OrderFactStore
+ */
+final class MenuPriceHistory {
+
+    private final File FILE;
+    private final Consumer<String> STATUS;
+    // Price by the local minute since the epoch it took effect, by menu ID.
+    private final ConcurrentMap<Integer, ConcurrentNavigableMap<Long, Integer>> PRICE_MAP;
+
+    /**
+     * <h2>constructor <code>MenuPriceHistory()</code></h2>
+     * <p>Create a new history and load it from its file, if any.</p>
+     *
+     * @param file   File of the history.
+     * @param status Status logger of the server.
+     */
+    protected MenuPriceHistory(File file, Consumer<String> status) {
+        this.FILE = file;
+        this.STATUS = status;
+        this.PRICE_MAP = new ConcurrentHashMap<Integer, ConcurrentNavigableMap<Long, Integer>>();
+        load();
+    }
+
+    /**
+     * <h2>method <code>priceAt()</code></h2>
+     * <p>Method <code>priceAt</code> is used to get the price a menu had at a
+     * minute.</p>
+     *
+     * @param menuId The ID of the menu.
+     * @param minute Local minutes since the epoch.
+     * @return The price, or <code>0</code> if the menu has no price known.
+     */
+    protected int priceAt(int menuId, long minute) {
+        ConcurrentNavigableMap<Long, Integer> prices = PRICE_MAP.get(menuId);
+        Map.Entry<Long, Integer> price = (prices == null) ? null : prices.floorEntry(minute);
+        return (price == null) ? 0 : price.getValue();
+    }
+
+    /**
+     * <h2>method <code>record()</code></h2>
+     * <p>Method <code>record</code> is used to record the current price of
+     * every given menu. A price that differs from the last one of its menu
+     * takes effect from this minute and is saved at once.</p>
+     *
+     * @param menus Menus as they are in the database.
+     */
+    protected synchronized void record(Collection<Menus> menus) {
+        LocalDateTime dateTime = LocalDateTime.now();
+        long now = TopSellerTracker.toMinuteIndex(dateTime.toLocalDate().toEpochDay(), dateTime.getHour() * 60 + dateTime.getMinute());
+        boolean isChanged = false;
+        for(Menus menu : menus) {
+            ConcurrentNavigableMap<Long, Integer> prices = PRICE_MAP.computeIfAbsent(menu.getId(), (key) -> new ConcurrentSkipListMap<Long, Integer>());
+            Map.Entry<Long, Integer> last = prices.lastEntry();
+            if(last != null && last.getValue() == menu.getPrice()) continue;
+            prices.put((last == null) ? Long.MIN_VALUE : Math.max(now, last.getKey()), menu.getPrice());
+            isChanged = true;
+        }
+        if(isChanged) save();
+    }
+
+    @SuppressWarnings("unchecked")
+    private void load() {
+        if(!FILE.isFile()) return;
+        try (ObjectInputStream ois = new ObjectInputStream(new FileInputStream(FILE))) {
+            ((Map<Integer, TreeMap<Long, Integer>>) ois.readObject()).forEach((menuId, prices) -> PRICE_MAP.put(menuId, new ConcurrentSkipListMap<Long, Integer>(prices)));
+        } catch (IOException | ClassNotFoundException | ClassCastException ex) {
+            STATUS.accept("MenuPriceHistory: Failed to load the menu price history, current prices are taken as the prices since forever.");
+            Logger.getLogger(MenuPriceHistory.class.getName()).log(Level.SEVERE, "Caught an exception.", ex);
+        }
+    }
+
+    private void save() {
+        Map<Integer, TreeMap<Long, Integer>> saved = new HashMap<Integer, TreeMap<Long, Integer>>();
+        PRICE_MAP.forEach((menuId, prices) -> saved.put(menuId, new TreeMap<Long, Integer>(prices)));
+        try {
+            if(FILE.getParentFile() != null && !FILE.getParentFile().exists()) FILE.getParentFile().mkdirs();
+            // Written aside and moved into place, so a crash never leaves a
+            // half-written history behind.
+            File temporary = new File(FILE.getPath() + ".tmp");
+            try (ObjectOutputStream oos = new ObjectOutputStream(new FileOutputStream(temporary, false))) {
+                oos.writeObject(saved);
+            }
+            Files.move(temporary.toPath(), FILE.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException ex) {
+            STATUS.accept("MenuPriceHistory: Failed to save the menu price history, it will be saved at the next price change.");
+            Logger.getLogger(MenuPriceHistory.class.getName()).log(Level.SEVERE, "Caught an exception.", ex);
+        }
+    }
+
+}
@@ -0,0 +1,116 @@
+/*
+ * Copyright 2017 Danang Galuh Tegar P.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.jogjadamai.infest.communication;
+
+import com.jogjadamai.infest.entity.Menus;
+import java.io.Serializable;
+import java.util.Date;
+
+/**
+ * <h1>class <code>MenuSummary</code></h1>
+ * <p><code>MenuSummary</code> is a <code>Menus</code> entity without its
+ * image, for menu lists that are refreshed often. It carries the hash of the
+ * image instead, so a client only fetches an image again when the hash
+ * differs from the one of its cached copy.</p>
+ * <br>
+ * <p><b><i>Coded, built, and packaged with passion by Danang Galuh Tegar P for Infest.</i></b></p>
+ *
+ * @author Danang Galuh Tegar P
+ * @version 2017.03.10.0001
+ * @see com.jogjadamai.infest.communication.IExtendedProtocolServer
+ */
+public final class MenuSummary implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private final Integer id;
+    private final String name;
+    private final int type;
+    private final int price;
+    private final int stock;
+    private final int status;
+    private final Date duration;
+    private final String imageHash;
+
+    protected MenuSummary(Menus menu, String imageHash) {
+        this.id = menu.getId();
+        this.name = menu.getName();
+        this.type = menu.getType();
+        this.price = menu.getPrice();
+        this.stock = menu.getStock();
+        this.status = menu.getStatus();
+        this.duration = menu.getDuration();
+        this.imageHash = imageHash;
+    }
+
+    /**
+     * @return The ID of the menu.
+     */
+    public Integer getId() {
+        return id;
+    }
+
+    /**
+     * @return The name of the menu.
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * @return The type of the menu.
+     */
+    public int getType() {
+        return type;
+    }
+
+    /**
+     * @return The price of the menu.
+     */
+    public int getPrice() {
+        return price;
+    }
+
+    /**
+     * @return The stock of the menu.
+     */
+    public int getStock() {
+        return stock;
+    }
+
+    /**
+     * @return The status of the menu.
+     */
+    public int getStatus() {
+        return status;
+    }
+
+    /**
+     * @return The duration of the menu.
+     */
+    public Date getDuration() {
+        return duration;
+    }
+
+    /**
+     * @return Hexadecimal SHA-256 hash of the image of the menu, or
+     *         <code>null</code> if it has no image.
+     */
+    public String getImageHash() {
+        return imageHash;
+    }
+
+}
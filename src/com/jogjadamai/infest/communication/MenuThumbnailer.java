@@ -0,0 +1,279 @@
+/*
+ * Copyright 2017 Danang Galuh Tegar P.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.jogjadamai.infest.communication;
+
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.NavigableSet;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Consumer;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageOutputStream;
+
+/**
+ * <h1>class <code>MenuThumbnailer</code></h1>
+ * <p><code>MenuThumbnailer</code> makes the thumbnails of the menu images of
+ * <code>ProtocolServer</code>. A thumbnail is the image downscaled so that
+ * its longer side is the requested size, and encoded again as JPEG, or as PNG
+ * if the image has transparency. Images are never upscaled.</p>
+ * <p>Only a few sizes are made: the powers of two from 32 pixels below the
+ * maximum size, and the maximum size itself. A requested size is rounded up
+ * to the nearest of them, so the number of files per image stays small
+ * whatever the clients ask for.</p>
+ * <p>Thumbnails are made on first request and saved in the
+ * <code>thumbnail</code> directory, one file per menu ID, image hash, and
+ * size, so a thumbnail is never made twice for the same image. Requests for a
+ * thumbnail that is being made wait for that one instead of making it again.
+ * When a menu is updated with a new image, the thumbnails of its old image
+ * are deleted and the same sizes are made again for the new one in the
+ * background. On start, files left half-written by a crash and thumbnails of
+ * sizes no longer made are deleted.</p>
+ * <br>
+ * <p><b><i>Coded, built, and packaged with passion by Danang Galuh Tegar P for Infest.</i></b></p>
+ *
+ * @author Danang Galuh Tegar P
+ * @version 2017.03.10.0001
+ * @see com.jogjadamai.infest.communication.MenuCatalog
+ * @see com.jogjadamai.infest.communication.ProtocolServer
+ */
+final class MenuThumbnailer {
+
+    private static final String FILE_EXTENSION = ".thumb";
+    private static final String TEMPORARY_EXTENSION = ".tmp";
+    private static final int MINIMUM_SIZE = 32;
+
+    private final File DIRECTORY;
+    private final MenuCatalog MENU_CATALOG;
+    private final Consumer<String> STATUS;
+    private final NavigableSet<Integer> SIZES;
+    private final float QUALITY;
+    private final ExecutorService GENERATOR;
+    private final ConcurrentMap<String, CompletableFuture<byte[]>> BUILD_MAP;
+
+    /**
+     * <h2>constructor <code>MenuThumbnailer()</code></h2>
+     * <p>Create a new thumbnailer keeping its files in the given directory,
+     * and clean that directory up.</p>
+     *
+     * @param directory   Directory of the thumbnail files.
+     * @param menuCatalog <code>MenuCatalog</code> holding the images.
+     * @param status      Status logger of the server.
+     * @param maximumSize Largest size that can be requested, in pixels.
+     * @param quality     JPEG quality, from 0 to 1.
+     */
+    protected MenuThumbnailer(File directory, MenuCatalog menuCatalog, Consumer<String> status, int maximumSize, float quality) {
+        this.DIRECTORY = directory;
+        this.MENU_CATALOG = menuCatalog;
+        this.STATUS = status;
+        this.SIZES = new TreeSet<Integer>();
+        for(int size = MINIMUM_SIZE; size < maximumSize; size *= 2) SIZES.add(size);
+        SIZES.add(Math.max(maximumSize, MINIMUM_SIZE));
+        this.QUALITY = Math.max(0f, Math.min(quality, 1f));
+        this.GENERATOR = Executors.newSingleThreadExecutor((runnable) -> {
+            Thread thread = new Thread(runnable, "ThumbnailGenerator");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.BUILD_MAP = new ConcurrentHashMap<String, CompletableFuture<byte[]>>();
+        cleanUp();
+    }
+
+    /**
+     * <h2>method <code>read()</code></h2>
+     * <p>Method <code>read</code> is used to read a thumbnail of the image of
+     * one menu, making it if it is not saved yet. The size is rounded up to
+     * the nearest size this thumbnailer makes, or down to the largest.</p>
+     *
+     * @param id   The ID of the menu.
+     * @param size Length of the longer side of the thumbnail, in pixels.
+     * @return The thumbnail, or <code>null</code> if there is no menu with
+     *         that ID, it has no image, or its image cannot be decoded.
+     */
+    protected byte[] read(Integer id, int size) {
+        Integer roundedSize = SIZES.ceiling(size);
+        if(roundedSize == null) roundedSize = SIZES.last();
+        String hash = MENU_CATALOG.readImageHash(id);
+        if(hash == null) return null;
+        byte[] thumbnail = readFile(fileOf(id, hash, roundedSize));
+        if(thumbnail != null) return thumbnail;
+        byte[] image = MENU_CATALOG.readImage(id);
+        // The image may have been replaced since its hash was read.
+        return (image == null) ? null : build(id, image, MenuCatalog.hashOf(image), roundedSize);
+    }
+
+    /**
+     * <h2>method <code>regenerate()</code></h2>
+     * <p>Method <code>regenerate</code> is used to delete the thumbnails of
+     * the old images of one menu and make the same sizes for its current
+     * image, in the background. It is called after a menu has been
+     * updated.</p>
+     *
+     * @param id The ID of the updated menu.
+     */
+    protected void regenerate(Integer id) {
+        GENERATOR.execute(() -> {
+            byte[] image = MENU_CATALOG.readImage(id);
+            String hash = MenuCatalog.hashOf(image);
+            Set<Integer> sizes = new TreeSet<Integer>();
+            File[] files = DIRECTORY.listFiles((directory, name) -> name.startsWith(id + "-") && name.endsWith(FILE_EXTENSION));
+            if(files == null) return;
+            for(File file : files) {
+                String[] parts = file.getName().substring(0, file.getName().length() - FILE_EXTENSION.length()).split("-");
+                if(parts.length != 3 || parts[1].equals(hash)) continue;
+                try {
+                    sizes.add(Integer.parseInt(parts[2]));
+                } catch (NumberFormatException ex) {
+                    // Not a thumbnail file.
+                    continue;
+                }
+                file.delete();
+            }
+            sizes.retainAll(SIZES);
+            if(image != null) for(int size : sizes) build(id, image, hash, size);
+        });
+    }
+
+    private void cleanUp() {
+        File[] files = DIRECTORY.listFiles((directory, name) -> name.endsWith(TEMPORARY_EXTENSION) || name.endsWith(FILE_EXTENSION));
+        if(files == null) return;
+        int count = 0;
+        for(File file : files) {
+            String name = file.getName();
+            if(name.endsWith(FILE_EXTENSION)) {
+                String[] parts = name.substring(0, name.length() - FILE_EXTENSION.length()).split("-");
+                try {
+                    if(parts.length == 3 && SIZES.contains(Integer.parseInt(parts[2]))) continue;
+                } catch (NumberFormatException ex) {
+                    // Not a thumbnail file.
+                    continue;
+                }
+            }
+            if(file.delete()) count++;
+        }
+        if(count > 0) STATUS.accept("MenuThumbnailer: Deleted " + count + " stale thumbnail files.");
+    }
+
+    private byte[] build(Integer id, byte[] image, String hash, int size) {
+        File file = fileOf(id, hash, size);
+        CompletableFuture<byte[]> build = new CompletableFuture<byte[]>();
+        CompletableFuture<byte[]> running = BUILD_MAP.putIfAbsent(file.getName(), build);
+        if(running != null) return running.join();
+        byte[] thumbnail = null;
+        try {
+            // Another build may have finished between the first look at the
+            // file and this one taking its place.
+            thumbnail = readFile(file);
+            if(thumbnail == null) thumbnail = generate(id, image, hash, size);
+        } finally {
+            BUILD_MAP.remove(file.getName(), build);
+            build.complete(thumbnail);
+        }
+        return thumbnail;
+    }
+
+    private byte[] readFile(File file) {
+        if(!file.isFile()) return null;
+        try {
+            return Files.readAllBytes(file.toPath());
+        } catch (IOException ex) {
+            // Made again by the caller.
+            return null;
+        }
+    }
+
+    private byte[] generate(Integer id, byte[] image, String hash, int size) {
+        try {
+            byte[] thumbnail = encode(image, size);
+            if(thumbnail == null) return null;
+            if(!DIRECTORY.exists()) DIRECTORY.mkdir();
+            // Written aside and moved into place, so a request never reads a
+            // half-written thumbnail made by another request.
+            Path temporary = Files.createTempFile(DIRECTORY.toPath(), id + "-", TEMPORARY_EXTENSION);
+            Files.write(temporary, thumbnail);
+            Files.move(temporary, fileOf(id, hash, size).toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            return thumbnail;
+        } catch (IOException | RuntimeException ex) {
+            STATUS.accept("MenuThumbnailer: Failed to make the thumbnail of menu " + id + ".");
+            Logger.getLogger(MenuThumbnailer.class.getName()).log(Level.SEVERE, "Caught an exception.", ex);
+            return null;
+        }
+    }
+
+    private byte[] encode(byte[] image, int size) throws IOException {
+        BufferedImage source = ImageIO.read(new ByteArrayInputStream(image));
+        if(source == null) return null;
+        boolean hasAlpha = source.getColorModel().hasAlpha();
+        double scale = Math.min(1.0, (double) size / Math.max(source.getWidth(), source.getHeight()));
+        int targetWidth = Math.max(1, (int) Math.round(source.getWidth() * scale));
+        int targetHeight = Math.max(1, (int) Math.round(source.getHeight() * scale));
+        BufferedImage thumbnail = source;
+        int width = source.getWidth();
+        int height = source.getHeight();
+        // Halved step by step: one bilinear pass over a large reduction skips
+        // most of the pixels and leaves the thumbnail jagged.
+        do {
+            width = Math.max(targetWidth, width / 2);
+            height = Math.max(targetHeight, height / 2);
+            BufferedImage step = new BufferedImage(width, height, hasAlpha ? BufferedImage.TYPE_INT_ARGB : BufferedImage.TYPE_INT_RGB);
+            Graphics2D graphics = step.createGraphics();
+            graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            graphics.drawImage(thumbnail, 0, 0, width, height, null);
+            graphics.dispose();
+            thumbnail = step;
+        } while(width != targetWidth || height != targetHeight);
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        if(hasAlpha) {
+            ImageIO.write(thumbnail, "png", output);
+        } else {
+            ImageWriter writer = ImageIO.getImageWritersByFormatName("jpeg").next();
+            ImageWriteParam parameter = writer.getDefaultWriteParam();
+            parameter.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+            parameter.setCompressionQuality(QUALITY);
+            try (ImageOutputStream stream = ImageIO.createImageOutputStream(output)) {
+                writer.setOutput(stream);
+                writer.write(null, new IIOImage(thumbnail, null, null), parameter);
+            } finally {
+                writer.dispose();
+            }
+        }
+        // A small image may already be smaller than its re-encoding.
+        return (scale == 1.0 && output.size() >= image.length) ? image : output.toByteArray();
+    }
+
+    private File fileOf(Integer id, String hash, int size) {
+        return new File(DIRECTORY, id + "-" + hash + "-" + size + FILE_EXTENSION);
+    }
+
+}
@@ -0,0 +1,326 @@
+/*
+ * Copyright 2017 Danang Galuh Tegar P.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.jogjadamai.infest.communication;
+
+import com.jogjadamai.infest.entity.Menus;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+import javax.persistence.EntityManager;
+
+/**
+ * <h1>class <code>OrderFactStore</code></h1>
+ * <p><code>OrderFactStore</code> keeps one fact per committed order of
+ * <code>ProtocolServer</code> in memory, column by column: the menu ID, the
+ * quantity, the day, the minute of the day, and the menu price, each in its
+ * own primitive array. Queries over millions of orders are then plain loops
+ * over a few arrays instead of queries to the database.</p>
+ * <p>The store is append-only. Every append publishes a new
+ * <code>Columns</code> snapshot through a volatile reference; a snapshot never
+ * sees rows appended after it, so readers loop without locking. The columns
+ * are loaded from the database page by page at startup.</p>
+ * <br>
+ * <p><b><i>Coded, built, and packaged with passion by Danang Galuh Tegar P for Infest.</i></b></p>
+ *
+ * @author Danang Galuh Tegar P
+ * @version 2017.03.10.0001
+ * @see com.jogjadamai.infest.communication.SalesRollup
+ */
+final class OrderFactStore {
+
+    private static final int INITIAL_CAPACITY = 1024;
+
+    private final Supplier<EntityManager> ENTITY_MANAGER_SUPPLIER;
+    private final MenuCatalog MENU_CATALOG;
+    private final MenuPriceHistory MENU_PRICES;
+    private final ProtocolMetrics METRICS;
+    private final int PAGE_SIZE;
+
+    private volatile Columns columns;
+
+    /**
+     * <h2>class <code>Columns</code></h2>
+     * <p>Snapshot of the store. Only the first <code>size</code> elements of
+     * every array belong to the snapshot; the minute is <code>-1</code> when
+     * the cart of the order has no time.</p>
+     */
+    protected static final class Columns {
+
+        final int size;
+        final int maxMenuId;
+        final int[] menuIds;
+        final int[] quantities;
+        final int[] epochDays;
+        final int[] minutes;
+        final int[] prices;
+
+        private Columns(int size, int maxMenuId, int[] menuIds, int[] quantities, int[] epochDays, int[] minutes, int[] prices) {
+            this.size = size;
+            this.maxMenuId = maxMenuId;
+            this.menuIds = menuIds;
+            this.quantities = quantities;
+            this.epochDays = epochDays;
+            this.minutes = minutes;
+            this.prices = prices;
+        }
+
+        private static Columns empty(int capacity) {
+            return new Columns(0, 0, new int[capacity], new int[capacity], new int[capacity], new int[capacity], new int[capacity]);
+        }
+
+        private Columns append(int menuId, int quantity, int epochDay, int minute, int price) {
+            Columns target = this;
+            if(size == menuIds.length) {
+                int capacity = menuIds.length * 2;
+                target = new Columns(size, maxMenuId, Arrays.copyOf(menuIds, capacity), Arrays.copyOf(quantities, capacity),
+                        Arrays.copyOf(epochDays, capacity), Arrays.copyOf(minutes, capacity), Arrays.copyOf(prices, capacity));
+            }
+            // Older snapshots stop at their own size, so writing past it is
+            // invisible to readers still looping over them.
+            target.menuIds[size] = menuId;
+            target.quantities[size] = quantity;
+            target.epochDays[size] = epochDay;
+            target.minutes[size] = minute;
+            target.prices[size] = price;
+            return new Columns(size + 1, Math.max(maxMenuId, menuId), target.menuIds, target.quantities, target.epochDays, target.minutes, target.prices);
+        }
+
+    }
+
+    /**
+     * <h2>constructor <code>OrderFactStore()</code></h2>
+     * <p>Create a new, empty store.</p>
+     *
+     * @param entityManagerSupplier Opens an <code>EntityManager</code> for
+     *                              every page loaded.
+     * @param menuCatalog           <code>MenuCatalog</code> giving the type
+     *                              of every menu.
+     * @param menuPrices            <code>MenuPriceHistory</code> pricing the
+     *                              loaded orders.
+     * @param metrics               <code>ProtocolMetrics</code> recording the
+     *                              time spent in the database.
+     * @param pageSize              Number of orders read per query.
+     */
+    protected OrderFactStore(Supplier<EntityManager> entityManagerSupplier, MenuCatalog menuCatalog, MenuPriceHistory menuPrices, ProtocolMetrics metrics, int pageSize) {
+        this.ENTITY_MANAGER_SUPPLIER = entityManagerSupplier;
+        this.MENU_CATALOG = menuCatalog;
+        this.MENU_PRICES = menuPrices;
+        this.METRICS = metrics;
+        this.PAGE_SIZE = pageSize;
+        this.columns = Columns.empty(INITIAL_CAPACITY);
+    }
+
+    /**
+     * <h2>method <code>getColumns()</code></h2>
+     * <p>Method <code>getColumns</code> is used to get the current snapshot of
+     * the store.</p>
+     *
+     * @return The current <code>Columns</code>.
+     */
+    protected Columns getColumns() {
+        return columns;
+    }
+
+    /**
+     * <h2>method <code>append()</code></h2>
+     * <p>Method <code>append</code> is used to add the fact of a committed
+     * order.</p>
+     *
+     * @param menuId   The ID of the ordered menu.
+     * @param quantity Quantity ordered, negative to take back an order
+     *                 moved to another time.
+     * @param date     Date of the cart.
+     * @param minute   Minute of the day of the cart, or <code>-1</code> if
+     *                 unknown.
+     * @param price    Price of the menu at the time of the cart.
+     */
+    protected synchronized void append(int menuId, int quantity, LocalDate date, int minute, int price) {
+        columns = columns.append(menuId, quantity, (int) date.toEpochDay(), minute, price);
+    }
+
+    /**
+     * <h2>method <code>load()</code></h2>
+     * <p>Method <code>load</code> is used to discard the store and load it
+     * again from every order in the database, priced at the price their menu
+     * had at the time of their cart. Orders committed while loading must be
+     * held back by the caller until it returns.</p>
+     */
+    protected synchronized void load() {
+        Columns loaded = Columns.empty(INITIAL_CAPACITY);
+        Integer lastId = 0;
+        List<Object[]> rows;
+        do {
+            final long startedAt = System.nanoTime();
+            EntityManager entityManager = ENTITY_MANAGER_SUPPLIER.get();
+            try {
+                rows = entityManager.createQuery("SELECT o.id, o.idmenu.id, o.total, c.date, c.time FROM Orders o JOIN o.idcart c WHERE o.id > :lastId ORDER BY o.id", Object[].class)
+                        .setParameter("lastId", lastId)
+                        .setMaxResults(PAGE_SIZE)
+                        .getResultList();
+            } finally {
+                entityManager.close();
+                METRICS.recordDatabase(startedAt);
+            }
+            for(Object[] row : rows) {
+                Integer menuId = (Integer) row[1];
+                LocalDate date = (row[3] == null) ? LocalDate.now() : SalesRollup.toLocalDate((Date) row[3]);
+                int minute = toMinute((Date) row[4]);
+                int price = MENU_PRICES.priceAt(menuId, TopSellerTracker.toMinuteIndex(date.toEpochDay(), minute));
+                loaded = loaded.append(menuId, ((Number) row[2]).intValue(), (int) date.toEpochDay(), minute, price);
+                lastId = (Integer) row[0];
+            }
+        } while(rows.size() == PAGE_SIZE);
+        columns = loaded;
+    }
+
+    /**
+     * <h2>method <code>sumByMenu()</code></h2>
+     * <p>Method <code>sumByMenu</code> is used to sum the quantity and income
+     * of every menu over a range of days in one pass over the columns.</p>
+     *
+     * @param fromDay First epoch day of the range.
+     * @param toDay   Last epoch day of the range, inclusive.
+     * @return Quantity and income, in that order, by menu ID; menus without
+     *         sales are absent.
+     */
+    protected Map<Integer, long[]> sumByMenu(long fromDay, long toDay) {
+        Columns current = columns;
+        long[] quantities = new long[current.maxMenuId + 1];
+        long[] incomes = new long[current.maxMenuId + 1];
+        int[] menuIds = current.menuIds;
+        int[] orderQuantities = current.quantities;
+        int[] epochDays = current.epochDays;
+        int[] prices = current.prices;
+        for(int i = 0; i < current.size; i++) {
+            int epochDay = epochDays[i];
+            if(epochDay < fromDay || epochDay > toDay) continue;
+            quantities[menuIds[i]] += orderQuantities[i];
+            incomes[menuIds[i]] += (long) orderQuantities[i] * prices[i];
+        }
+        return toSums(quantities, incomes);
+    }
+
+    /**
+     * <h2>method <code>sumByMenuSince()</code></h2>
+     * <p>Method <code>sumByMenuSince</code> is used to sum the quantity and
+     * income of every menu ordered since a minute, in one pass over the
+     * columns. Orders without a time are taken at the start of their day.</p>
+     *
+     * @param fromMinute First minute, in local minutes since the epoch.
+     * @return Quantity and income, in that order, by menu ID; menus without
+     *         sales are absent.
+     */
+    protected Map<Integer, long[]> sumByMenuSince(long fromMinute) {
+        Columns current = columns;
+        long fromDay = Math.floorDiv(fromMinute, 1440L);
+        long[] quantities = new long[current.maxMenuId + 1];
+        long[] incomes = new long[current.maxMenuId + 1];
+        int[] menuIds = current.menuIds;
+        int[] orderQuantities = current.quantities;
+        int[] epochDays = current.epochDays;
+        int[] minutes = current.minutes;
+        int[] prices = current.prices;
+        for(int i = 0; i < current.size; i++) {
+            if(epochDays[i] < fromDay || TopSellerTracker.toMinuteIndex(epochDays[i], minutes[i]) < fromMinute) continue;
+            quantities[menuIds[i]] += orderQuantities[i];
+            incomes[menuIds[i]] += (long) orderQuantities[i] * prices[i];
+        }
+        return toSums(quantities, incomes);
+    }
+
+    /**
+     * <h2>method <code>readHeatmap()</code></h2>
+     * <p>Method <code>readHeatmap</code> is used to count the orders and sum
+     * the income of a range of days by menu type, day of the week, and hour,
+     * in one pass over the columns.</p>
+     *
+     * @param fromDay First epoch day of the range.
+     * @param toDay   Last epoch day of the range, inclusive.
+     * @return The <code>SalesHeatmap</code> of the range.
+     */
+    protected SalesHeatmap readHeatmap(long fromDay, long toDay) {
+        Columns current = columns;
+        // Every menu is given the slot of its type up front, so the loop
+        // itself only indexes arrays.
+        List<Integer> types = new ArrayList<Integer>();
+        Map<Integer, Integer> slotMap = new HashMap<Integer, Integer>();
+        int[] slots = new int[current.maxMenuId + 1];
+        for(int menuId = 0; menuId < slots.length; menuId++) {
+            Menus menu = MENU_CATALOG.read(menuId);
+            slots[menuId] = slotMap.computeIfAbsent((menu == null) ? -1 : menu.getType(), (type) -> {
+                types.add(type);
+                return types.size() - 1;
+            });
+        }
+        long[] orderCounts = new long[types.size() * SalesHeatmap.CELLS];
+        long[] incomes = new long[types.size() * SalesHeatmap.CELLS];
+        int[] menuIds = current.menuIds;
+        int[] quantities = current.quantities;
+        int[] epochDays = current.epochDays;
+        int[] minutes = current.minutes;
+        int[] prices = current.prices;
+        for(int i = 0; i < current.size; i++) {
+            int epochDay = epochDays[i];
+            if(epochDay < fromDay || epochDay > toDay || minutes[i] < 0) continue;
+            // The epoch day 0, 1970-01-01, was a Thursday.
+            int cell = slots[menuIds[i]] * SalesHeatmap.CELLS + Math.floorMod(epochDay + 3, 7) * 24 + minutes[i] / 60;
+            // A fact taking back a moved order uncounts it.
+            orderCounts[cell] += Integer.signum(quantities[i]);
+            incomes[cell] += (long) quantities[i] * prices[i];
+        }
+        Map<Integer, long[]> orderCountMap = new HashMap<Integer, long[]>();
+        Map<Integer, long[]> incomeMap = new HashMap<Integer, long[]>();
+        for(int slot = 0; slot < types.size(); slot++) {
+            long[] typeOrderCounts = Arrays.copyOfRange(orderCounts, slot * SalesHeatmap.CELLS, (slot + 1) * SalesHeatmap.CELLS);
+            if(Arrays.stream(typeOrderCounts).allMatch((count) -> count == 0)) continue;
+            orderCountMap.put(types.get(slot), typeOrderCounts);
+            incomeMap.put(types.get(slot), Arrays.copyOfRange(incomes, slot * SalesHeatmap.CELLS, (slot + 1) * SalesHeatmap.CELLS));
+        }
+        return new SalesHeatmap(orderCountMap, incomeMap);
+    }
+
+    private static Map<Integer, long[]> toSums(long[] quantities, long[] incomes) {
+        Map<Integer, long[]> sums = new HashMap<Integer, long[]>();
+        for(int menuId = 0; menuId < quantities.length; menuId++) {
+            if(quantities[menuId] != 0) sums.put(menuId, new long[] {quantities[menuId], incomes[menuId]});
+        }
+        return sums;
+    }
+
+    /**
+     * <h2>static method <code>toMinute()</code></h2>
+     * <p>Method <code>toMinute</code> is used to get the minute of the day of
+     * a time in the system time zone.</p>
+     *
+     * @param time The time, or <code>null</code>.
+     * @return Minute of the day, or <code>-1</code> if the time is
+     *         <code>null</code>.
+     */
+    protected static int toMinute(Date time) {
+        if(time == null) return -1;
+        LocalTime localTime = Instant.ofEpochMilli(time.getTime()).atZone(ZoneId.systemDefault()).toLocalTime();
+        return localTime.getHour() * 60 + localTime.getMinute();
+    }
+
+}
@@ -0,0 +1,395 @@
+/*
+ * Copyright 2017 Danang Galuh Tegar P.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.jogjadamai.infest.communication;
+
+import com.jogjadamai.infest.entity.Orders;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Lock;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import javax.persistence.EntityManager;
+
+/**
+ * <h1>class <code>OrderIngestor</code></h1>
+ * <p><code>OrderIngestor</code> is the write-behind ingestion stage of
+ * <code>ProtocolServer</code> for new orders. Request threads put orders on a
+ * bounded queue; a single writer thread takes every order waiting at that
+ * moment, up to the batch size, and writes the whole batch in one
+ * transaction, so the commit cost is shared by every order in the batch.
+ * While one batch commits, the next one accumulates.</p>
+ * <p>Each order decrements the stock of its menu with a conditional update;
+ * an order without enough stock is rejected on its own without failing the
+ * batch. If the batch transaction itself fails, its orders are retried one by
+ * one so that a single bad order cannot reject the others.</p>
+ * <p>Every submitted order is acknowledged with an <code>OrderReceipt</code>,
+ * which only reports <code>COMMITTED</code> after the transaction holding the
+ * order has been committed, and always does so once it has been committed.
+ * Orders still queued when the stage is closed are rejected.</p>
+ * <br>
+ * <p><b><i>Coded, built, and packaged with passion by Danang Galuh Tegar P for Infest.</i></b></p>
+ *
+ * @author Danang Galuh Tegar P
+ * @version 2017.03.10.0001
+ * @see com.jogjadamai.infest.communication.OrderReceipt
+ * @see com.jogjadamai.infest.communication.ProtocolServer
+ */
+final class OrderIngestor {
+
+    private static final long POLL_MILLIS = 100L;
+    private static final long SWEEP_MILLIS = 10000L;
+
+    private final Supplier<EntityManager> ENTITY_MANAGER_SUPPLIER;
+    private final MenuCatalog MENU_CATALOG;
+    private final SalesRollup SALES_ROLLUP;
+    private final DayCloser DAY_CLOSER;
+    private final ProtocolMetrics METRICS;
+    private final Consumer<String> STATUS;
+    private final BlockingQueue<PendingOrder> QUEUE;
+    private final ConcurrentMap<Long, PendingOrder> RECEIPT_MAP;
+    private final AtomicLong LAST_TICKET;
+    private final int BATCH_SIZE;
+    private final long RECEIPT_RETENTION;
+    private final Thread WRITER;
+
+    private volatile boolean isRunning;
+
+    private static final class PendingOrder {
+
+        private final Long ticket;
+        private final Orders order;
+        private final IProtocolClient owner;
+        private final CompletableFuture<OrderReceipt> result;
+        private volatile long completedAt;
+
+        private PendingOrder(Long ticket, Orders order, IProtocolClient owner) {
+            this.ticket = ticket;
+            this.order = order;
+            this.owner = owner;
+            this.result = new CompletableFuture<OrderReceipt>();
+        }
+
+        private void complete(OrderReceipt.Status status) {
+            // The first status wins, so an order reported as committed is
+            // never reported as rejected afterwards.
+            if(result.complete(new OrderReceipt(ticket, status, order))) completedAt = System.currentTimeMillis();
+        }
+
+        private OrderReceipt getReceipt() {
+            return result.getNow(new OrderReceipt(ticket, OrderReceipt.Status.QUEUED, order));
+        }
+
+    }
+
+    /**
+     * <h2>constructor <code>OrderIngestor()</code></h2>
+     * <p>Create a new ingestion stage and start its writer thread.</p>
+     *
+     * @param entityManagerSupplier Opens an <code>EntityManager</code> for
+     *                              every batch.
+     * @param menuCatalog           <code>MenuCatalog</code> whose stock is
+     *                              adjusted after every commit.
+     * @param salesRollup           <code>SalesRollup</code> recording every
+     *                              committed order.
+     * @param dayCloser             <code>DayCloser</code> closing again the
+     *                              closed days an order is recorded under.
+     * @param metrics               <code>ProtocolMetrics</code> recording the
+     *                              time spent in every batch.
+     * @param status                Status logger of the server.
+     * @param capacity              Maximum number of orders waiting to be
+     *                              written.
+     * @param batchSize             Maximum number of orders per transaction.
+     * @param receiptRetention      Time in milliseconds an acknowledged
+     *                              receipt can still be read.
+     */
+    protected OrderIngestor(Supplier<EntityManager> entityManagerSupplier, MenuCatalog menuCatalog, SalesRollup salesRollup, DayCloser dayCloser, ProtocolMetrics metrics, Consumer<String> status, int capacity, int batchSize, long receiptRetention) {
+        this.ENTITY_MANAGER_SUPPLIER = entityManagerSupplier;
+        this.MENU_CATALOG = menuCatalog;
+        this.SALES_ROLLUP = salesRollup;
+        this.DAY_CLOSER = dayCloser;
+        this.METRICS = metrics;
+        this.STATUS = status;
+        this.QUEUE = new ArrayBlockingQueue<PendingOrder>(capacity);
+        this.RECEIPT_MAP = new ConcurrentHashMap<Long, PendingOrder>();
+        this.LAST_TICKET = new AtomicLong(System.currentTimeMillis() * 1000L);
+        this.BATCH_SIZE = batchSize;
+        this.RECEIPT_RETENTION = receiptRetention;
+        this.isRunning = true;
+        this.WRITER = new Thread(this::writeLoop, "OrderIngestionWriter");
+        this.WRITER.setDaemon(true);
+        this.WRITER.start();
+        Runtime.getRuntime().addShutdownHook(new Thread(this::close, "OrderIngestionShutdown"));
+    }
+
+    /**
+     * <h2>method <code>submit()</code></h2>
+     * <p>Method <code>submit</code> is used to queue an order and wait until it
+     * is committed or rejected. When the queue is full the caller waits for
+     * room. An order not yet taken by the writer when the timeout elapses is
+     * taken off the queue and rejected; one already being written is returned
+     * as <code>QUEUED</code>, since it may still be committed.</p>
+     *
+     * @param order   <code>Orders</code> object to be created.
+     * @param timeout Maximum time in milliseconds to wait.
+     * @return The final <code>OrderReceipt</code>, or a <code>QUEUED</code>
+     *         one if the order was still being written at the timeout.
+     * @throws InterruptedException If interrupted while waiting.
+     * @throws ExecutionException   Never, receipts are not completed
+     *                              exceptionally.
+     */
+    protected OrderReceipt submit(Orders order, long timeout) throws InterruptedException, ExecutionException {
+        final long deadline = System.currentTimeMillis() + timeout;
+        PendingOrder pending = new PendingOrder(LAST_TICKET.incrementAndGet(), order, null);
+        if(!isValid(order) || !enqueue(pending, timeout)) {
+            pending.complete(OrderReceipt.Status.REJECTED);
+            return pending.getReceipt();
+        }
+        try {
+            return pending.result.get(Math.max(0L, deadline - System.currentTimeMillis()), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException ex) {
+            if(QUEUE.remove(pending)) pending.complete(OrderReceipt.Status.REJECTED);
+            return pending.getReceipt();
+        }
+    }
+
+    /**
+     * <h2>method <code>offer()</code></h2>
+     * <p>Method <code>offer</code> is used to queue an order without waiting.
+     * The receipt can be read again with <code>getReceipt()</code> by the same
+     * client until it has been acknowledged for longer than the receipt
+     * retention. An order is rejected at once when the queue is full.</p>
+     *
+     * @param owner Client submitting the order.
+     * @param order <code>Orders</code> object to be created.
+     * @return A <code>QUEUED</code> or <code>REJECTED</code> receipt.
+     */
+    protected OrderReceipt offer(IProtocolClient owner, Orders order) {
+        PendingOrder pending = new PendingOrder(LAST_TICKET.incrementAndGet(), order, owner);
+        RECEIPT_MAP.put(pending.ticket, pending);
+        try {
+            if(!isValid(order) || !enqueue(pending, 0L)) pending.complete(OrderReceipt.Status.REJECTED);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            pending.complete(OrderReceipt.Status.REJECTED);
+        }
+        return pending.getReceipt();
+    }
+
+    private boolean enqueue(PendingOrder pending, long timeout) throws InterruptedException {
+        if(!isRunning || !QUEUE.offer(pending, timeout, TimeUnit.MILLISECONDS)) return false;
+        // close() may have drained the queue between the check and the
+        // offer; an order it missed is taken back here.
+        return isRunning || !QUEUE.remove(pending);
+    }
+
+    /**
+     * <h2>method <code>getReceipt()</code></h2>
+     * <p>Method <code>getReceipt</code> is used to read the current receipt of
+     * an order queued with <code>offer()</code>.</p>
+     *
+     * @param owner  Client that submitted the order.
+     * @param ticket Ticket of the order.
+     * @return The current <code>OrderReceipt</code>, or <code>null</code> if
+     *         the ticket is unknown, expired, or owned by another client.
+     */
+    protected OrderReceipt getReceipt(IProtocolClient owner, Long ticket) {
+        PendingOrder pending = (ticket == null) ? null : RECEIPT_MAP.get(ticket);
+        return (pending == null || !pending.owner.equals(owner)) ? null : pending.getReceipt();
+    }
+
+    /**
+     * <h2>method <code>close()</code></h2>
+     * <p>Method <code>close</code> is used to stop accepting orders and stop
+     * the writer thread after every queued order has been written. Orders
+     * the writer did not take within 10 seconds are rejected.</p>
+     */
+    protected void close() {
+        if(!isRunning) return;
+        isRunning = false;
+        try {
+            WRITER.join(TimeUnit.SECONDS.toMillis(10));
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+        List<PendingOrder> remaining = new ArrayList<PendingOrder>();
+        QUEUE.drainTo(remaining);
+        for(PendingOrder pending : remaining) pending.complete(OrderReceipt.Status.REJECTED);
+    }
+
+    /**
+     * <h2>static method <code>decrementStock()</code></h2>
+     * <p>Method <code>decrementStock</code> is used to decrement the stock of a
+     * menu inside the transaction of the given <code>EntityManager</code>. It
+     * is a single conditional statement: the row lock it takes serialises
+     * concurrent orders of the same menu, so no decrement is lost and the
+     * stock never goes below zero.</p>
+     *
+     * @param entityManager <code>EntityManager</code> with an active transaction.
+     * @param menuId        The ID of the menu.
+     * @param total         Amount to be taken from the stock.
+     * @return <code>true</code> if the stock was decremented.
+     */
+    protected static boolean decrementStock(EntityManager entityManager, Integer menuId, int total) {
+        return entityManager.createQuery("UPDATE Menus m SET m.stock = m.stock - :total WHERE m.id = :id AND m.stock >= :total")
+                .setParameter("total", total)
+                .setParameter("id", menuId)
+                .executeUpdate() == 1;
+    }
+
+    /**
+     * <h2>static method <code>readStocks()</code></h2>
+     * <p>Method <code>readStocks</code> is used to read the stock of every
+     * given menu inside the transaction of the given
+     * <code>EntityManager</code>, after it has decremented them. The rows are
+     * still locked by the decrements, so every stock is the one the
+     * transaction commits, and is given its sequence number in the
+     * <code>MenuCatalog</code> right away.</p>
+     *
+     * @param entityManager <code>EntityManager</code> with an active transaction.
+     * @param menuIds       The IDs of the decremented menus.
+     * @param menuCatalog   <code>MenuCatalog</code> giving the sequence
+     *                      numbers.
+     * @return Stock and sequence number, in that order, by menu ID, to be
+     *         published once the transaction is committed.
+     */
+    protected static Map<Integer, long[]> readStocks(EntityManager entityManager, Set<Integer> menuIds, MenuCatalog menuCatalog) {
+        Map<Integer, long[]> stocks = new HashMap<Integer, long[]>();
+        for(Integer menuId : menuIds) {
+            Integer stock = entityManager.createQuery("SELECT m.stock FROM Menus m WHERE m.id = :id", Integer.class)
+                    .setParameter("id", menuId)
+                    .getSingleResult();
+            stocks.put(menuId, new long[] {stock, menuCatalog.nextStockSequence()});
+        }
+        return stocks;
+    }
+
+    private static boolean isValid(Orders order) {
+        return order != null && order.getIdmenu() != null && order.getIdmenu().getId() != null && order.getTotal() > 0;
+    }
+
+    private void writeLoop() {
+        List<PendingOrder> batch = new ArrayList<PendingOrder>(BATCH_SIZE);
+        long lastSweep = System.currentTimeMillis();
+        while(isRunning || !QUEUE.isEmpty()) {
+            try {
+                PendingOrder first = QUEUE.poll(POLL_MILLIS, TimeUnit.MILLISECONDS);
+                if(first != null) {
+                    batch.add(first);
+                    QUEUE.drainTo(batch, BATCH_SIZE - 1);
+                    write(batch);
+                    batch.clear();
+                }
+            } catch (InterruptedException ex) {
+                // Only close() stops the writer, after the queue is drained.
+            } catch (RuntimeException ex) {
+                Logger.getLogger(OrderIngestor.class.getName()).log(Level.SEVERE, "Caught an exception.", ex);
+                for(PendingOrder pending : batch) pending.complete(OrderReceipt.Status.REJECTED);
+                batch.clear();
+            }
+            if(System.currentTimeMillis() - lastSweep >= SWEEP_MILLIS) {
+                lastSweep = System.currentTimeMillis();
+                sweepReceipts(lastSweep);
+            }
+        }
+    }
+
+    private void write(List<PendingOrder> batch) {
+        if(commit(batch)) return;
+        if(batch.size() == 1) {
+            batch.get(0).complete(OrderReceipt.Status.REJECTED);
+            return;
+        }
+        STATUS.accept("OrderIngestor: Batch of " + batch.size() + " orders failed, retrying the orders one by one.");
+        for(PendingOrder pending : batch) {
+            // An ID assigned by the failed flush was rolled back with it.
+            pending.order.setId(null);
+            write(Collections.singletonList(pending));
+        }
+    }
+
+    private boolean commit(List<PendingOrder> batch) {
+        final long startedAt = System.nanoTime();
+        List<PendingOrder> accepted = new ArrayList<PendingOrder>(batch.size());
+        Set<Integer> menuIds = new HashSet<Integer>();
+        Map<Integer, long[]> stocks;
+        Lock rollupLock = SALES_ROLLUP.getUpdateLock();
+        rollupLock.lock();
+        try {
+            EntityManager entityManager = ENTITY_MANAGER_SUPPLIER.get();
+            try {
+                entityManager.getTransaction().begin();
+                for(PendingOrder pending : batch) {
+                    Integer menuId = pending.order.getIdmenu().getId();
+                    if(decrementStock(entityManager, menuId, pending.order.getTotal())) {
+                        entityManager.persist(pending.order);
+                        accepted.add(pending);
+                        menuIds.add(menuId);
+                    }
+                }
+                stocks = readStocks(entityManager, menuIds, MENU_CATALOG);
+                entityManager.getTransaction().commit();
+            } catch (RuntimeException ex) {
+                Logger.getLogger(OrderIngestor.class.getName()).log(Level.SEVERE, "Caught an exception.", ex);
+                return false;
+            } finally {
+                if(entityManager.getTransaction().isActive()) entityManager.getTransaction().rollback();
+                entityManager.close();
+                METRICS.recordDatabase(startedAt);
+            }
+            // The batch is committed from here on, so a failure to update the
+            // caches must not reject its orders.
+            try {
+                for(PendingOrder pending : accepted) DAY_CLOSER.recloseLater(SALES_ROLLUP.record(pending.order));
+            } catch (RuntimeException ex) {
+                STATUS.accept("OrderIngestor: Committed a batch of " + batch.size() + " orders, but caught an exception while updating the sales rollup.");
+                Logger.getLogger(OrderIngestor.class.getName()).log(Level.SEVERE, "Caught an exception.", ex);
+            }
+        } finally {
+            rollupLock.unlock();
+        }
+        try {
+            stocks.forEach((menuId, stock) -> MENU_CATALOG.publishStock(menuId, (int) stock[0], stock[1]));
+        } catch (RuntimeException ex) {
+            STATUS.accept("OrderIngestor: Committed a batch of " + batch.size() + " orders, but caught an exception while updating the menu catalog.");
+            Logger.getLogger(OrderIngestor.class.getName()).log(Level.SEVERE, "Caught an exception.", ex);
+        }
+        for(PendingOrder pending : accepted) pending.complete(OrderReceipt.Status.COMMITTED);
+        for(PendingOrder pending : batch) pending.complete(OrderReceipt.Status.REJECTED);
+        STATUS.accept("OrderIngestor: Committed " + accepted.size() + " of " + batch.size() + " orders in one transaction.");
+        return true;
+    }
+
+    private void sweepReceipts(long now) {
+        RECEIPT_MAP.values().removeIf((pending) -> pending.completedAt > 0 && now - pending.completedAt > RECEIPT_RETENTION);
+    }
+
+}
@@ -0,0 +1,79 @@
+/*
+ * Copyright 2017 Danang Galuh Tegar P.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.jogjadamai.infest.communication;
+
+import com.jogjadamai.infest.entity.Orders;
+import java.io.Serializable;
+
+/**
+ * <h1>class <code>OrderReceipt</code></h1>
+ * <p><code>OrderReceipt</code> is the acknowledgement of an order submitted to
+ * <code>ProtocolServer</code>. A <code>QUEUED</code> receipt only promises
+ * that the order is waiting to be written; the order is safe once a receipt
+ * with the same ticket reports <code>COMMITTED</code>, which then carries the
+ * created <code>Orders</code> entity with its ID.</p>
+ * <br>
+ * <p><b><i>Coded, built, and packaged with passion by Danang Galuh Tegar P for Infest.</i></b></p>
+ *
+ * @author Danang Galuh Tegar P
+ * @version 2017.03.10.0001
+ * @see com.jogjadamai.infest.communication.IExtendedProtocolServer
+ */
+public final class OrderReceipt implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * <h2>enum <code>Status</code></h2>
+     * <p>State of a submitted order.</p>
+     */
+    public enum Status {
+        QUEUED, COMMITTED, REJECTED
+    }
+
+    private final Long ticket;
+    private final Status status;
+    private final Orders order;
+
+    protected OrderReceipt(Long ticket, Status status, Orders order) {
+        this.ticket = ticket;
+        this.status = status;
+        this.order = order;
+    }
+
+    /**
+     * @return Ticket identifying the submitted order.
+     */
+    public Long getTicket() {
+        return ticket;
+    }
+
+    /**
+     * @return <code>Status</code> of the submitted order.
+     */
+    public Status getStatus() {
+        return status;
+    }
+
+    /**
+     * @return The created <code>Orders</code> entity when the order is
+     *         committed, otherwise the submitted order.
+     */
+    public Orders getOrder() {
+        return order;
+    }
+
+}
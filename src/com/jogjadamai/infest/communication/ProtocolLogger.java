@@ -0,0 +1,300 @@
+/*
+ * Copyright 2017 Danang Galuh Tegar P.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.jogjadamai.infest.communication;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * <h1>class <code>ProtocolLogger</code></h1>
+ * <p><code>ProtocolLogger</code> is the asynchronous status log of
+ * <code>ProtocolServer</code>. Request threads only enqueue a line on a
+ * bounded lock-free queue; a single writer thread drains the queue in
+ * batches, writes them to the console and the log file, and flushes once per
+ * batch. When the queue is full the line is either dropped or the caller
+ * waits for room, depending on the <code>OverflowPolicy</code>.</p>
+ * <p>The log file is kept open on a single channel and is rolled over when it
+ * would exceed its maximum size or when the day changes. Rolled segments are
+ * gzip-compressed in the background and only the newest archives are
+ * retained.</p>
+ * <br>
+ * <p><b><i>Coded, built, and packaged with passion by Danang Galuh Tegar P for Infest.</i></b></p>
+ *
+ * @author Danang Galuh Tegar P
+ * @version 2017.03.10.0001
+ * @see com.jogjadamai.infest.communication.ProtocolServer
+ */
+final class ProtocolLogger {
+
+    /**
+     * <h2>enum <code>OverflowPolicy</code></h2>
+     * <p>What <code>ProtocolLogger.log()</code> does when the queue is full.</p>
+     */
+    protected enum OverflowPolicy {
+        DROP, BLOCK
+    }
+
+    protected static final DateTimeFormatter TIMESTAMP_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss.SSS");
+
+    private static final int BATCH_SIZE = 256;
+    private static final long IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(50);
+
+    private final File file;
+    private final File directory;
+    private final String baseName;
+    private final int CAPACITY;
+    private final long MAXIMUM_FILE_SIZE;
+    private final int RETENTION;
+    private final OverflowPolicy POLICY;
+    private final ConcurrentLinkedQueue<Entry> QUEUE;
+    private final AtomicInteger QUEUE_SIZE;
+    private final AtomicLong DROPPED_COUNT;
+    private final Thread WRITER;
+    private final ExecutorService ARCHIVER;
+
+    private volatile boolean isRunning;
+    private FileChannel channel;
+    private long channelSize;
+    private LocalDate channelDate;
+
+    private static final class Entry {
+
+        private final LocalDateTime time;
+        private final String status;
+
+        private Entry(LocalDateTime time, String status) {
+            this.time = time;
+            this.status = status;
+        }
+
+    }
+
+    /**
+     * <h2>constructor <code>ProtocolLogger()</code></h2>
+     * <p>Create a new logger appending to the given file and start its writer
+     * thread.</p>
+     *
+     * @param file            Log file to append to.
+     * @param capacity        Maximum number of lines waiting to be written.
+     * @param policy          <code>OverflowPolicy</code> applied when the
+     *                        queue is full.
+     * @param maximumFileSize Size in bytes after which the file is rolled.
+     * @param retention       Number of compressed archives to keep.
+     */
+    protected ProtocolLogger(File file, int capacity, OverflowPolicy policy, long maximumFileSize, int retention) {
+        this.file = file.getAbsoluteFile();
+        this.directory = this.file.getParentFile();
+        this.baseName = this.file.getName().replaceFirst("\\.log$", "");
+        this.CAPACITY = capacity;
+        this.MAXIMUM_FILE_SIZE = maximumFileSize;
+        this.RETENTION = retention;
+        this.POLICY = policy;
+        this.QUEUE = new ConcurrentLinkedQueue<Entry>();
+        this.QUEUE_SIZE = new AtomicInteger();
+        this.DROPPED_COUNT = new AtomicLong();
+        this.isRunning = true;
+        this.ARCHIVER = Executors.newSingleThreadExecutor((runnable) -> {
+            Thread thread = new Thread(runnable, "ProtocolLogArchiver");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.WRITER = new Thread(this::drainLoop, "ProtocolLogWriter");
+        this.WRITER.setDaemon(true);
+        this.WRITER.start();
+        Runtime.getRuntime().addShutdownHook(new Thread(this::close, "ProtocolLogShutdown"));
+    }
+
+    /**
+     * <h2>method <code>log()</code></h2>
+     * <p>Method <code>log</code> is used to enqueue a status line. The
+     * timestamp is taken now, but formatting and I/O happen on the writer
+     * thread.</p>
+     *
+     * @param status Status message to be logged.
+     */
+    protected void log(String status) {
+        Entry entry = new Entry(LocalDateTime.now(), status);
+        while(!tryReserve()) {
+            if(POLICY == OverflowPolicy.DROP || !isRunning) {
+                DROPPED_COUNT.incrementAndGet();
+                return;
+            }
+            LockSupport.unpark(WRITER);
+            LockSupport.parkNanos(TimeUnit.MICROSECONDS.toNanos(100));
+        }
+        QUEUE.offer(entry);
+        LockSupport.unpark(WRITER);
+    }
+
+    /**
+     * <h2>method <code>getDroppedCount()</code></h2>
+     * <p>Method <code>getDroppedCount</code> is used to get the number of
+     * lines dropped because the queue was full.</p>
+     *
+     * @return Number of dropped lines.
+     */
+    protected long getDroppedCount() {
+        return DROPPED_COUNT.get();
+    }
+
+    /**
+     * <h2>method <code>close()</code></h2>
+     * <p>Method <code>close</code> is used to stop the writer thread after
+     * every queued line has been written.</p>
+     */
+    protected void close() {
+        if(!isRunning) return;
+        isRunning = false;
+        LockSupport.unpark(WRITER);
+        try {
+            WRITER.join(TimeUnit.SECONDS.toMillis(5));
+            ARCHIVER.shutdown();
+            ARCHIVER.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private boolean tryReserve() {
+        int size;
+        do {
+            size = QUEUE_SIZE.get();
+            if(size >= CAPACITY) return false;
+        } while(!QUEUE_SIZE.compareAndSet(size, size + 1));
+        return true;
+    }
+
+    private void drainLoop() {
+        StringBuilder batch = new StringBuilder();
+        while(isRunning || !QUEUE.isEmpty()) {
+            batch.setLength(0);
+            int count = 0;
+            Entry entry;
+            while(count < BATCH_SIZE && (entry = QUEUE.poll()) != null) {
+                batch.append("[INFEST] ").append(TIMESTAMP_FORMATTER.format(entry.time)).append(": ").append(entry.status).append(System.lineSeparator());
+                count++;
+            }
+            if(count == 0) {
+                LockSupport.parkNanos(this, IDLE_PARK_NANOS);
+                continue;
+            }
+            QUEUE_SIZE.addAndGet(-count);
+            write(batch);
+        }
+        closeChannel();
+    }
+
+    private void write(CharSequence batch) {
+        System.out.print(batch);
+        ByteBuffer bytes = StandardCharsets.UTF_8.encode(CharBuffer.wrap(batch));
+        try {
+            LocalDate today = LocalDate.now();
+            if(channel != null && channelSize > 0 && (!today.equals(channelDate) || channelSize + bytes.remaining() > MAXIMUM_FILE_SIZE)) rotate();
+            if(channel == null) openChannel(today);
+            while(bytes.hasRemaining()) channelSize += channel.write(bytes);
+        } catch (SecurityException | IOException ex) {
+            System.err.println("[INFEST] " + TIMESTAMP_FORMATTER.format(LocalDateTime.now()) + ": " + ex.getLocalizedMessage());
+            closeChannel();
+        }
+    }
+
+    private void openChannel(LocalDate today) throws IOException {
+        channel = FileChannel.open(file.toPath(), StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        channelSize = channel.size();
+        // A non-empty file left by a previous run belongs to the day it was
+        // last written, so it is rolled as soon as that day is over.
+        channelDate = (channelSize > 0) ? Instant.ofEpochMilli(file.lastModified()).atZone(ZoneId.systemDefault()).toLocalDate() : today;
+    }
+
+    private void closeChannel() {
+        if(channel == null) return;
+        try {
+            channel.close();
+        } catch (IOException ex) {
+            System.err.println("[INFEST] " + TIMESTAMP_FORMATTER.format(LocalDateTime.now()) + ": " + ex.getLocalizedMessage());
+        }
+        channel = null;
+    }
+
+    private void rotate() throws IOException {
+        closeChannel();
+        String prefix = baseName + "-" + channelDate + ".";
+        int sequence = 0;
+        String[] names = directory.list((dir, name) -> name.startsWith(prefix));
+        if(names != null) {
+            for(String name : names) {
+                try {
+                    sequence = Math.max(sequence, Integer.parseInt(name.substring(prefix.length(), name.indexOf('.', prefix.length()))));
+                } catch (NumberFormatException | IndexOutOfBoundsException ex) {
+                    // Not a rolled segment of this log.
+                }
+            }
+        }
+        final File rolled = new File(directory, prefix + (sequence + 1) + ".log");
+        Files.move(file.toPath(), rolled.toPath());
+        ARCHIVER.execute(() -> {
+            compress(rolled);
+            deleteExpiredArchives();
+        });
+    }
+
+    private void compress(File segment) {
+        File archive = new File(segment.getPath() + ".gz");
+        byte[] buffer = new byte[8192];
+        try (InputStream in = new FileInputStream(segment); OutputStream out = new GZIPOutputStream(new FileOutputStream(archive), buffer.length)) {
+            int read;
+            while((read = in.read(buffer)) != -1) out.write(buffer, 0, read);
+        } catch (IOException ex) {
+            System.err.println("[INFEST] " + TIMESTAMP_FORMATTER.format(LocalDateTime.now()) + ": " + ex.getLocalizedMessage());
+            archive.delete();
+            return;
+        }
+        segment.delete();
+    }
+
+    private void deleteExpiredArchives() {
+        File[] archives = directory.listFiles((dir, name) -> name.startsWith(baseName + "-") && name.endsWith(".log.gz"));
+        if(archives == null || archives.length <= RETENTION) return;
+        Arrays.sort(archives, Comparator.comparingLong(File::lastModified).reversed());
+        for(int i = RETENTION; i < archives.length; i++) archives[i].delete();
+    }
+
+}
@@ -0,0 +1,329 @@
+/*
+ * Copyright 2017 Danang Galuh Tegar P.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.jogjadamai.infest.communication;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * <h1>class <code>ProtocolMetrics</code></h1>
+ * <p><code>ProtocolMetrics</code> collects per-method performance figures of
+ * <code>ProtocolServer</code>: a latency histogram and call count of every
+ * <code>IProtocolServer</code> method, and how many requests were denied,
+ * split by <code>IProtocolClient.Type</code>. The time spent in database
+ * calls is recorded in its own histogram. Recording is lock-free; readers
+ * take an immutable <code>ProtocolMetrics.Snapshot</code>. Nothing is ever
+ * reset, so the figures of a snapshot cover every call since the server
+ * started; the figures of the calls between two snapshots are read with
+ * <code>ProtocolMetrics.Snapshot.since()</code>.</p>
+ * <br>
+ * <p><b><i>Coded, built, and packaged with passion by Danang Galuh Tegar P for Infest.</i></b></p>
+ *
+ * @author Danang Galuh Tegar P
+ * @version 2017.03.10.0001
+ * @see com.jogjadamai.infest.communication.ProtocolServer
+ * @see com.jogjadamai.infest.communication.LatencyHistogram
+ */
+public final class ProtocolMetrics {
+
+    private final ConcurrentMap<String, MethodMetrics> METHOD_MAP;
+    private final MethodMetrics DATABASE;
+    private final long STARTED_AT;
+
+    private static final class MethodMetrics {
+
+        private final LatencyHistogram latency;
+        private final LongAdder[] denials;
+
+        private MethodMetrics() {
+            this.latency = new LatencyHistogram();
+            this.denials = new LongAdder[IProtocolClient.Type.values().length];
+            for(int i = 0; i < denials.length; i++) denials[i] = new LongAdder();
+        }
+
+    }
+
+    /**
+     * <h2>class <code>MethodSnapshot</code></h2>
+     * <p>Immutable figures of one <code>IProtocolServer</code> method, of
+     * every call up to the time the snapshot was taken, or of the calls
+     * between two snapshots. Latencies are in nanoseconds.</p>
+     */
+    public static final class MethodSnapshot {
+
+        private final String method;
+        private final long count;
+        private final long totalLatency;
+        private final long p50;
+        private final long p99;
+        private final long p999;
+        private final long max;
+        private final Map<IProtocolClient.Type, Long> denials;
+        private final long[] latencyCounts;
+
+        private MethodSnapshot(String method, MethodMetrics metrics) {
+            this(method, metrics.latency.getCount(), metrics.latency.getSum(), metrics.latency.getCounts(), metrics.latency.getMax(), denialsOf(metrics));
+        }
+
+        private MethodSnapshot(String method, long count, long totalLatency, long[] latencyCounts, long max, Map<IProtocolClient.Type, Long> denials) {
+            long[] percentiles = LatencyHistogram.getValuesAtPercentiles(latencyCounts, max, 50.0, 99.0, 99.9);
+            this.method = method;
+            this.count = count;
+            this.totalLatency = totalLatency;
+            this.p50 = percentiles[0];
+            this.p99 = percentiles[1];
+            this.p999 = percentiles[2];
+            this.max = max;
+            this.denials = Collections.unmodifiableMap(denials);
+            this.latencyCounts = latencyCounts;
+        }
+
+        private static Map<IProtocolClient.Type, Long> denialsOf(MethodMetrics metrics) {
+            Map<IProtocolClient.Type, Long> denialMap = new EnumMap<IProtocolClient.Type, Long>(IProtocolClient.Type.class);
+            for(IProtocolClient.Type type : IProtocolClient.Type.values()) denialMap.put(type, metrics.denials[type.ordinal()].sum());
+            return denialMap;
+        }
+
+        /**
+         * <h2>method <code>since()</code></h2>
+         * <p>Method <code>since</code> is used to get the figures of the calls
+         * completed between an earlier snapshot of the same method and this
+         * one, from the difference of their bucket counts. The largest
+         * latency of the interval is estimated as the upper bound of the
+         * highest bucket that gained a call, capped at the largest latency
+         * ever recorded.</p>
+         *
+         * @param previous Earlier figures of the method, or <code>null</code>
+         *                 if it was not called before.
+         * @return Figures of the calls in between.
+         */
+        public MethodSnapshot since(MethodSnapshot previous) {
+            if(previous == null) return this;
+            long[] intervalCounts = new long[latencyCounts.length];
+            for(int i = 0; i < intervalCounts.length; i++) intervalCounts[i] = Math.max(0L, latencyCounts[i] - previous.latencyCounts[i]);
+            Map<IProtocolClient.Type, Long> denialMap = new EnumMap<IProtocolClient.Type, Long>(IProtocolClient.Type.class);
+            denials.forEach((type, denied) -> denialMap.put(type, denied - previous.denials.get(type)));
+            return new MethodSnapshot(method, count - previous.count, totalLatency - previous.totalLatency, intervalCounts,
+                    Math.min(LatencyHistogram.getHighestValue(intervalCounts), max), denialMap);
+        }
+
+        /**
+         * @return Name of the method.
+         */
+        public String getMethod() {
+            return method;
+        }
+
+        /**
+         * @return Number of completed calls.
+         */
+        public long getCount() {
+            return count;
+        }
+
+        /**
+         * @return Sum of every call latency.
+         */
+        public long getTotalLatency() {
+            return totalLatency;
+        }
+
+        /**
+         * @return Median latency.
+         */
+        public long getP50() {
+            return p50;
+        }
+
+        /**
+         * @return 99th percentile latency.
+         */
+        public long getP99() {
+            return p99;
+        }
+
+        /**
+         * @return 99.9th percentile latency.
+         */
+        public long getP999() {
+            return p999;
+        }
+
+        /**
+         * @return Largest latency.
+         */
+        public long getMax() {
+            return max;
+        }
+
+        /**
+         * @param type <code>IProtocolClient.Type</code> of denied clients.
+         * @return Number of denied requests from that client type.
+         */
+        public long getDenialCount(IProtocolClient.Type type) {
+            return denials.get(type);
+        }
+
+        /**
+         * @return Number of denied requests by client type.
+         */
+        public Map<IProtocolClient.Type, Long> getDenials() {
+            return denials;
+        }
+
+    }
+
+    /**
+     * <h2>class <code>Snapshot</code></h2>
+     * <p>Immutable figures of every instrumented method at one point in time.
+     * Throughput and the latencies of recent calls are obtained by comparing
+     * two snapshots with <code>since()</code>.</p>
+     */
+    public static final class Snapshot {
+
+        private final long takenAt;
+        private final long startedAt;
+        private final List<MethodSnapshot> methods;
+        private final MethodSnapshot database;
+
+        private Snapshot(long takenAt, long startedAt, List<MethodSnapshot> methods, MethodSnapshot database) {
+            this.takenAt = takenAt;
+            this.startedAt = startedAt;
+            this.methods = Collections.unmodifiableList(methods);
+            this.database = database;
+        }
+
+        /**
+         * @return Time the snapshot was taken, from <code>System.nanoTime()</code>.
+         */
+        public long getTakenAt() {
+            return takenAt;
+        }
+
+        /**
+         * @return Time the metrics were created, from <code>System.nanoTime()</code>.
+         */
+        public long getStartedAt() {
+            return startedAt;
+        }
+
+        /**
+         * @return Figures of every method called at least once, by method name.
+         */
+        public List<MethodSnapshot> getMethods() {
+            return methods;
+        }
+
+        /**
+         * @param method Name of the method.
+         * @return Figures of the method, or <code>null</code> if it was never called.
+         */
+        public MethodSnapshot getMethod(String method) {
+            for(MethodSnapshot snapshot : methods) if(snapshot.getMethod().equals(method)) return snapshot;
+            return null;
+        }
+
+        /**
+         * @return Figures of every database call made by the server.
+         */
+        public MethodSnapshot getDatabase() {
+            return database;
+        }
+
+        /**
+         * <h2>method <code>since()</code></h2>
+         * <p>Method <code>since</code> is used to get the figures of the calls
+         * completed between an earlier snapshot and this one. The returned
+         * snapshot keeps the times of this one.</p>
+         *
+         * @param previous Earlier snapshot of the same metrics, or
+         *                 <code>null</code> for every call since the start.
+         * @return Figures of the calls in between.
+         */
+        public Snapshot since(Snapshot previous) {
+            if(previous == null) return this;
+            List<MethodSnapshot> intervalMethods = new ArrayList<MethodSnapshot>();
+            for(MethodSnapshot method : methods) intervalMethods.add(method.since(previous.getMethod(method.getMethod())));
+            return new Snapshot(takenAt, startedAt, intervalMethods, database.since(previous.database));
+        }
+
+    }
+
+    protected ProtocolMetrics() {
+        this.METHOD_MAP = new ConcurrentHashMap<String, MethodMetrics>();
+        this.DATABASE = new MethodMetrics();
+        this.STARTED_AT = System.nanoTime();
+    }
+
+    /**
+     * <h2>method <code>record()</code></h2>
+     * <p>Method <code>record</code> is used to record one completed call.</p>
+     *
+     * @param method    Name of the called method.
+     * @param startedAt Value of <code>System.nanoTime()</code> when the call started.
+     */
+    protected void record(String method, long startedAt) {
+        metricsOf(method).latency.record(System.nanoTime() - startedAt);
+    }
+
+    /**
+     * <h2>method <code>recordDatabase()</code></h2>
+     * <p>Method <code>recordDatabase</code> is used to record one completed
+     * database call.</p>
+     *
+     * @param startedAt Value of <code>System.nanoTime()</code> when the call started.
+     */
+    protected void recordDatabase(long startedAt) {
+        DATABASE.latency.record(System.nanoTime() - startedAt);
+    }
+
+    /**
+     * <h2>method <code>recordDenial()</code></h2>
+     * <p>Method <code>recordDenial</code> is used to count one denied request.</p>
+     *
+     * @param method Name of the called method.
+     * @param type   <code>IProtocolClient.Type</code> of the denied client.
+     */
+    protected void recordDenial(String method, IProtocolClient.Type type) {
+        if(type != null) metricsOf(method).denials[type.ordinal()].increment();
+    }
+
+    /**
+     * <h2>method <code>snapshot()</code></h2>
+     * <p>Method <code>snapshot</code> is used to read the current figures of
+     * every method without stopping recorders.</p>
+     *
+     * @return A <code>ProtocolMetrics.Snapshot</code>.
+     */
+    public Snapshot snapshot() {
+        List<MethodSnapshot> methods = new ArrayList<MethodSnapshot>();
+        METHOD_MAP.forEach((method, metrics) -> methods.add(new MethodSnapshot(method, metrics)));
+        methods.sort((a, b) -> a.getMethod().compareTo(b.getMethod()));
+        return new Snapshot(System.nanoTime(), STARTED_AT, methods, new MethodSnapshot("database", DATABASE));
+    }
+
+    private MethodMetrics metricsOf(String method) {
+        MethodMetrics metrics = METHOD_MAP.get(method);
+        return (metrics != null) ? metrics : METHOD_MAP.computeIfAbsent(method, (key) -> new MethodMetrics());
+    }
+
+}
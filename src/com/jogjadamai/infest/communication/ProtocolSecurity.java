@@ -46,16 +46,33 @@ final class ProtocolSecurity {
      *         is verified.
      */
     protected static Boolean isVerified(com.jogjadamai.infest.communication.IProtocolClient protocolClient) throws java.rmi.RemoteException {
+        return isVerified(protocolClient.getType(), protocolClient.getSecurityNumber());
+    }
+    
+    /**
+     * <h2>method <code>isVerfied()</code></h2>
+     * <p>Method <code>isVerified</code> is used to verify an authenticity of a 
+     * <code>ProtocolClient</code> based on a type and security number which
+     * have already been read from the client, so no further remote call is
+     * made to the client.</p>
+     * 
+     * @param type           <code>IProtocolClient.Type</code> of the client.
+     * @param securityNumber Security number of the client.
+     * @return Boolean indicating <code>true</code> when security number match
+     *         the client type.
+     */
+    protected static Boolean isVerified(com.jogjadamai.infest.communication.IProtocolClient.Type type, Integer securityNumber) {
         Boolean isVerified = false;
-        switch(protocolClient.getType()) {
+        if(type == null) return isVerified;
+        switch(type) {
             case ADMINISTRATOR:
-                isVerified = (java.util.Objects.equals(protocolClient.getSecurityNumber(), SECURITY_NUMBER[0]));
+                isVerified = (java.util.Objects.equals(securityNumber, SECURITY_NUMBER[0]));
                 break;
             case OPERATOR:
-                isVerified = (java.util.Objects.equals(protocolClient.getSecurityNumber(), SECURITY_NUMBER[1]));
+                isVerified = (java.util.Objects.equals(securityNumber, SECURITY_NUMBER[1]));
                 break;
             case CUSTOMER:
-                isVerified = (java.util.Objects.equals(protocolClient.getSecurityNumber(), SECURITY_NUMBER[2]));
+                isVerified = (java.util.Objects.equals(securityNumber, SECURITY_NUMBER[2]));
                 break;
             default:
                 isVerified = false;
@@ -21,6 +21,7 @@ import com.jogjadamai.infest.entity.FinanceReport;
 import com.jogjadamai.infest.entity.Menus;
 import com.jogjadamai.infest.entity.Orders;
 import com.jogjadamai.infest.entity.Tables;
+import com.jogjadamai.infest.persistence.FeaturesController;
 import com.jogjadamai.infest.persistence.InfestEntityController;
 import com.jogjadamai.infest.persistence.InfestPersistence;
 import com.jogjadamai.infest.persistence.exceptions.NonexistentEntityException;
@@ -31,7 +32,6 @@ import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileNotFoundException;
 import java.io.FileOutputStream;
-import java.io.FileWriter;
 import java.io.IOException;
 import java.io.ObjectInputStream;
 import java.io.ObjectOutputStream;
@@ -40,15 +40,28 @@ import java.rmi.registry.LocateRegistry;
 import java.rmi.registry.Registry;
 import java.rmi.server.UnicastRemoteObject;
 import java.security.SecureRandom;
+import java.time.DateTimeException;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
+import java.time.LocalTime;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.locks.Lock;
+import java.util.function.Function;
+import java.util.function.Supplier;
 import java.util.logging.FileHandler;
 import java.util.logging.Level;
 import java.util.logging.Logger;
+import javax.persistence.EntityManager;
 
 /**
  * <h1>class <code>ProtocolServer</code></h1>
@@ -63,9 +76,10 @@ import java.util.logging.Logger;
  * @see java.rmi.Remote
  * @see java.rmi.server.UnicastRemoteObject
  * @see com.jogjadamai.infest.communication.IProtocolServer
+ * @see com.jogjadamai.infest.communication.IExtendedProtocolServer
  * @see com.jogjadamai.infest.persistence.InfestPersistence
  */
-public final class ProtocolServer extends UnicastRemoteObject implements IProtocolServer {
+public final class ProtocolServer extends UnicastRemoteObject implements IExtendedProtocolServer {
     
     private final byte[] SESSION_BYTE;
     private final int SERVICE_PORT;
@@ -73,12 +87,28 @@ public final class ProtocolServer extends UnicastRemoteObject implements IProtoc
     private final Registry REGISTRY;
     private final SecureRandom SECURE_RANDOM;
     private static ProtocolServer INSTANCE;
-    private final List<IProtocolClient> CLIENT_LIST;
+    private final ProtocolSessionRegistry SESSION_REGISTRY;
     
     private final File file;
+    private final ProtocolLogger LOGGER;
+    private final ProtocolMetrics METRICS;
+    private final Function<InfestPersistence.Entity, InfestEntityController<?>> CONTROLLER_FACTORY;
+    private final Supplier<EntityManager> ENTITY_MANAGER_SUPPLIER;
+    private final Map<InfestPersistence.Entity, InfestEntityController<?>> CONTROLLER_MAP;
+    private final FeaturesCache FEATURES_CACHE;
+    private final MenuCatalog MENU_CATALOG;
+    private final MenuPriceHistory MENU_PRICES;
+    private final OrderFactStore ORDER_FACTS;
+    private final TopSellerTracker TOP_SELLERS;
+    private final SalesRollup SALES_ROLLUP;
+    private final OrderIngestor ORDER_INGESTOR;
+    private final long ORDER_TIMEOUT;
+    private final SalesExporter SALES_EXPORTER;
+    private final DayCloser DAY_CLOSER;
+    private final int IMAGE_CHUNK_SIZE;
+    private final MenuThumbnailer MENU_THUMBNAILER;
     
-    private InfestEntityController entityController;
-    private Boolean isServerActive;
+    private volatile boolean isServerActive;
     
     /**
      * <h2>static method <code>getInstance()</code></h2>
@@ -92,30 +122,89 @@ public final class ProtocolServer extends UnicastRemoteObject implements IProtoc
      *                         exceptions that may occur during the execution
      *                         of a remote method call.
      */
-    public static ProtocolServer getInstance() throws RemoteException {
+    public static synchronized ProtocolServer getInstance() throws RemoteException {
         if(INSTANCE == null) INSTANCE = new ProtocolServer();
         return INSTANCE;
     }
     
     private ProtocolServer() throws RemoteException {
+        // Every controller shares the EntityManagerFactory of the persistence
+        // unit, so any of them opens an EntityManager usable for a
+        // transaction spanning several rows or entities.
+        this(42700, InfestPersistence::getControllerInstance, () -> ((FeaturesController) InfestPersistence.getControllerInstance(InfestPersistence.Entity.FEATURES)).getEntityManager());
+    }
+    
+    /**
+     * <h2>constructor <code>ProtocolServer()</code></h2>
+     * <p>Create a server on its own registry port, reading and writing its 
+     * entities through the given persistence layer instead of the Infest 
+     * persistence unit. It is used by the harnesses in the test root to run 
+     * the server against an in-memory persistence layer; the application 
+     * always uses <code>ProtocolServer.getInstance()</code>.</p>
+     * 
+     * @param servicePort           Port of the RMI registry of the server.
+     * @param controllerFactory     Gives the controller of every entity.
+     * @param entityManagerSupplier Opens an <code>EntityManager</code> for a 
+     *                              transaction spanning several rows or 
+     *                              entities.
+     * @throws RemoteException A <code>RemoteException</code> is the common 
+     *                         superclass for a number of communication-related
+     *                         exceptions that may occur during the execution
+     *                         of a remote method call.
+     */
+    protected ProtocolServer(int servicePort, Function<InfestPersistence.Entity, InfestEntityController<?>> controllerFactory, Supplier<EntityManager> entityManagerSupplier) throws RemoteException {
         super();
+        CONTROLLER_FACTORY = controllerFactory;
+        ENTITY_MANAGER_SUPPLIER = entityManagerSupplier;
         SESSION_BYTE = new byte[32];
-        SERVICE_PORT = 42700;
+        SERVICE_PORT = servicePort;
         REGISTRY_NAME = "InfestAPIServer";
         REGISTRY = LocateRegistry.createRegistry(SERVICE_PORT);
         SECURE_RANDOM = new SecureRandom();
-        CLIENT_LIST = new ArrayList<IProtocolClient>();
+        METRICS = new ProtocolMetrics();
+        CONTROLLER_MAP = new ConcurrentHashMap<InfestPersistence.Entity, InfestEntityController<?>>();
+        FEATURES_CACHE = new FeaturesCache(this.<Features>getTypedController(InfestPersistence.Entity.FEATURES));
+        MENU_CATALOG = new MenuCatalog(this.<Menus>getTypedController(InfestPersistence.Entity.MENUS));
+        MENU_PRICES = new MenuPriceHistory(new File("report", "menu.prices"), this::setStatus);
+        ORDER_FACTS = new OrderFactStore(this::createEntityManager, MENU_CATALOG, MENU_PRICES, METRICS, getIntegerProperty("orderfactpagesize", 10000));
+        TOP_SELLERS = new TopSellerTracker(ORDER_FACTS, MENU_CATALOG, getIntegerProperty("topsellercapacity", 64));
+        SALES_ROLLUP = new SalesRollup(ORDER_FACTS, TOP_SELLERS, MENU_PRICES);
+        SESSION_REGISTRY = new ProtocolSessionRegistry(
+                getIntegerProperty("sessionmaximumsize", 1024),
+                getIntegerProperty("sessionidletimeout", 30) * 60000L,
+                getIntegerProperty("sessionabsolutetimeout", 1440) * 60000L,
+                60000L);
         isServerActive = false;
-        file = new File("log\\ProtocolServer.log");
         File directory = new File("log");
         if (!directory.exists()) {
             directory.mkdir();
         }
+        file = new File(directory, "ProtocolServer.log");
         try {
             file.createNewFile();
         } catch (IOException ex) {
-            System.err.println("[INFEST] " + DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss.SSS").format(LocalDateTime.now()) + ": " + ex.getLocalizedMessage());
+            System.err.println("[INFEST] " + ProtocolLogger.TIMESTAMP_FORMATTER.format(LocalDateTime.now()) + ": " + ex.getLocalizedMessage());
         }
+        LOGGER = new ProtocolLogger(file,
+                getIntegerProperty("logqueuecapacity", 8192),
+                getLogOverflowPolicy(),
+                getIntegerProperty("logmaximumsize", 10) * 1048576L,
+                getIntegerProperty("logretention", 30));
+        DAY_CLOSER = new DayCloser(new File("report"), this::buildFinanceReport, SALES_ROLLUP, TOP_SELLERS, this::setStatus,
+                getDayCloseTime(),
+                getIntegerProperty("daytopsellerlimit", 10));
+        ORDER_INGESTOR = new OrderIngestor(this::createEntityManager, MENU_CATALOG, SALES_ROLLUP, DAY_CLOSER, METRICS, this::setStatus,
+                getIntegerProperty("orderqueuecapacity", 4096),
+                getIntegerProperty("orderbatchsize", 64),
+                getIntegerProperty("orderreceiptretention", 10) * 60000L);
+        ORDER_TIMEOUT = getIntegerProperty("ordertimeout", 30) * 1000L;
+        SALES_EXPORTER = new SalesExporter(this::createEntityManager, MENU_CATALOG, SALES_ROLLUP, METRICS,
+                getIntegerProperty("exportchunkrows", 1000),
+                getIntegerProperty("exportidletimeout", 10) * 60000L);
+        IMAGE_CHUNK_SIZE = getIntegerProperty("imagechunksize", 65536);
+        MENU_THUMBNAILER = new MenuThumbnailer(new File("thumbnail"), MENU_CATALOG, this::setStatus,
+                getIntegerProperty("thumbnailmaximumsize", 512),
+                getIntegerProperty("thumbnailquality", 80) / 100f);
         initiateServer();
     }
     
@@ -124,20 +213,31 @@ public final class ProtocolServer extends UnicastRemoteObject implements IProtoc
         SECURE_RANDOM.nextBytes(SESSION_BYTE);
         setStatus("Current INSTANCE_HASH: " + Arrays.toString(SESSION_BYTE));
         setStatus("Loading Eclipse Link persistence unit connection the Infest Database...");
-        InfestPersistence.getControllerInstance(InfestPersistence.Entity.FEATURES).readAll();
+        FEATURES_CACHE.reload();
+        MENU_CATALOG.reload();
+        MENU_PRICES.record(MENU_CATALOG.readAll());
+        SALES_ROLLUP.rebuild();
+        DAY_CLOSER.start();
         setStatus("Eclipse Link persistence unit loaded.");
         setStatus("Infest API Server has been reserved on " + SERVICE_PORT + ".");
     }
 
+    private InfestEntityController<?> getController(InfestPersistence.Entity entity) {
+        return CONTROLLER_MAP.computeIfAbsent(entity, (key) -> new TimedEntityController<>(CONTROLLER_FACTORY.apply(key), METRICS));
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> InfestEntityController<T> getTypedController(InfestPersistence.Entity entity) {
+        // The caller names the entity class matching the entity.
+        return (InfestEntityController<T>) getController(entity);
+    }
+    
+    private EntityManager createEntityManager() {
+        return ENTITY_MANAGER_SUPPLIER.get();
+    }
+    
     private void setStatus(String status) {
-        String toWrite = "[INFEST] " + DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss.SSS").format(LocalDateTime.now()) + ": " + status;
-        System.out.println(toWrite);
-        try (FileWriter writer = new FileWriter(file, true)) {
-            writer.write(toWrite);
-            writer.flush();
-        }catch (SecurityException | IOException ex) {
-            System.err.println("[INFEST] " + DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss.SSS").format(LocalDateTime.now()) + ": " + ex.getLocalizedMessage());
-        } 
+        LOGGER.log(status);
     }
     
     /**
@@ -147,7 +247,7 @@ public final class ProtocolServer extends UnicastRemoteObject implements IProtoc
      */
     public void start() {
         this.isServerActive = true;
-        if(this.isServerActive) setStatus("Infest API Server is now listening to client requests.");
+        setStatus("Infest API Server is now listening to client requests.");
     }
     
     /**
@@ -157,7 +257,7 @@ public final class ProtocolServer extends UnicastRemoteObject implements IProtoc
      */
     public void stop() {
         this.isServerActive = false;
-        if(!this.isServerActive) setStatus("Infest API Server has stoped listening to client requests.");
+        setStatus("Infest API Server has stoped listening to client requests.");
     }
     
     /**
@@ -171,6 +271,30 @@ public final class ProtocolServer extends UnicastRemoteObject implements IProtoc
         return this.isServerActive;
     }
     
+    /**
+     * <h2>method <code>getMetrics()</code></h2>
+     * <p>Method <code>getMetrics()</code> is used to get the per-method 
+     * performance figures of the <code>ProtocolServer</code>. Use
+     * <code>ProtocolMetrics.snapshot()</code> to read them.</p>
+     * 
+     * @return <code>ProtocolMetrics</code> of this server.
+     */
+    public ProtocolMetrics getMetrics() {
+        return this.METRICS;
+    }
+    
+    /**
+     * <h2>method <code>getSessionCounts()</code></h2>
+     * <p>Method <code>getSessionCounts()</code> is used to get the number of
+     * client sessions currently open on the <code>ProtocolServer</code>, for
+     * every <code>IProtocolClient.Type</code>.</p>
+     * 
+     * @return Number of open sessions by client type.
+     */
+    public Map<IProtocolClient.Type, Integer> getSessionCounts() {
+        return SESSION_REGISTRY.countByType();
+    }
+    
     /**
      * <h2>method <code>authenticate()</code></h2>
      * <p>Method <code>authenticate</code> is used to authenticating a 
@@ -188,17 +312,47 @@ public final class ProtocolServer extends UnicastRemoteObject implements IProtoc
      */
     @Override
     public Integer authenticate(IProtocolClient client) throws java.rmi.RemoteException {
-        setStatus("authenticate(): A/An " + client.getType().name() + " client is requesting this method. Server is trying to authenticating this client.");
-        Boolean isVerified = ProtocolSecurity.isVerified(client);
+        final long startedAt = System.nanoTime();
+        IProtocolClient.Type type = client.getType();
+        setStatus("authenticate(): A/An " + type.name() + " client is requesting this method. Server is trying to authenticating this client.");
+        Boolean isVerified = ProtocolSecurity.isVerified(type, client.getSecurityNumber());
+        Integer token = isVerified ? openSession(client, type).getToken() : -1;
         client.setServerSession(isVerified ? SESSION_BYTE : new byte[0x0]);
-        client.setClientSession(isVerified ? CLIENT_LIST.size() : -1);
-        CLIENT_LIST.add(client);
-        setStatus("authenticate(): Authentication process of " + client.getType().name() + " client is " + (isVerified ? "SUCCESSFUL" : "FAILED") + ".");
-        return client.getClientSession();
+        client.setClientSession(token);
+        setStatus("authenticate(): Authentication process of " + type.name() + " client is " + (isVerified ? "SUCCESSFUL" : "FAILED") + ".");
+        METRICS.record("authenticate", startedAt);
+        return token;
+    }
+    
+    private ProtocolSession openSession(IProtocolClient client, IProtocolClient.Type type) {
+        ProtocolSession session = SESSION_REGISTRY.open(client, type);
+        setStatus("authenticate(): " + SESSION_REGISTRY.size() + " client session(s) are currently open.");
+        return session;
+    }
+    
+    private ProtocolSession getSession(IProtocolClient client) {
+        return SESSION_REGISTRY.get(client);
     }
     
     private Boolean isClientAuthenticated(IProtocolClient client) throws java.rmi.RemoteException {
-        return ( isServerActive() && client.equals(CLIENT_LIST.get(client.getClientSession())) );
+        return ( isServerActive() && getSession(client) != null );
+    }
+    
+    private IProtocolClient.Type getClientType(IProtocolClient client) throws java.rmi.RemoteException {
+        ProtocolSession session = getSession(client);
+        return (session != null) ? session.getType() : client.getType();
+    }
+    
+    private void denyUnauthenticated(String method, IProtocolClient client) throws java.rmi.RemoteException {
+        IProtocolClient.Type type = client.getType();
+        METRICS.recordDenial(method, type);
+        setStatus(method + "(): Server denied request from an UN-AUTHENTICATED " + type.name() + " client.");
+    }
+    
+    private void denyUnauthorized(String method, IProtocolClient client) throws java.rmi.RemoteException {
+        IProtocolClient.Type type = getClientType(client);
+        METRICS.recordDenial(method, type);
+        setStatus(method + "(): Server denied request from a/an " + type.name() + " client. This client type IS NOT PERMITTED to request this method.");
     }
     
     /**
@@ -225,6 +379,8 @@ public final class ProtocolServer extends UnicastRemoteObject implements IProtoc
     @Deprecated
     @Override
     public IProtocolClient login(IProtocolClient client) throws RemoteException {
+        final long startedAt = System.nanoTime();
+        METRICS.record("login", startedAt);
         return client;
     }
 
@@ -244,33 +400,41 @@ public final class ProtocolServer extends UnicastRemoteObject implements IProtoc
      */
     @Override
     public Carts createCart(IProtocolClient client, Carts cart) throws RemoteException {
+        final long startedAt = System.nanoTime();
         if(isClientAuthenticated(client)) {
-            entityController = InfestPersistence.getControllerInstance(InfestPersistence.Entity.CARTS);
-            switch(client.getType()) {
+            InfestEntityController<Carts> entityController = this.<Carts>getTypedController(InfestPersistence.Entity.CARTS);
+            switch(getClientType(client)) {
                 case CUSTOMER:
-                    setStatus("createCart(): A/An " + client.getType().name() + " client is requesting this method. Server is now serving the client.");
+                    setStatus("createCart(): A/An " + getClientType(client).name() + " client is requesting this method. Server is now serving the client.");
                     entityController.create(cart);
                     break;
                 default:
-                    setStatus("createCart(): Server denied request from a/an " + client.getType().name() + " client. This client type IS NOT PERMITTED to request this method.");
+                    denyUnauthorized("createCart", client);
                     cart = null;
                     break;
             }
         } else {
-            setStatus("createCart(): Server denied request from an UN-AUTHENTICATED " + client.getType().name() + " client.");
+            denyUnauthenticated("createCart", client);
             cart = null;
         }
+        METRICS.record("createCart", startedAt);
         return cart;
     }
 
     /**
      * <h2>method <code>createOrder()</code></h2>
      * <p>Method <code>createOrder</code> is used to create a new 
-     * <code>Orders</code> entity based on the <code>Orders</code> object.</p>
+     * <code>Orders</code> entity based on the <code>Orders</code> object.
+     * The order is inserted and the stock of its menu is decremented in one
+     * transaction, shared with every other order pending at that time. An 
+     * order whose total exceeds the remaining stock is rejected. This method
+     * returns once the order is committed, or after the order timeout of the
+     * server.</p>
      * 
      * @param client <code>IProtocolClient</code> object to execute this method.
      * @param order  <code>Orders</code> object to be created.
-     * @return Infest entity with ID inside.
+     * @return Infest entity with ID inside, or <code>null</code> if the order
+     *         was rejected or not committed within the order timeout.
      * @throws java.rmi.RemoteException A <code>RemoteException</code> is the
      *                                  common superclass for a number of
      *                                  communication-related exceptions that
@@ -279,37 +443,220 @@ public final class ProtocolServer extends UnicastRemoteObject implements IProtoc
      */
     @Override
     public Orders createOrder(IProtocolClient client, Orders order) throws RemoteException {
+        final long startedAt = System.nanoTime();
         if(isClientAuthenticated(client)) {
-            entityController = InfestPersistence.getControllerInstance(InfestPersistence.Entity.ORDERS);
-            switch(client.getType()) {
+            switch(getClientType(client)) {
                 case CUSTOMER:
-                    setStatus("createOrder(): A/An " + client.getType().name() + " client is requesting this method. Server is now serving the client.");
-                    entityController.create(order);
-                    entityController = InfestPersistence.getControllerInstance(InfestPersistence.Entity.MENUS);
-                    Menus menu = (Menus) entityController.read(order.getIdmenu().getId());
-                    int newStock = menu.getStock() - order.getTotal();
-                    setStatus("createOrder(): Menu update trigered with new stock (old: " + menu.getStock() + ", new: " + newStock + ").");
-                    menu.setStock(newStock);
+                    setStatus("createOrder(): A/An " + getClientType(client).name() + " client is requesting this method. Server is now serving the client.");
                     try {
-                        entityController.update(menu);
-                    } catch (NonexistentEntityException ex) {
-                        Logger.getLogger(ProtocolServer.class.getName()).log(Level.SEVERE, null, ex);
-                    } catch (Exception ex) {
-                        Logger.getLogger(ProtocolServer.class.getName()).log(Level.SEVERE, null, ex);
+                        // The order is written by the ingestion stage in a
+                        // batch with every other order pending at that time;
+                        // the call returns once that batch is committed.
+                        OrderReceipt receipt = ORDER_INGESTOR.submit(order, ORDER_TIMEOUT);
+                        if(receipt.getStatus() == OrderReceipt.Status.COMMITTED) {
+                            order = receipt.getOrder();
+                        } else if(receipt.getStatus() == OrderReceipt.Status.QUEUED) {
+                            setStatus("createOrder(): Order " + receipt.getTicket() + " was still being written after " + ORDER_TIMEOUT + " ms, it may yet be committed.");
+                            order = null;
+                        } else {
+                            setStatus("createOrder(): Order rejected, it has no menu, a non-positive total, or not enough stock.");
+                            order = null;
+                        }
+                    } catch (InterruptedException ex) {
+                        Thread.currentThread().interrupt();
+                        order = null;
+                    } catch (ExecutionException ex) {
+                        setStatus("createOrder(): " + getClientType(client).name() + " client on request: Caught an exception.");
+                        Logger.getLogger(ProtocolServer.class.getName()).log(Level.SEVERE, "Caught an exception.", ex);
+                        order = null;
                     }
                     break;
                 default:
-                    setStatus("createOrder(): UNAUTHORIZED client is requesting this method. Server denied the request.");
+                    denyUnauthorized("createOrder", client);
                     order = null;
                     break;
             }
         } else {
-            setStatus("createOrder(): Server denied request from an UN-AUTHENTICATED " + client.getType().name() + " client.");
+            denyUnauthenticated("createOrder", client);
             order = null;
         }
+        METRICS.record("createOrder", startedAt);
         return order;
     }
 
+    /**
+     * <h2>method <code>submitOrder()</code></h2>
+     * <p>Method <code>submitOrder</code> is used to queue a new 
+     * <code>Orders</code> entity without waiting for it to be written. The
+     * returned <code>OrderReceipt</code> carries a ticket to be passed to
+     * <code>readOrderReceipt</code>; the order is safe once its receipt 
+     * reports <code>COMMITTED</code>. An order is rejected at once when the
+     * ingestion queue is full.</p>
+     * 
+     * @param client <code>IProtocolClient</code> object to execute this method.
+     * @param order  <code>Orders</code> object to be created.
+     * @return Result of client object.
+     * @throws java.rmi.RemoteException A <code>RemoteException</code> is the
+     *                                  common superclass for a number of
+     *                                  communication-related exceptions that
+     *                                  may occur during the execution of a
+     *                                  remote method call.
+     */
+    @Override
+    public OrderReceipt submitOrder(IProtocolClient client, Orders order) throws RemoteException {
+        final long startedAt = System.nanoTime();
+        OrderReceipt receipt = null;
+        if(isClientAuthenticated(client)) {
+            switch(getClientType(client)) {
+                case CUSTOMER:
+                    setStatus("submitOrder(): A/An " + getClientType(client).name() + " client is requesting this method. Server is now serving the client.");
+                    receipt = ORDER_INGESTOR.offer(client, order);
+                    break;
+                default:
+                    denyUnauthorized("submitOrder", client);
+                    break;
+            }
+        } else {
+            denyUnauthenticated("submitOrder", client);
+        }
+        METRICS.record("submitOrder", startedAt);
+        return receipt;
+    }
+
+    /**
+     * <h2>method <code>readOrderReceipt()</code></h2>
+     * <p>Method <code>readOrderReceipt</code> is used to read the current 
+     * <code>OrderReceipt</code> of an order queued with 
+     * <code>submitOrder</code> by the same client.</p>
+     * 
+     * @param client <code>IProtocolClient</code> object to execute this method.
+     * @param ticket Ticket of the <code>OrderReceipt</code> returned by 
+     *               <code>submitOrder</code>.
+     * @return Result of client object.
+     * @throws java.rmi.RemoteException A <code>RemoteException</code> is the
+     *                                  common superclass for a number of
+     *                                  communication-related exceptions that
+     *                                  may occur during the execution of a
+     *                                  remote method call.
+     */
+    @Override
+    public OrderReceipt readOrderReceipt(IProtocolClient client, Long ticket) throws RemoteException {
+        final long startedAt = System.nanoTime();
+        OrderReceipt receipt = null;
+        if(isClientAuthenticated(client)) {
+            switch(getClientType(client)) {
+                case CUSTOMER:
+                    receipt = ORDER_INGESTOR.getReceipt(client, ticket);
+                    break;
+                default:
+                    denyUnauthorized("readOrderReceipt", client);
+                    break;
+            }
+        } else {
+            denyUnauthenticated("readOrderReceipt", client);
+        }
+        METRICS.record("readOrderReceipt", startedAt);
+        return receipt;
+    }
+
+    /**
+     * <h2>method <code>createCartWithOrders()</code></h2>
+     * <p>Method <code>createCartWithOrders</code> is used to create a new 
+     * <code>Carts</code> entity together with all of its <code>Orders</code>
+     * entities in one transaction, decrementing the stock of every ordered 
+     * menu. When any order has no menu, a non-positive total, or a total 
+     * exceeding the remaining stock, nothing is created.</p>
+     * 
+     * @param client <code>IProtocolClient</code> object to execute this method.
+     * @param cart   <code>Carts</code> object to be created.
+     * @param orders <code>Orders</code> objects of the cart to be created.
+     * @return Infest entity with ID inside and its created orders, or 
+     *         <code>null</code> if the cart was rejected.
+     * @throws java.rmi.RemoteException A <code>RemoteException</code> is the
+     *                                  common superclass for a number of
+     *                                  communication-related exceptions that
+     *                                  may occur during the execution of a
+     *                                  remote method call.
+     */
+    @Override
+    public Carts createCartWithOrders(IProtocolClient client, Carts cart, List<Orders> orders) throws RemoteException {
+        final long startedAt = System.nanoTime();
+        if(isClientAuthenticated(client)) {
+            switch(getClientType(client)) {
+                case CUSTOMER:
+                    setStatus("createCartWithOrders(): A/An " + getClientType(client).name() + " client is requesting this method. Server is now serving the client.");
+                    if(cart == null || orders == null || orders.isEmpty()) {
+                        setStatus("createCartWithOrders(): Cart rejected, it has no orders.");
+                        cart = null;
+                        break;
+                    }
+                    Set<Integer> menuIds = new HashSet<Integer>();
+                    Map<Integer, long[]> stocks = null;
+                    final long transactionStartedAt = System.nanoTime();
+                    Lock rollupLock = SALES_ROLLUP.getUpdateLock();
+                    rollupLock.lock();
+                    try {
+                        EntityManager entityManager = null;
+                        try {
+                            entityManager = createEntityManager();
+                            entityManager.getTransaction().begin();
+                            entityManager.persist(cart);
+                            for(Orders order : orders) {
+                                Integer menuId = (order.getIdmenu() != null) ? order.getIdmenu().getId() : null;
+                                if(menuId == null || order.getTotal() <= 0 || !OrderIngestor.decrementStock(entityManager, menuId, order.getTotal())) {
+                                    setStatus("createCartWithOrders(): Cart rejected, an order of menu " + menuId + " is invalid or has not enough stock.");
+                                    cart = null;
+                                    break;
+                                }
+                                order.setIdcart(cart);
+                                entityManager.persist(order);
+                                menuIds.add(menuId);
+                            }
+                            if(cart != null) {
+                                stocks = OrderIngestor.readStocks(entityManager, menuIds, MENU_CATALOG);
+                                entityManager.getTransaction().commit();
+                            }
+                        } catch (RuntimeException ex) {
+                            setStatus("createCartWithOrders(): " + getClientType(client).name() + " client on request: Caught an exception.");
+                            Logger.getLogger(ProtocolServer.class.getName()).log(Level.SEVERE, "Caught an exception.", ex);
+                            cart = null;
+                        } finally {
+                            if(entityManager != null) {
+                                if(entityManager.getTransaction().isActive()) entityManager.getTransaction().rollback();
+                                entityManager.close();
+                            }
+                            METRICS.recordDatabase(transactionStartedAt);
+                        }
+                        if(cart != null) {
+                            // The cart is committed from here on, so a failure
+                            // to update the caches must not reject it.
+                            cart.setOrdersList(new ArrayList<Orders>(orders));
+                            try {
+                                for(Orders order : orders) DAY_CLOSER.recloseLater(SALES_ROLLUP.record(order));
+                                stocks.forEach((menuId, stock) -> MENU_CATALOG.publishStock(menuId, (int) stock[0], stock[1]));
+                            } catch (RuntimeException ex) {
+                                setStatus("createCartWithOrders(): Cart " + cart.getId() + " created, but caught an exception while updating the caches.");
+                                Logger.getLogger(ProtocolServer.class.getName()).log(Level.SEVERE, "Caught an exception.", ex);
+                            }
+                            setStatus("createCartWithOrders(): Cart " + cart.getId() + " created with " + orders.size() + " orders.");
+                        }
+                    } finally {
+                        rollupLock.unlock();
+                    }
+                    break;
+                default:
+                    denyUnauthorized("createCartWithOrders", client);
+                    cart = null;
+                    break;
+            }
+        } else {
+            denyUnauthenticated("createCartWithOrders", client);
+            cart = null;
+        }
+        METRICS.record("createCartWithOrders", startedAt);
+        return cart;
+    }
+
     /**
      * <h2>method <code>createMenu()</code></h2>
      * <p>Method <code>createMenu</code> is used to create a new 
@@ -326,22 +673,26 @@ public final class ProtocolServer extends UnicastRemoteObject implements IProtoc
      */
     @Override
     public Menus createMenu(IProtocolClient client, Menus menu) throws RemoteException {
+        final long startedAt = System.nanoTime();
         if(isClientAuthenticated(client)) {
-            entityController = InfestPersistence.getControllerInstance(InfestPersistence.Entity.MENUS);
-            switch(client.getType()) {
+            InfestEntityController<Menus> entityController = this.<Menus>getTypedController(InfestPersistence.Entity.MENUS);
+            switch(getClientType(client)) {
                 case OPERATOR:
-                    setStatus("createMenu(): A/An " + client.getType().name() + " client is requesting this method. Server is now serving the client.");
+                    setStatus("createMenu(): A/An " + getClientType(client).name() + " client is requesting this method. Server is now serving the client.");
                     entityController.create(menu);
+                    MENU_CATALOG.refresh(menu.getId());
+                    recordPrice(menu.getId());
                     break;
                 default:
-                    setStatus("createMenu(): Server denied request from a/an " + client.getType().name() + " client. This client type IS NOT PERMITTED to request this method.");
+                    denyUnauthorized("createMenu", client);
                     menu = null;
                     break;
             }
         } else {
-            setStatus("createMenu(): Server denied request from an UN-AUTHENTICATED " + client.getType().name() + " client.");
+            denyUnauthenticated("createMenu", client);
             menu = null;
         }
+        METRICS.record("createMenu", startedAt);
         return menu;
     }
 
@@ -361,22 +712,24 @@ public final class ProtocolServer extends UnicastRemoteObject implements IProtoc
      */
     @Override
     public Tables createTable(IProtocolClient client, Tables table) throws RemoteException {
+        final long startedAt = System.nanoTime();
         if(isClientAuthenticated(client)) {
-            entityController = InfestPersistence.getControllerInstance(InfestPersistence.Entity.TABLES);
-            switch(client.getType()) {
+            InfestEntityController<Tables> entityController = this.<Tables>getTypedController(InfestPersistence.Entity.TABLES);
+            switch(getClientType(client)) {
                 case OPERATOR:
-                    setStatus("createTable(): A/An " + client.getType().name() + " client is requesting this method. Server is now serving the client.");
+                    setStatus("createTable(): A/An " + getClientType(client).name() + " client is requesting this method. Server is now serving the client.");
                     entityController.create(table);
                     break;
                 default:
-                    setStatus("createTable(): Server denied request from a/an " + client.getType().name() + " client. This client type IS NOT PERMITTED to request this method.");
+                    denyUnauthorized("createTable", client);
                     table = null;
                     break;
             }
         } else {
-            setStatus("createTable(): Server denied request from an UN-AUTHENTICATED " + client.getType().name() + " client.");
+            denyUnauthenticated("createTable", client);
             table = null;
         }
+        METRICS.record("createTable", startedAt);
         return table;
     }
 
@@ -399,23 +752,25 @@ public final class ProtocolServer extends UnicastRemoteObject implements IProtoc
      */
     @Override
     public Carts readCart(IProtocolClient client, Integer id) throws RemoteException {
+        final long startedAt = System.nanoTime();
         Carts cart = new Carts();
         if(isClientAuthenticated(client)) {
-            entityController = InfestPersistence.getControllerInstance(InfestPersistence.Entity.CARTS);
-            switch(client.getType()) {
+            InfestEntityController<Carts> entityController = this.<Carts>getTypedController(InfestPersistence.Entity.CARTS);
+            switch(getClientType(client)) {
                 case CUSTOMER:
-                    setStatus("readCart(): A/An " + client.getType().name() + " client is requesting this method. Server is now serving the client.");
-                    cart = (Carts) entityController.read(id);
+                    setStatus("readCart(): A/An " + getClientType(client).name() + " client is requesting this method. Server is now serving the client.");
+                    cart = entityController.read(id);
                     break;
                 default:
-                    setStatus("readCart(): Server denied request from a/an " + client.getType().name() + " client. This client type IS NOT PERMITTED to request this method.");
+                    denyUnauthorized("readCart", client);
                     cart = null;
                     break;
             }
         } else {
-            setStatus("readCart(): Server denied request from an UN-AUTHENTICATED " + client.getType().name() + " client.");
+            denyUnauthenticated("readCart", client);
             cart = null;
         }
+        METRICS.record("readCart", startedAt);
         return cart;
     }
 
@@ -438,31 +793,32 @@ public final class ProtocolServer extends UnicastRemoteObject implements IProtoc
      */
     @Override
     public Features readFeature(IProtocolClient client, Integer id) throws RemoteException {
+        final long startedAt = System.nanoTime();
         Features feature = new Features();
         if(isClientAuthenticated(client)) {
-            entityController = InfestPersistence.getControllerInstance(InfestPersistence.Entity.FEATURES);
-            switch(client.getType()) {
+            switch(getClientType(client)) {
                 case ADMINISTRATOR:
-                    setStatus("readFeatures(): A/An " + client.getType().name() + " client is requesting this method. Server is now serving the client.");
-                    feature = (Features) entityController.read(id);
+                    setStatus("readFeature(): A/An " + getClientType(client).name() + " client is requesting this method. Server is now serving the client.");
+                    feature = FEATURES_CACHE.read(id);
                     break;
                 case OPERATOR:
-                    setStatus("readFeatures(): A/An " + client.getType().name() + " client is requesting this method. Server is now serving the client.");
-                    feature = (Features) entityController.read(id);
+                    setStatus("readFeature(): A/An " + getClientType(client).name() + " client is requesting this method. Server is now serving the client.");
+                    feature = FEATURES_CACHE.read(id);
                     break;
                 case CUSTOMER:
-                    setStatus("readFeatures(): A/An " + client.getType().name() + " client is requesting this method. Server is now serving the client.");
-                    feature = (Features) entityController.read(id);
+                    setStatus("readFeature(): A/An " + getClientType(client).name() + " client is requesting this method. Server is now serving the client.");
+                    feature = FEATURES_CACHE.read(id);
                     break;
                 default:
-                    setStatus("readFeatures(): Server denied request from a/an " + client.getType().name() + " client. This client type IS NOT PERMITTED to request this method.");
+                    denyUnauthorized("readFeature", client);
                     feature = null;
                     break;
             }
         } else {
-            setStatus("readFeatures(): Server denied request from an UN-AUTHENTICATED " + client.getType().name() + " client.");
+            denyUnauthenticated("readFeature", client);
             feature = null;
         }
+        METRICS.record("readFeature", startedAt);
         return feature;
     }
   
@@ -485,27 +841,28 @@ public final class ProtocolServer extends UnicastRemoteObject implements IProtoc
      */
     @Override
     public Menus readMenu(IProtocolClient client, Integer id) throws RemoteException {
+        final long startedAt = System.nanoTime();
         Menus menu = new Menus();
         if(isClientAuthenticated(client)) {
-            entityController = InfestPersistence.getControllerInstance(InfestPersistence.Entity.MENUS);
-            switch(client.getType()) {
+            switch(getClientType(client)) {
                 case OPERATOR:
-                    setStatus("readMenu(): A/An " + client.getType().name() + " client is requesting this method. Server is now serving the client.");
-                    menu = (Menus) entityController.read(id);
+                    setStatus("readMenu(): A/An " + getClientType(client).name() + " client is requesting this method. Server is now serving the client.");
+                    menu = MENU_CATALOG.read(id);
                     break;
                 case CUSTOMER:
-                    setStatus("readMenu(): A/An " + client.getType().name() + " client is requesting this method. Server is now serving the client.");
-                    menu = (Menus) entityController.read(id);
+                    setStatus("readMenu(): A/An " + getClientType(client).name() + " client is requesting this method. Server is now serving the client.");
+                    menu = MENU_CATALOG.read(id);
                     break;
                 default:
-                    setStatus("readMenu(): Server denied request from a/an " + client.getType().name() + " client. This client type IS NOT PERMITTED to request this method.");
+                    denyUnauthorized("readMenu", client);
                     menu = null;
                     break;
             }
         } else {
-            setStatus("readMenu(): Server denied request from an UN-AUTHENTICATED " + client.getType().name() + " client.");
+            denyUnauthenticated("readMenu", client);
             menu = null;
         }
+        METRICS.record("readMenu", startedAt);
         return menu;
     }
 
@@ -528,23 +885,25 @@ public final class ProtocolServer extends UnicastRemoteObject implements IProtoc
      */
     @Override
     public Orders readOrder(IProtocolClient client, Integer id) throws RemoteException {
+        final long startedAt = System.nanoTime();
         Orders order = new Orders();
         if(isClientAuthenticated(client)) {
-            entityController = InfestPersistence.getControllerInstance(InfestPersistence.Entity.ORDERS);
-            switch(client.getType()) {
+            InfestEntityController<Orders> entityController = this.<Orders>getTypedController(InfestPersistence.Entity.ORDERS);
+            switch(getClientType(client)) {
                 case OPERATOR:
-                    setStatus("createOrder(): A/An " + client.getType().name() + " client is requesting this method. Server is now serving the client.");
-                    order = (Orders) entityController.read(id);
+                    setStatus("readOrder(): A/An " + getClientType(client).name() + " client is requesting this method. Server is now serving the client.");
+                    order = entityController.read(id);
                     break;
                 default:
-                    setStatus("readOrder(): Server denied request from a/an " + client.getType().name() + " client. This client type IS NOT PERMITTED to request this method.");
+                    denyUnauthorized("readOrder", client);
                     order = null;
                     break;
             }
         } else {
-            setStatus("readOrder(): Server denied request from an UN-AUTHENTICATED " + client.getType().name() + " client.");
+            denyUnauthenticated("readOrder", client);
             order = null;
         }
+        METRICS.record("readOrder", startedAt);
         return order;
     }
 
@@ -567,27 +926,29 @@ public final class ProtocolServer extends UnicastRemoteObject implements IProtoc
      */
     @Override
     public Tables readTable(IProtocolClient client, Integer id) throws RemoteException {
+        final long startedAt = System.nanoTime();
         Tables table = new Tables();
         if(isClientAuthenticated(client)) {
-            entityController = InfestPersistence.getControllerInstance(InfestPersistence.Entity.TABLES);
-            switch(client.getType()) {
+            InfestEntityController<Tables> entityController = this.<Tables>getTypedController(InfestPersistence.Entity.TABLES);
+            switch(getClientType(client)) {
                 case OPERATOR:
-                    setStatus("readTable(): A/An " + client.getType().name() + " client is requesting this method. Server is now serving the client.");
-                    table = (Tables) entityController.read(id);
+                    setStatus("readTable(): A/An " + getClientType(client).name() + " client is requesting this method. Server is now serving the client.");
+                    table = entityController.read(id);
                     break;
                 case CUSTOMER:
-                    setStatus("readTable(): A/An " + client.getType().name() + " client is requesting this method. Server is now serving the client.");
-                    table = (Tables) entityController.read(id);
+                    setStatus("readTable(): A/An " + getClientType(client).name() + " client is requesting this method. Server is now serving the client.");
+                    table = entityController.read(id);
                     break;
                 default:
-                    setStatus("readTable(): Server denied request from a/an " + client.getType().name() + " client. This client type IS NOT PERMITTED to request this method.");
+                    denyUnauthorized("readTable", client);
                     table = null;
                     break;
             }
         } else {
-            setStatus("readTable(): Server denied request from an UN-AUTHENTICATED " + client.getType().name() + " client.");
+            denyUnauthenticated("readTable", client);
             table = null;
         }
+        METRICS.record("readTable", startedAt);
         return table;
     }
 
@@ -609,27 +970,29 @@ public final class ProtocolServer extends UnicastRemoteObject implements IProtoc
      */
     @Override
     public List<Carts> readAllCart(IProtocolClient client) throws RemoteException {
+        final long startedAt = System.nanoTime();
         List<Carts> carts = new ArrayList<Carts>();
         if(isClientAuthenticated(client)) {
-            entityController = InfestPersistence.getControllerInstance(InfestPersistence.Entity.CARTS);
-            switch(client.getType()) {
+            InfestEntityController<Carts> entityController = this.<Carts>getTypedController(InfestPersistence.Entity.CARTS);
+            switch(getClientType(client)) {
                 case OPERATOR:
-                    setStatus("readAllCart(): A/An " + client.getType().name() + " client is requesting this method. Server is now serving the client.");
+                    setStatus("readAllCart(): A/An " + getClientType(client).name() + " client is requesting this method. Server is now serving the client.");
                     carts = entityController.readAll();
                     break;
                 case CUSTOMER:
-                    setStatus("readAllCart(): A/An " + client.getType().name() + " client is requesting this method. Server is now serving the client.");
+                    setStatus("readAllCart(): A/An " + getClientType(client).name() + " client is requesting this method. Server is now serving the client.");
                     carts = entityController.readAll();
                     break;
                 default:
-                    setStatus("readAllCart(): Server denied request from a/an " + client.getType().name() + " client. This client type IS NOT PERMITTED to request this method.");
+                    denyUnauthorized("readAllCart", client);
                     carts = null;
                     break;
             }
         } else {
-            setStatus("readAllCart(): Server denied request from an UN-AUTHENTICATED " + client.getType().name() + " client.");
+            denyUnauthenticated("readAllCart", client);
             carts = null;
         }
+        METRICS.record("readAllCart", startedAt);
         return carts;
     }
 
@@ -651,33 +1014,74 @@ public final class ProtocolServer extends UnicastRemoteObject implements IProtoc
      */
     @Override
     public List<Features> readAllFeature(IProtocolClient client) throws RemoteException {
+        final long startedAt = System.nanoTime();
         List<Features> features = new ArrayList<Features>();
         if(isClientAuthenticated(client)) {
-            entityController = InfestPersistence.getControllerInstance(InfestPersistence.Entity.FEATURES);
-            switch(client.getType()) {
+            switch(getClientType(client)) {
                 case ADMINISTRATOR:
-                    setStatus("readAllFeatures(): A/An " + client.getType().name() + " client is requesting this method. Server is now serving the client.");
-                    features = entityController.readAll();
+                    setStatus("readAllFeature(): A/An " + getClientType(client).name() + " client is requesting this method. Server is now serving the client.");
+                    features = FEATURES_CACHE.readAll();
                     break;
                 case OPERATOR:
-                    setStatus("readAllFeatures(): A/An " + client.getType().name() + " client is requesting this method. Server is now serving the client.");
-                    features = entityController.readAll();
+                    setStatus("readAllFeature(): A/An " + getClientType(client).name() + " client is requesting this method. Server is now serving the client.");
+                    features = FEATURES_CACHE.readAll();
                     break;
                 case CUSTOMER:
-                    setStatus("readAllFeatures(): A/An " + client.getType().name() + " client is requesting this method. Server is now serving the client.");
-                    features = entityController.readAll();
+                    setStatus("readAllFeature(): A/An " + getClientType(client).name() + " client is requesting this method. Server is now serving the client.");
+                    features = FEATURES_CACHE.readAll();
                     break;
                 default:
-                    setStatus("readAllFeatures(): Server denied request from a/an " + client.getType().name() + " client. This client type IS NOT PERMITTED to request this method.");
+                    denyUnauthorized("readAllFeature", client);
                     features = null;
                     break;
             }
         } else {
-            setStatus("readAllFeatures(): Server denied request from an UN-AUTHENTICATED " + client.getType().name() + " client.");
+            denyUnauthenticated("readAllFeature", client);
             features = null;
         }
+        METRICS.record("readAllFeature", startedAt);
         return features;
     }
+    
+    /**
+     * <h2>method <code>getFeaturesVersion()</code></h2>
+     * <p>Method <code>getFeaturesVersion</code> is used to get the version of
+     * the <code>Features</code> entities. The version changes every time any
+     * feature is updated, so clients may keep the features they have read 
+     * and call <code>readAllFeature</code> again only when the version has
+     * changed. This method will return the version <b>if and only if</b> the
+     * <code>IProtocolClient.Type</code> in <code>IProtocolClient</code> object 
+     * included herein is permitted.</p>
+     * 
+     * @param client <code>IProtocolClient</code> object to execute this method.
+     * @return Result of client object.
+     * @throws java.rmi.RemoteException A <code>RemoteException</code> is the
+     *                                  common superclass for a number of
+     *                                  communication-related exceptions that
+     *                                  may occur during the execution of a
+     *                                  remote method call.
+     */
+    @Override
+    public Long getFeaturesVersion(IProtocolClient client) throws RemoteException {
+        final long startedAt = System.nanoTime();
+        Long version = null;
+        if(isClientAuthenticated(client)) {
+            switch(getClientType(client)) {
+                case ADMINISTRATOR:
+                case OPERATOR:
+                case CUSTOMER:
+                    version = FEATURES_CACHE.getVersion();
+                    break;
+                default:
+                    denyUnauthorized("getFeaturesVersion", client);
+                    break;
+            }
+        } else {
+            denyUnauthenticated("getFeaturesVersion", client);
+        }
+        METRICS.record("getFeaturesVersion", startedAt);
+        return version;
+    }
 
     /**
      * <h2>method <code>readAllMenu()</code></h2>
@@ -697,29 +1101,267 @@ public final class ProtocolServer extends UnicastRemoteObject implements IProtoc
      */
     @Override
     public List<Menus> readAllMenu(IProtocolClient client) throws RemoteException {
+        final long startedAt = System.nanoTime();
         List<Menus> menus = new ArrayList<Menus>();
         if(isClientAuthenticated(client)) {
-            entityController = InfestPersistence.getControllerInstance(InfestPersistence.Entity.MENUS);
-            switch(client.getType()) {
+            switch(getClientType(client)) {
                 case OPERATOR:
-                    setStatus("readAllMenu(): A/An " + client.getType().name() + " client is requesting this method. Server is now serving the client.");
-                    menus = entityController.readAll();
+                    setStatus("readAllMenu(): A/An " + getClientType(client).name() + " client is requesting this method. Server is now serving the client.");
+                    menus = MENU_CATALOG.readAll();
                     break;
                 case CUSTOMER:
-                    setStatus("readAllMenu(): A/An " + client.getType().name() + " client is requesting this method. Server is now serving the client.");
-                    menus = entityController.readAll();
+                    setStatus("readAllMenu(): A/An " + getClientType(client).name() + " client is requesting this method. Server is now serving the client.");
+                    menus = MENU_CATALOG.readAll();
                     break;
                 default:
-                    setStatus("readAllMenu(): Server denied request from a/an " + client.getType().name() + " client. This client type IS NOT PERMITTED to request this method.");
+                    denyUnauthorized("readAllMenu", client);
                     menus = null;
                     break;
             }
         } else {
-            setStatus("readAllMenu(): Server denied request from an UN-AUTHENTICATED " + client.getType().name() + " client.");
+            denyUnauthenticated("readAllMenu", client);
             menus = null;
         }
+        METRICS.record("readAllMenu", startedAt);
         return menus;
     }
+    
+    /**
+     * <h2>method <code>readAllMenuSummary()</code></h2>
+     * <p>Method <code>readAllMenuSummary</code> is used to read the summary of 
+     * every <code>Menus</code> entity, without its image, from the in-memory 
+     * menu catalog. This method will return <code>MenuSummary</code> objects 
+     * <b>if and only if</b> the <code>IProtocolClient.Type</code> in 
+     * <code>IProtocolClient</code> object included herein is permitted.</p>
+     * 
+     * @param client <code>IProtocolClient</code> object to execute this method.
+     * @return Result of client object.
+     * @throws java.rmi.RemoteException A <code>RemoteException</code> is the
+     *                                  common superclass for a number of
+     *                                  communication-related exceptions that
+     *                                  may occur during the execution of a
+     *                                  remote method call.
+     */
+    @Override
+    public List<MenuSummary> readAllMenuSummary(IProtocolClient client) throws RemoteException {
+        final long startedAt = System.nanoTime();
+        List<MenuSummary> summaries = null;
+        if(isClientAuthenticated(client)) {
+            switch(getClientType(client)) {
+                case OPERATOR:
+                case CUSTOMER:
+                    setStatus("readAllMenuSummary(): A/An " + getClientType(client).name() + " client is requesting this method. Server is now serving the client.");
+                    summaries = MENU_CATALOG.readAllSummaries();
+                    break;
+                default:
+                    denyUnauthorized("readAllMenuSummary", client);
+                    break;
+            }
+        } else {
+            denyUnauthenticated("readAllMenuSummary", client);
+        }
+        METRICS.record("readAllMenuSummary", startedAt);
+        return summaries;
+    }
+    
+    /**
+     * <h2>method <code>readMenuImage()</code></h2>
+     * <p>Method <code>readMenuImage</code> is used to read the image of one 
+     * <code>Menus</code> entity from the in-memory menu catalog. This method 
+     * will return the image <b>if and only if</b> the 
+     * <code>IProtocolClient.Type</code> in <code>IProtocolClient</code> object 
+     * included herein is permitted.</p>
+     * 
+     * @param client <code>IProtocolClient</code> object to execute this method.
+     * @param id     The ID of the menu.
+     * @return Result of client object.
+     * @throws java.rmi.RemoteException A <code>RemoteException</code> is the
+     *                                  common superclass for a number of
+     *                                  communication-related exceptions that
+     *                                  may occur during the execution of a
+     *                                  remote method call.
+     */
+    @Override
+    public byte[] readMenuImage(IProtocolClient client, Integer id) throws RemoteException {
+        final long startedAt = System.nanoTime();
+        byte[] image = null;
+        if(isClientAuthenticated(client)) {
+            switch(getClientType(client)) {
+                case OPERATOR:
+                case CUSTOMER:
+                    setStatus("readMenuImage(): A/An " + getClientType(client).name() + " client is requesting this method. Server is now serving the client.");
+                    image = MENU_CATALOG.readImage(id);
+                    break;
+                default:
+                    denyUnauthorized("readMenuImage", client);
+                    break;
+            }
+        } else {
+            denyUnauthenticated("readMenuImage", client);
+        }
+        METRICS.record("readMenuImage", startedAt);
+        return image;
+    }
+    
+    /**
+     * <h2>method <code>readMenuImageChunk()</code></h2>
+     * <p>Method <code>readMenuImageChunk</code> is used to read one chunk of 
+     * the image of one <code>Menus</code> entity from the in-memory menu 
+     * catalog, if the image still has the given hash. This method will return
+     * the chunk <b>if and only if</b> the <code>IProtocolClient.Type</code> in 
+     * <code>IProtocolClient</code> object included herein is permitted.</p>
+     * 
+     * @param client <code>IProtocolClient</code> object to execute this method.
+     * @param id     The ID of the menu.
+     * @param hash   Hash of the image being downloaded.
+     * @param offset Offset of the chunk in the image.
+     * @return Result of client object.
+     * @throws java.rmi.RemoteException A <code>RemoteException</code> is the
+     *                                  common superclass for a number of
+     *                                  communication-related exceptions that
+     *                                  may occur during the execution of a
+     *                                  remote method call.
+     */
+    @Override
+    public MenuImageChunk readMenuImageChunk(IProtocolClient client, Integer id, String hash, Integer offset) throws RemoteException {
+        final long startedAt = System.nanoTime();
+        MenuImageChunk chunk = null;
+        if(isClientAuthenticated(client)) {
+            switch(getClientType(client)) {
+                case OPERATOR:
+                case CUSTOMER:
+                    chunk = MENU_CATALOG.readImageChunk(id, hash, (offset == null) ? 0 : offset, IMAGE_CHUNK_SIZE);
+                    break;
+                default:
+                    denyUnauthorized("readMenuImageChunk", client);
+                    break;
+            }
+        } else {
+            denyUnauthenticated("readMenuImageChunk", client);
+        }
+        METRICS.record("readMenuImageChunk", startedAt);
+        return chunk;
+    }
+    
+    /**
+     * <h2>method <code>readMenuThumbnail()</code></h2>
+     * <p>Method <code>readMenuThumbnail</code> is used to read a thumbnail of 
+     * the image of one <code>Menus</code> entity, made once per image and size
+     * and then read from the local disk. This method will return the 
+     * thumbnail <b>if and only if</b> the <code>IProtocolClient.Type</code> in 
+     * <code>IProtocolClient</code> object included herein is permitted.</p>
+     * 
+     * @param client <code>IProtocolClient</code> object to execute this method.
+     * @param id     The ID of the menu.
+     * @param size   Length of the longer side of the thumbnail, in pixels.
+     * @return Result of client object.
+     * @throws java.rmi.RemoteException A <code>RemoteException</code> is the
+     *                                  common superclass for a number of
+     *                                  communication-related exceptions that
+     *                                  may occur during the execution of a
+     *                                  remote method call.
+     */
+    @Override
+    public byte[] readMenuThumbnail(IProtocolClient client, Integer id, Integer size) throws RemoteException {
+        final long startedAt = System.nanoTime();
+        byte[] thumbnail = null;
+        if(isClientAuthenticated(client)) {
+            switch(getClientType(client)) {
+                case OPERATOR:
+                case CUSTOMER:
+                    setStatus("readMenuThumbnail(): A/An " + getClientType(client).name() + " client is requesting this method. Server is now serving the client.");
+                    if(size != null) thumbnail = MENU_THUMBNAILER.read(id, size);
+                    break;
+                default:
+                    denyUnauthorized("readMenuThumbnail", client);
+                    break;
+            }
+        } else {
+            denyUnauthenticated("readMenuThumbnail", client);
+        }
+        METRICS.record("readMenuThumbnail", startedAt);
+        return thumbnail;
+    }
+    
+    /**
+     * <h2>method <code>readMenusByType()</code></h2>
+     * <p>Method <code>readMenusByType</code> is used to read all 
+     * <code>Menus</code> entities of one type. This method will return
+     * <code>List&lt;Menus&gt;</code>object <b>if and only if</b> the 
+     * <code>IProtocolClient.Type</code> in <code>IProtocolClient</code> object 
+     * included herein is permitted.<p>
+     * 
+     * @param client <code>IProtocolClient</code> object to execute this method.
+     * @param type   Type of the menus to be read.
+     * @return Result of client object.
+     * @throws java.rmi.RemoteException A <code>RemoteException</code> is the
+     *                                  common superclass for a number of
+     *                                  communication-related exceptions that
+     *                                  may occur during the execution of a
+     *                                  remote method call.
+     */
+    @Override
+    public List<Menus> readMenusByType(IProtocolClient client, Integer type) throws RemoteException {
+        final long startedAt = System.nanoTime();
+        List<Menus> menus = new ArrayList<Menus>();
+        if(isClientAuthenticated(client)) {
+            switch(getClientType(client)) {
+                case OPERATOR:
+                case CUSTOMER:
+                    setStatus("readMenusByType(): A/An " + getClientType(client).name() + " client is requesting this method. Server is now serving the client.");
+                    if(type != null) menus = MENU_CATALOG.readByType(type);
+                    break;
+                default:
+                    denyUnauthorized("readMenusByType", client);
+                    menus = null;
+                    break;
+            }
+        } else {
+            denyUnauthenticated("readMenusByType", client);
+            menus = null;
+        }
+        METRICS.record("readMenusByType", startedAt);
+        return menus;
+    }
+    
+    /**
+     * <h2>method <code>getMenusVersion()</code></h2>
+     * <p>Method <code>getMenusVersion</code> is used to get the version of the
+     * <code>Menus</code> entities. The version changes every time any menu is
+     * created or updated, including its stock, so clients may keep the menus
+     * they have read and read them again only when the version has changed.
+     * This method will return the version <b>if and only if</b> the
+     * <code>IProtocolClient.Type</code> in <code>IProtocolClient</code> object 
+     * included herein is permitted.</p>
+     * 
+     * @param client <code>IProtocolClient</code> object to execute this method.
+     * @return Result of client object.
+     * @throws java.rmi.RemoteException A <code>RemoteException</code> is the
+     *                                  common superclass for a number of
+     *                                  communication-related exceptions that
+     *                                  may occur during the execution of a
+     *                                  remote method call.
+     */
+    @Override
+    public Long getMenusVersion(IProtocolClient client) throws RemoteException {
+        final long startedAt = System.nanoTime();
+        Long version = null;
+        if(isClientAuthenticated(client)) {
+            switch(getClientType(client)) {
+                case OPERATOR:
+                case CUSTOMER:
+                    version = MENU_CATALOG.getVersion();
+                    break;
+                default:
+                    denyUnauthorized("getMenusVersion", client);
+                    break;
+            }
+        } else {
+            denyUnauthenticated("getMenusVersion", client);
+        }
+        METRICS.record("getMenusVersion", startedAt);
+        return version;
+    }
 
     /**
      * <h2>method <code>readAllOrder()</code></h2>
@@ -739,23 +1381,25 @@ public final class ProtocolServer extends UnicastRemoteObject implements IProtoc
      */
     @Override
     public List<Orders> readAllOrder(IProtocolClient client) throws RemoteException {
+        final long startedAt = System.nanoTime();
         List<Orders> orders = new ArrayList<Orders>();
         if(isClientAuthenticated(client)) {
-            entityController = InfestPersistence.getControllerInstance(InfestPersistence.Entity.ORDERS);
-            switch(client.getType()) {
+            InfestEntityController<Orders> entityController = this.<Orders>getTypedController(InfestPersistence.Entity.ORDERS);
+            switch(getClientType(client)) {
                 case OPERATOR:
-                    setStatus("readAllOrder(): A/An " + client.getType().name() + " client is requesting this method. Server is now serving the client.");
+                    setStatus("readAllOrder(): A/An " + getClientType(client).name() + " client is requesting this method. Server is now serving the client.");
                     orders = entityController.readAll();
                     break;
                 default:
-                    setStatus("readAllOrder(): Server denied request from a/an " + client.getType().name() + " client. This client type IS NOT PERMITTED to request this method.");
+                    denyUnauthorized("readAllOrder", client);
                     orders = null;
                     break;
             }
         } else {
-            setStatus("readAllOrder(): Server denied request from an UN-AUTHENTICATED " + client.getType().name() + " client.");
+            denyUnauthenticated("readAllOrder", client);
             orders = null;
         }
+        METRICS.record("readAllOrder", startedAt);
         return orders;
     }
 
@@ -777,27 +1421,29 @@ public final class ProtocolServer extends UnicastRemoteObject implements IProtoc
      */
     @Override
     public List<Tables> readAllTable(IProtocolClient client) throws RemoteException {
+        final long startedAt = System.nanoTime();
         List<Tables> tables = new ArrayList<Tables>();
         if(isClientAuthenticated(client)) {
-            entityController = InfestPersistence.getControllerInstance(InfestPersistence.Entity.TABLES);
-            switch(client.getType()) {
+            InfestEntityController<Tables> entityController = this.<Tables>getTypedController(InfestPersistence.Entity.TABLES);
+            switch(getClientType(client)) {
                 case OPERATOR:
-                    setStatus("readAllTable(): A/An " + client.getType().name() + " client is requesting this method. Server is now serving the client.");
+                    setStatus("readAllTable(): A/An " + getClientType(client).name() + " client is requesting this method. Server is now serving the client.");
                     tables = entityController.readAll();
                     break;
                 case CUSTOMER:
-                    setStatus("readAllTable(): A/An " + client.getType().name() + " client is requesting this method. Server is now serving the client.");
+                    setStatus("readAllTable(): A/An " + getClientType(client).name() + " client is requesting this method. Server is now serving the client.");
                     tables = entityController.readAll();
                     break;
                 default:
-                    setStatus("readAllTable(): Server denied request from a/an " + client.getType().name() + " client. This client type IS NOT PERMITTED to request this method.");
+                    denyUnauthorized("readAllTable", client);
                     tables = null;
                     break;
             }
         } else {
-            setStatus("readAllTable(): Server denied request from an UN-AUTHENTICATED " + client.getType().name() + " client.");
+            denyUnauthenticated("readAllTable", client);
             tables = null;
         }
+        METRICS.record("readAllTable", startedAt);
         return tables;
     }
 
@@ -850,43 +1496,320 @@ public final class ProtocolServer extends UnicastRemoteObject implements IProtoc
     }
     
     private List<FinanceReport> readFinanceReport(IProtocolClient client, Date date, Boolean allDate) throws RemoteException {
+        final long startedAt = System.nanoTime();
         List<FinanceReport> financeReport = new ArrayList<FinanceReport>();
         if(isClientAuthenticated(client)) {
-            switch(client.getType()) {
+            switch(getClientType(client)) {
                 case OPERATOR:
-                    setStatus("readFinanceReport(): A/An " + client.getType().name() + " client is requesting this method. Server is now serving the client.");
-                    List<Menus> menus = this.readAllMenu(client);
-                    for(Menus menu : menus) {
-                        FinanceReport report = new FinanceReport();
-                        report.setMenuId(menu.getId());
-                        report.setMenuName(menu.getName());
-                        report.setMenuPrice(menu.getPrice());
-                        report.setMenuStatus(menu.getStatus());
-                        report.setMenuStatusdate(menu.getStatusDate());
-                        report.setOrderDate(allDate ? new Date(0, 0, 1) : new Date(date.getYear(), date.getMonth(), date.getDate()));
-                        report.setOrderTotal(0);
-                        List<Orders> orders = menu.getOrdersList();
-                        for(Orders order : orders) {
-                            if(allDate | date.equals(order.getIdcart().getDate())) {
-                                report.setOrderTotal(report.getOrderTotal() + order.getTotal());
-                            }
-                        }
-                        report.setIncome(report.getMenuPrice() * report.getOrderTotal());
-                        financeReport.add(report);
+                    setStatus("readFinanceReport(): A/An " + getClientType(client).name() + " client is requesting this method. Server is now serving the client.");
+                    if(allDate) {
+                        Map<Integer, long[]> sales = SALES_ROLLUP.readAll();
+                        for(Menus menu : MENU_CATALOG.readAll()) financeReport.add(createFinanceReport(menu, new Date(0, 0, 1), sales.get(menu.getId())));
+                    } else {
+                        // A closed day is never computed again.
+                        DayCloser.ClosedDay closedDay = DAY_CLOSER.read(SalesRollup.toLocalDate(date));
+                        financeReport = (closedDay != null) ? closedDay.getFinanceReport() : buildFinanceReport(SalesRollup.toLocalDate(date));
                     }
                     break;
                 default:
-                    setStatus("readFinanceReport(): Server denied request from a/an " + client.getType().name() + " client. This client type IS NOT PERMITTED to request this method.");
+                    denyUnauthorized("readFinanceReport", client);
                     financeReport = null;
                     break;
             }
         } else {
-            setStatus("readFinanceReport(): Server denied request from an UN-AUTHENTICATED " + client.getType().name() + " client.");
+            denyUnauthenticated("readFinanceReport", client);
             financeReport = null;
         }
+        METRICS.record("readFinanceReport", startedAt);
         return financeReport;
     } 
     
+    /**
+     * <h2>method <code>readFinanceReport()</code></h2>
+     * <p>NOTE: This method will generate financial report of a range of dates,
+     * optionally grouped by day, week, or month.</p>
+     * <br>
+     * <p>Method <code>readFinanceReport</code> is used to generate financial 
+     * report from the daily sales rollup, summing the buckets of the range in
+     * parallel. This method will return <code>FinanceReport</code> entity 
+     * objects <b>if and only if</b> the <code>IProtocolClient.Type</code> in 
+     * <code>IProtocolClient</code> object included herein is permitted.</p>
+     * 
+     * @param client <code>IProtocolClient</code> object to execute this method.
+     * @param from   First date of the report.
+     * @param to     Last date of the report, inclusive.
+     * @param bucket <code>ReportBucket</code> to group the range by, or 
+     *               <code>null</code> for one report over the whole range.
+     * @return Result of client object.
+     * @throws java.rmi.RemoteException A <code>RemoteException</code> is the
+     *                                  common superclass for a number of
+     *                                  communication-related exceptions that
+     *                                  may occur during the execution of a
+     *                                  remote method call.
+     */
+    @Override
+    public List<FinanceReport> readFinanceReport(IProtocolClient client, Date from, Date to, ReportBucket bucket) throws RemoteException {
+        final long startedAt = System.nanoTime();
+        List<FinanceReport> financeReport = new ArrayList<FinanceReport>();
+        if(isClientAuthenticated(client)) {
+            switch(getClientType(client)) {
+                case OPERATOR:
+                    setStatus("readFinanceReport(): A/An " + getClientType(client).name() + " client is requesting this method. Server is now serving the client.");
+                    if(from == null || to == null || from.after(to)) {
+                        setStatus("readFinanceReport(): Report rejected, the date range is invalid.");
+                        break;
+                    }
+                    List<Menus> menus = MENU_CATALOG.readAll();
+                    for(Map.Entry<LocalDate, Map<Integer, long[]>> bucketSales : SALES_ROLLUP.readRange(SalesRollup.toLocalDate(from), SalesRollup.toLocalDate(to), bucket).entrySet()) {
+                        Date orderDate = SalesRollup.toDate(bucketSales.getKey());
+                        for(Menus menu : menus) financeReport.add(createFinanceReport(menu, orderDate, bucketSales.getValue().get(menu.getId())));
+                    }
+                    break;
+                default:
+                    denyUnauthorized("readFinanceReport", client);
+                    financeReport = null;
+                    break;
+            }
+        } else {
+            denyUnauthenticated("readFinanceReport", client);
+            financeReport = null;
+        }
+        METRICS.record("readFinanceReport", startedAt);
+        return financeReport;
+    }
+    
+    /**
+     * <h2>method <code>openSalesExport()</code></h2>
+     * <p>Method <code>openSalesExport</code> is used to open a CSV export of
+     * the sales of a range of dates. This method will return the ID of the 
+     * export <b>if and only if</b> the <code>IProtocolClient.Type</code> in 
+     * <code>IProtocolClient</code> object included herein is permitted.</p>
+     * 
+     * @param client <code>IProtocolClient</code> object to execute this method.
+     * @param type   <code>SalesExportType</code> of the export.
+     * @param from   First date of the export.
+     * @param to     Last date of the export, inclusive.
+     * @return Result of client object.
+     * @throws java.rmi.RemoteException A <code>RemoteException</code> is the
+     *                                  common superclass for a number of
+     *                                  communication-related exceptions that
+     *                                  may occur during the execution of a
+     *                                  remote method call.
+     */
+    @Override
+    public Long openSalesExport(IProtocolClient client, SalesExportType type, Date from, Date to) throws RemoteException {
+        final long startedAt = System.nanoTime();
+        Long exportId = null;
+        if(isClientAuthenticated(client)) {
+            switch(getClientType(client)) {
+                case OPERATOR:
+                    setStatus("openSalesExport(): A/An " + getClientType(client).name() + " client is requesting this method. Server is now serving the client.");
+                    if(type == null || from == null || to == null || from.after(to)) {
+                        setStatus("openSalesExport(): Export rejected, the type or the date range is invalid.");
+                        break;
+                    }
+                    exportId = SALES_EXPORTER.open(client, type, SalesRollup.toLocalDate(from), SalesRollup.toLocalDate(to));
+                    break;
+                default:
+                    denyUnauthorized("openSalesExport", client);
+                    break;
+            }
+        } else {
+            denyUnauthenticated("openSalesExport", client);
+        }
+        METRICS.record("openSalesExport", startedAt);
+        return exportId;
+    }
+    
+    /**
+     * <h2>method <code>readSalesExportChunk()</code></h2>
+     * <p>Method <code>readSalesExportChunk</code> is used to produce the next
+     * chunk of an export opened with <code>openSalesExport</code>. This method
+     * will return the chunk <b>if and only if</b> the 
+     * <code>IProtocolClient.Type</code> in <code>IProtocolClient</code> object 
+     * included herein is permitted.</p>
+     * 
+     * @param client   <code>IProtocolClient</code> object to execute this method.
+     * @param exportId ID returned by <code>openSalesExport</code>.
+     * @return Result of client object.
+     * @throws java.rmi.RemoteException A <code>RemoteException</code> is the
+     *                                  common superclass for a number of
+     *                                  communication-related exceptions that
+     *                                  may occur during the execution of a
+     *                                  remote method call.
+     */
+    @Override
+    public byte[] readSalesExportChunk(IProtocolClient client, Long exportId) throws RemoteException {
+        final long startedAt = System.nanoTime();
+        byte[] chunk = null;
+        if(isClientAuthenticated(client)) {
+            switch(getClientType(client)) {
+                case OPERATOR:
+                    try {
+                        chunk = SALES_EXPORTER.read(client, exportId);
+                    } catch (RuntimeException ex) {
+                        setStatus("readSalesExportChunk(): " + getClientType(client).name() + " client on request: Caught an exception.");
+                        Logger.getLogger(ProtocolServer.class.getName()).log(Level.SEVERE, "Caught an exception.", ex);
+                        SALES_EXPORTER.close(client, exportId);
+                    }
+                    break;
+                default:
+                    denyUnauthorized("readSalesExportChunk", client);
+                    break;
+            }
+        } else {
+            denyUnauthenticated("readSalesExportChunk", client);
+        }
+        METRICS.record("readSalesExportChunk", startedAt);
+        return chunk;
+    }
+    
+    /**
+     * <h2>method <code>closeSalesExport()</code></h2>
+     * <p>Method <code>closeSalesExport</code> is used to abandon an export 
+     * before it is finished. This method will return <code>true</code> 
+     * <b>if and only if</b> the <code>IProtocolClient.Type</code> in 
+     * <code>IProtocolClient</code> object included herein is permitted and 
+     * the export was open.</p>
+     * 
+     * @param client   <code>IProtocolClient</code> object to execute this method.
+     * @param exportId ID returned by <code>openSalesExport</code>.
+     * @return Result of client object.
+     * @throws java.rmi.RemoteException A <code>RemoteException</code> is the
+     *                                  common superclass for a number of
+     *                                  communication-related exceptions that
+     *                                  may occur during the execution of a
+     *                                  remote method call.
+     */
+    @Override
+    public Boolean closeSalesExport(IProtocolClient client, Long exportId) throws RemoteException {
+        final long startedAt = System.nanoTime();
+        Boolean isSuccess = false;
+        if(isClientAuthenticated(client)) {
+            switch(getClientType(client)) {
+                case OPERATOR:
+                    isSuccess = SALES_EXPORTER.close(client, exportId);
+                    break;
+                default:
+                    denyUnauthorized("closeSalesExport", client);
+                    break;
+            }
+        } else {
+            denyUnauthenticated("closeSalesExport", client);
+        }
+        METRICS.record("closeSalesExport", startedAt);
+        return isSuccess;
+    }
+    
+    /**
+     * <h2>method <code>readSalesHeatmap()</code></h2>
+     * <p>Method <code>readSalesHeatmap</code> is used to bucket the orders of
+     * a range of dates by menu type, day of the week, and hour of the day, in
+     * one pass over the in-memory order facts. This method will return the 
+     * <code>SalesHeatmap</code> <b>if and only if</b> the 
+     * <code>IProtocolClient.Type</code> in <code>IProtocolClient</code> object 
+     * included herein is permitted.</p>
+     * 
+     * @param client <code>IProtocolClient</code> object to execute this method.
+     * @param from   First date of the range.
+     * @param to     Last date of the range, inclusive.
+     * @return Result of client object.
+     * @throws java.rmi.RemoteException A <code>RemoteException</code> is the
+     *                                  common superclass for a number of
+     *                                  communication-related exceptions that
+     *                                  may occur during the execution of a
+     *                                  remote method call.
+     */
+    @Override
+    public SalesHeatmap readSalesHeatmap(IProtocolClient client, Date from, Date to) throws RemoteException {
+        final long startedAt = System.nanoTime();
+        SalesHeatmap heatmap = null;
+        if(isClientAuthenticated(client)) {
+            switch(getClientType(client)) {
+                case OPERATOR:
+                    setStatus("readSalesHeatmap(): A/An " + getClientType(client).name() + " client is requesting this method. Server is now serving the client.");
+                    if(from == null || to == null || from.after(to)) {
+                        setStatus("readSalesHeatmap(): Heatmap rejected, the date range is invalid.");
+                        break;
+                    }
+                    heatmap = ORDER_FACTS.readHeatmap(SalesRollup.toLocalDate(from).toEpochDay(), SalesRollup.toLocalDate(to).toEpochDay());
+                    break;
+                default:
+                    denyUnauthorized("readSalesHeatmap", client);
+                    break;
+            }
+        } else {
+            denyUnauthenticated("readSalesHeatmap", client);
+        }
+        METRICS.record("readSalesHeatmap", startedAt);
+        return heatmap;
+    }
+    
+    /**
+     * <h2>method <code>readTopSellers()</code></h2>
+     * <p>Method <code>readTopSellers</code> is used to read the best selling 
+     * menus of a window, from the live sketches of the server or, when 
+     * requested, counted exactly from the in-memory order facts. This method 
+     * will return the <code>TopSeller</code> objects <b>if and only if</b> the
+     * <code>IProtocolClient.Type</code> in <code>IProtocolClient</code> object 
+     * included herein is permitted.</p>
+     * 
+     * @param client <code>IProtocolClient</code> object to execute this method.
+     * @param window <code>TopSellerWindow</code> to be read.
+     * @param limit  Maximum number of menus; 10 if <code>null</code>.
+     * @param exact  <code>true</code> to count every order in the window.
+     * @return Result of client object.
+     * @throws java.rmi.RemoteException A <code>RemoteException</code> is the
+     *                                  common superclass for a number of
+     *                                  communication-related exceptions that
+     *                                  may occur during the execution of a
+     *                                  remote method call.
+     */
+    @Override
+    public List<TopSeller> readTopSellers(IProtocolClient client, TopSellerWindow window, Integer limit, Boolean exact) throws RemoteException {
+        final long startedAt = System.nanoTime();
+        List<TopSeller> topSellers = null;
+        if(isClientAuthenticated(client)) {
+            switch(getClientType(client)) {
+                case OPERATOR:
+                    if(window == null) {
+                        setStatus("readTopSellers(): Request rejected, the window is missing.");
+                        break;
+                    }
+                    topSellers = TOP_SELLERS.read(window, (limit == null || limit <= 0) ? 10 : limit, Boolean.TRUE.equals(exact));
+                    break;
+                default:
+                    denyUnauthorized("readTopSellers", client);
+                    break;
+            }
+        } else {
+            denyUnauthenticated("readTopSellers", client);
+        }
+        METRICS.record("readTopSellers", startedAt);
+        return topSellers;
+    }
+    
+    private List<FinanceReport> buildFinanceReport(LocalDate date) {
+        List<FinanceReport> financeReport = new ArrayList<FinanceReport>();
+        Map<Integer, long[]> sales = SALES_ROLLUP.readDay(date);
+        Date orderDate = SalesRollup.toDate(date);
+        for(Menus menu : MENU_CATALOG.readAll()) financeReport.add(createFinanceReport(menu, orderDate, sales.get(menu.getId())));
+        return financeReport;
+    }
+    
+    private FinanceReport createFinanceReport(Menus menu, Date orderDate, long[] sales) {
+        FinanceReport report = new FinanceReport();
+        report.setMenuId(menu.getId());
+        report.setMenuName(menu.getName());
+        report.setMenuPrice(menu.getPrice());
+        report.setMenuStatus(menu.getStatus());
+        report.setMenuStatusdate(menu.getStatusDate());
+        report.setOrderDate(orderDate);
+        report.setOrderTotal((sales == null) ? 0 : (int) sales[0]);
+        report.setIncome((sales == null) ? 0 : (int) sales[1]);
+        return report;
+    }
+    
     /**
      * <h2>method <code>updateFeature()</code></h2>
      * <p>Method <code>updateFeature</code> is used to update <code>Features</code> 
@@ -906,32 +1829,101 @@ public final class ProtocolServer extends UnicastRemoteObject implements IProtoc
      */
     @Override
     public Boolean updateFeature(IProtocolClient client, Features feature) throws RemoteException {
+        final long startedAt = System.nanoTime();
         Boolean isSuccess = false;
         if(isClientAuthenticated(client)) {
-            entityController = InfestPersistence.getControllerInstance(InfestPersistence.Entity.FEATURES);
-            switch(client.getType()) {
+            InfestEntityController<Features> entityController = this.<Features>getTypedController(InfestPersistence.Entity.FEATURES);
+            switch(getClientType(client)) {
                 case ADMINISTRATOR:
-                    setStatus("updateFeature(): A/An " + client.getType().name() + " client is requesting this method. Server is now serving the client.");
+                    setStatus("updateFeature(): A/An " + getClientType(client).name() + " client is requesting this method. Server is now serving the client.");
                     try {
                         entityController.update(feature);
                     } catch (NonexistentEntityException ex) {
-                        setStatus("updateFeature(): " + client.getType().name() + " client on request: Caught non-existent entity exception.");
+                        setStatus("updateFeature(): " + getClientType(client).name() + " client on request: Caught non-existent entity exception.");
                         Logger.getLogger(ProtocolServer.class.getName()).log(Level.SEVERE, "Caught non-existent entity exception.", ex);
                     } catch (Exception ex) {
-                        setStatus("updateFeature(): " + client.getType().name() + " client on request: Caught an exception.");
+                        setStatus("updateFeature(): " + getClientType(client).name() + " client on request: Caught an exception.");
                         Logger.getLogger(ProtocolServer.class.getName()).log(Level.SEVERE, "Caught an exception.", ex);
                     }
+                    FEATURES_CACHE.reload();
                     isSuccess = true;
                     break;
                 default:
-                    setStatus("updateFeature(): Server denied request from a/an " + client.getType().name() + " client. This client type IS NOT PERMITTED to request this method.");
+                    denyUnauthorized("updateFeature", client);
                     isSuccess = false;
                     break;
             }
         } else {
-            setStatus("updateFeature(): Server denied request from an UN-AUTHENTICATED " + client.getType().name() + " client.");
+            denyUnauthenticated("updateFeature", client);
             isSuccess = false;
         }
+        METRICS.record("updateFeature", startedAt);
+        return isSuccess;
+    }
+    
+    /**
+     * <h2>method <code>updateFeatures()</code></h2>
+     * <p>Method <code>updateFeatures</code> is used to update several 
+     * <code>Features</code> entities in a single transaction. This method will 
+     * return <code>true</code> <b>if and only if</b> the 
+     * <code>IProtocolClient.Type</code> in <code>IProtocolClient</code> object 
+     * included herein is permitted and every feature has been updated. When 
+     * any of the features cannot be updated, none of them is.</p>
+     * 
+     * @param client   <code>IProtocolClient</code> object to execute this method.
+     * @param features <code>Features</code> objects to be updated.
+     * @return Result of client object.
+     * @throws java.rmi.RemoteException A <code>RemoteException</code> is the
+     *                                  common superclass for a number of
+     *                                  communication-related exceptions that
+     *                                  may occur during the execution of a
+     *                                  remote method call.
+     */
+    @Override
+    public Boolean updateFeatures(IProtocolClient client, List<Features> features) throws RemoteException {
+        final long startedAt = System.nanoTime();
+        Boolean isSuccess = false;
+        if(isClientAuthenticated(client)) {
+            switch(getClientType(client)) {
+                case ADMINISTRATOR:
+                    setStatus("updateFeatures(): A/An " + getClientType(client).name() + " client is requesting this method. Server is now serving the client.");
+                    if(features == null || features.isEmpty()) {
+                        isSuccess = true;
+                        break;
+                    }
+                    final long transactionStartedAt = System.nanoTime();
+                    EntityManager entityManager = createEntityManager();
+                    try {
+                        entityManager.getTransaction().begin();
+                        for(Features feature : features) {
+                            if(feature.getId() == null || entityManager.find(Features.class, feature.getId()) == null) throw new NonexistentEntityException("The features with id " + feature.getId() + " no longer exists.");
+                            entityManager.merge(feature);
+                        }
+                        entityManager.getTransaction().commit();
+                        isSuccess = true;
+                    } catch (NonexistentEntityException ex) {
+                        setStatus("updateFeatures(): " + getClientType(client).name() + " client on request: Caught non-existent entity exception.");
+                        Logger.getLogger(ProtocolServer.class.getName()).log(Level.SEVERE, "Caught non-existent entity exception.", ex);
+                    } catch (RuntimeException ex) {
+                        setStatus("updateFeatures(): " + getClientType(client).name() + " client on request: Caught an exception.");
+                        Logger.getLogger(ProtocolServer.class.getName()).log(Level.SEVERE, "Caught an exception.", ex);
+                    } finally {
+                        if(entityManager.getTransaction().isActive()) entityManager.getTransaction().rollback();
+                        entityManager.close();
+                        METRICS.recordDatabase(transactionStartedAt);
+                    }
+                    if(isSuccess) FEATURES_CACHE.reload();
+                    break;
+                default:
+                    denyUnauthorized("updateFeatures", client);
+                    isSuccess = false;
+                    break;
+            }
+        } else {
+            denyUnauthenticated("updateFeatures", client);
+            isSuccess = false;
+        }
+        METRICS.record("updateFeatures", startedAt);
         return isSuccess;
     }
     
@@ -954,32 +1946,37 @@ public final class ProtocolServer extends UnicastRemoteObject implements IProtoc
      */
     @Override
     public Boolean updateMenu(IProtocolClient client, Menus menu) throws RemoteException {
+        final long startedAt = System.nanoTime();
         Boolean isSuccess = false;
         if(isClientAuthenticated(client)) {
-            entityController = InfestPersistence.getControllerInstance(InfestPersistence.Entity.MENUS);
-            switch(client.getType()) {
+            InfestEntityController<Menus> entityController = this.<Menus>getTypedController(InfestPersistence.Entity.MENUS);
+            switch(getClientType(client)) {
                 case OPERATOR:
-                    setStatus("updateMenu(): A/An " + client.getType().name() + " client is requesting this method. Server is now serving the client.");
+                    setStatus("updateMenu(): A/An " + getClientType(client).name() + " client is requesting this method. Server is now serving the client.");
                     try {
                         entityController.update(menu);
                     } catch (NonexistentEntityException ex) {
-                        setStatus("updateMenu(): " + client.getType().name() + " client on request: Caught non-existent entity exception.");
+                        setStatus("updateMenu(): " + getClientType(client).name() + " client on request: Caught non-existent entity exception.");
                         Logger.getLogger(ProtocolServer.class.getName()).log(Level.SEVERE, "Caught non-existent entity exception.", ex);
                     } catch (Exception ex) {
-                        setStatus("updateMenu(): " + client.getType().name() + " client on request: Caught an exception.");
+                        setStatus("updateMenu(): " + getClientType(client).name() + " client on request: Caught an exception.");
                         Logger.getLogger(ProtocolServer.class.getName()).log(Level.SEVERE, "Caught an exception.", ex);
                     }
+                    MENU_CATALOG.refresh(menu.getId());
+                    recordPrice(menu.getId());
+                    MENU_THUMBNAILER.regenerate(menu.getId());
                     isSuccess = true;
                     break;
                 default:
-                    setStatus("updateMenu(): Server denied request from a/an " + client.getType().name() + " client. This client type IS NOT PERMITTED to request this method.");
+                    denyUnauthorized("updateMenu", client);
                     isSuccess = false;
                     break;
             }
         } else {
-            setStatus("updateMenu(): Server denied request from an UN-AUTHENTICATED " + client.getType().name() + " client.");
+            denyUnauthenticated("updateMenu", client);
             isSuccess = false;
         }
+        METRICS.record("updateMenu", startedAt);
         return isSuccess;
     }
 
@@ -1002,32 +1999,34 @@ public final class ProtocolServer extends UnicastRemoteObject implements IProtoc
      */
     @Override
     public Boolean updateTable(IProtocolClient client, Tables table) throws RemoteException {
+        final long startedAt = System.nanoTime();
         Boolean isSuccess = false;
         if(isClientAuthenticated(client)) {
-            entityController = InfestPersistence.getControllerInstance(InfestPersistence.Entity.TABLES);
-            switch(client.getType()) {
+            InfestEntityController<Tables> entityController = this.<Tables>getTypedController(InfestPersistence.Entity.TABLES);
+            switch(getClientType(client)) {
                 case OPERATOR:
-                    setStatus("updateTable(): A/An " + client.getType().name() + " client is requesting this method. Server is now serving the client.");
+                    setStatus("updateTable(): A/An " + getClientType(client).name() + " client is requesting this method. Server is now serving the client.");
                     try {
                         entityController.update(table);
                     } catch (NonexistentEntityException ex) {
-                        setStatus("updateTable(): " + client.getType().name() + " client on request: Caught non-existent entity exception.");
+                        setStatus("updateTable(): " + getClientType(client).name() + " client on request: Caught non-existent entity exception.");
                         Logger.getLogger(ProtocolServer.class.getName()).log(Level.SEVERE, "Caught non-existent entity exception.", ex);
                     } catch (Exception ex) {
-                        setStatus("updateTable(): " + client.getType().name() + " client on request: Caught an exception.");
+                        setStatus("updateTable(): " + getClientType(client).name() + " client on request: Caught an exception.");
                         Logger.getLogger(ProtocolServer.class.getName()).log(Level.SEVERE, "Caught an exception.", ex);
                     }
                     isSuccess = true;
                     break;
                 default:
-                    setStatus("updateTable(): Server denied request from a/an " + client.getType().name() + " client. This client type IS NOT PERMITTED to request this method.");
+                    denyUnauthorized("updateTable", client);
                     isSuccess = false;
                     break;
             }
         } else {
-            setStatus("updateTable(): Server denied request from an UN-AUTHENTICATED " + client.getType().name() + " client.");
+            denyUnauthenticated("updateTable", client);
             isSuccess = false;
         }
+        METRICS.record("updateTable", startedAt);
         return isSuccess;
     }
     
@@ -1050,35 +2049,88 @@ public final class ProtocolServer extends UnicastRemoteObject implements IProtoc
      */
     @Override
     public Boolean updateCart(IProtocolClient client, Carts cart) throws RemoteException{
+        final long startedAt = System.nanoTime();
         Boolean isSuccess = false;
         if(isClientAuthenticated(client)) {
-            entityController = InfestPersistence.getControllerInstance(InfestPersistence.Entity.CARTS);
-            switch(client.getType()) {
+            InfestEntityController<Carts> entityController = this.<Carts>getTypedController(InfestPersistence.Entity.CARTS);
+            switch(getClientType(client)) {
                 case CUSTOMER:
-                    setStatus("updateCart(): A/An " + client.getType().name() + " client is requesting this method. Server is now serving the client.");
+                    setStatus("updateCart(): A/An " + getClientType(client).name() + " client is requesting this method. Server is now serving the client.");
+                    Lock rollupLock = SALES_ROLLUP.getUpdateLock();
+                    rollupLock.lock();
                     try {
+                        Carts previous = entityController.read(cart.getId());
                         entityController.update(cart);
+                        // The sales rollup files orders under the date and
+                        // time of their cart, so the orders of a moved cart
+                        // are moved with it, and both days are closed again
+                        // if they were closed.
+                        if(previous != null && previous.getOrdersList() != null && isMoved(previous, cart)) {
+                            SALES_ROLLUP.move(previous, cart, previous.getOrdersList());
+                            DAY_CLOSER.recloseLater(SalesRollup.toLocalDate(previous.getDate()));
+                            DAY_CLOSER.recloseLater(SalesRollup.toLocalDate(cart.getDate()));
+                        }
                     } catch (NonexistentEntityException ex) {
-                        setStatus("updateCart(): " + client.getType().name() + " client on request: Caught non-existent entity exception.");
+                        setStatus("updateCart(): " + getClientType(client).name() + " client on request: Caught non-existent entity exception.");
                         Logger.getLogger(ProtocolServer.class.getName()).log(Level.SEVERE, "Caught non-existent entity exception.", ex);
                     } catch (Exception ex) {
-                        setStatus("updateCart(): " + client.getType().name() + " client on request: Caught an exception.");
+                        setStatus("updateCart(): " + getClientType(client).name() + " client on request: Caught an exception.");
                         Logger.getLogger(ProtocolServer.class.getName()).log(Level.SEVERE, "Caught an exception.", ex);
+                    } finally {
+                        rollupLock.unlock();
                     }
                     isSuccess = true;
                     break;
                 default:
-                    setStatus("updateCart(): Server denied request from a/an " + client.getType().name() + " client. This client type IS NOT PERMITTED to request this method.");
+                    denyUnauthorized("updateCart", client);
                     isSuccess = false;
                     break;
             }
         } else {
-            setStatus("updateCart(): Server denied request from an UN-AUTHENTICATED " + client.getType().name() + " client.");
+            denyUnauthenticated("updateCart", client);
             isSuccess = false;
         }
+        METRICS.record("updateCart", startedAt);
         return isSuccess;
     }
     
+    private void recordPrice(Integer menuId) {
+        Menus menu = MENU_CATALOG.read(menuId);
+        if(menu != null) MENU_PRICES.record(Collections.singletonList(menu));
+    }
+    
+    private static boolean isMoved(Carts previous, Carts cart) {
+        if(previous.getDate() == null || cart.getDate() == null) return false;
+        return !SalesRollup.toLocalDate(previous.getDate()).equals(SalesRollup.toLocalDate(cart.getDate()))
+                || OrderFactStore.toMinute(previous.getTime()) != OrderFactStore.toMinute(cart.getTime());
+    }
+    
+    private int getIntegerProperty(String key, int defaultValue) {
+        try {
+            String value = ProgramPropertiesManager.getInstance().getProperty(key);
+            return (value == null || value.isEmpty()) ? defaultValue : Integer.parseInt(value.trim());
+        } catch(NullPointerException | NumberFormatException ex) {
+            return defaultValue;
+        }
+    }
+    
+    private LocalTime getDayCloseTime() {
+        try {
+            return LocalTime.of(getIntegerProperty("dayclosehour", 0), getIntegerProperty("daycloseminute", 5));
+        } catch(DateTimeException ex) {
+            return LocalTime.of(0, 5);
+        }
+    }
+    
+    private ProtocolLogger.OverflowPolicy getLogOverflowPolicy() {
+        try {
+            String value = ProgramPropertiesManager.getInstance().getProperty("logqueuepolicy");
+            return ProtocolLogger.OverflowPolicy.valueOf(value.trim().toUpperCase());
+        } catch(NullPointerException | IllegalArgumentException ex) {
+            return ProtocolLogger.OverflowPolicy.DROP;
+        }
+    }
+    
     private String getSalt() {
         ProgramPropertiesManager programPropertiesManager = ProgramPropertiesManager.getInstance();
         String salt;
@@ -1102,8 +2154,8 @@ public final class ProtocolServer extends UnicastRemoteObject implements IProtoc
             return null;
         }
         try {
-            credentials = CredentialsManager.createDefaultEncryptedCredentials(client.getType(), salt);
-            File credFile = new java.io.File(client.getType().name().toLowerCase() + ".crd");
+            credentials = CredentialsManager.createDefaultEncryptedCredentials(getClientType(client), salt);
+            File credFile = new java.io.File(getClientType(client).name().toLowerCase() + ".crd");
             credFile.createNewFile();
             FileOutputStream fos = new FileOutputStream(credFile, false);
             try (ObjectOutputStream oos = new ObjectOutputStream(fos)) {
@@ -1138,10 +2190,11 @@ public final class ProtocolServer extends UnicastRemoteObject implements IProtoc
      */
     @Override
     public Credentials getCredentials(IProtocolClient client) throws java.rmi.RemoteException{
+        final long startedAt = System.nanoTime();
         Credentials credential;
-        if(client.equals(CLIENT_LIST.get(client.getClientSession()))) {
-            setStatus("getCredential(): A/An " + client.getType().name() + " client is requesting this method. Server is now serving the client.");
-            File credFile = new File(client.getType().name().toLowerCase() + ".crd");
+        if(getSession(client) != null) {
+            setStatus("getCredentials(): A/An " + getClientType(client).name() + " client is requesting this method. Server is now serving the client.");
+            File credFile = new File(getClientType(client).name().toLowerCase() + ".crd");
             if(credFile.exists() && !credFile.isDirectory()) {
                 FileInputStream fis;
                 try {
@@ -1171,9 +2224,10 @@ public final class ProtocolServer extends UnicastRemoteObject implements IProtoc
                 credential = createDefaultCredentials(client);
             }
         } else {
-            setStatus("getCredential(): Server denied request from an UN-AUTHENTICATED " + client.getType().name() + " client.");
+            denyUnauthenticated("getCredentials", client);
             credential = null;
         }
+        METRICS.record("getCredentials", startedAt);
         return credential;
     }
 
@@ -1201,6 +2255,8 @@ public final class ProtocolServer extends UnicastRemoteObject implements IProtoc
     @Deprecated
     @Override
     public IProtocolClient logout(IProtocolClient client) throws RemoteException {
+        final long startedAt = System.nanoTime();
+        METRICS.record("logout", startedAt);
         return client;
     }
 
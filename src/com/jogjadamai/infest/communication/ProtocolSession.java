@@ -0,0 +1,118 @@
+/*
+ * Copyright 2017 Danang Galuh Tegar P.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.jogjadamai.infest.communication;
+
+/**
+ * <h1>class <code>ProtocolSession</code></h1>
+ * <p><code>ProtocolSession</code> is a server-held record of an authenticated
+ * <code>IProtocolClient</code>. It is created once in
+ * <code>ProtocolServer.authenticate()</code> and keeps everything the server
+ * needs to authorise later requests (session token and client type), so
+ * authorisation never has to call back into the client over RMI.</p>
+ * <br>
+ * <p><b><i>Coded, built, and packaged with passion by Danang Galuh Tegar P for Infest.</i></b></p>
+ *
+ * @author Danang Galuh Tegar P
+ * @version 2017.03.10.0001
+ * @see com.jogjadamai.infest.communication.ProtocolServer
+ * @see com.jogjadamai.infest.communication.IProtocolClient
+ */
+final class ProtocolSession {
+
+    private final Integer TOKEN;
+    private final IProtocolClient CLIENT;
+    private final IProtocolClient.Type TYPE;
+    private final long CREATED_AT;
+    private volatile long lastAccessedAt;
+
+    protected ProtocolSession(Integer token, IProtocolClient client, IProtocolClient.Type type) {
+        this.TOKEN = token;
+        this.CLIENT = client;
+        this.TYPE = type;
+        this.CREATED_AT = System.currentTimeMillis();
+        this.lastAccessedAt = this.CREATED_AT;
+    }
+
+    /**
+     * <h2>method <code>getToken()</code></h2>
+     * <p>Method <code>getToken</code> is used to get the opaque session token
+     * issued to the client on authentication.</p>
+     *
+     * @return Session token of this session.
+     */
+    protected Integer getToken() {
+        return this.TOKEN;
+    }
+
+    /**
+     * <h2>method <code>getClient()</code></h2>
+     * <p>Method <code>getClient</code> is used to get the remote reference of
+     * the client owning this session.</p>
+     *
+     * @return <code>IProtocolClient</code> remote reference of this session.
+     */
+    protected IProtocolClient getClient() {
+        return this.CLIENT;
+    }
+
+    /**
+     * <h2>method <code>getType()</code></h2>
+     * <p>Method <code>getType</code> is used to get the client type captured
+     * on authentication.</p>
+     *
+     * @return <code>IProtocolClient.Type</code> of this session.
+     */
+    protected IProtocolClient.Type getType() {
+        return this.TYPE;
+    }
+
+    /**
+     * <h2>method <code>getLastAccessedAt()</code></h2>
+     * <p>Method <code>getLastAccessedAt</code> is used to get the time when
+     * this session was last used by a request, in milliseconds since epoch.</p>
+     *
+     * @return Last access time of this session.
+     */
+    protected long getLastAccessedAt() {
+        return this.lastAccessedAt;
+    }
+
+    /**
+     * <h2>method <code>touch()</code></h2>
+     * <p>Method <code>touch</code> is used to mark this session as used by a
+     * request at the given time.</p>
+     *
+     * @param now Current time in milliseconds since epoch.
+     */
+    protected void touch(long now) {
+        this.lastAccessedAt = now;
+    }
+
+    /**
+     * <h2>method <code>isExpired()</code></h2>
+     * <p>Method <code>isExpired</code> is used to check whether this session
+     * has been idle for too long or has lived longer than allowed.</p>
+     *
+     * @param now             Current time in milliseconds since epoch.
+     * @param idleTimeout     Maximum idle time in milliseconds.
+     * @param absoluteTimeout Maximum life time in milliseconds.
+     * @return Boolean indicating <code>true</code> when session is expired.
+     */
+    protected Boolean isExpired(long now, long idleTimeout, long absoluteTimeout) {
+        return ( (now - this.lastAccessedAt) > idleTimeout || (now - this.CREATED_AT) > absoluteTimeout );
+    }
+
+}
@@ -0,0 +1,192 @@
+/*
+ * Copyright 2017 Danang Galuh Tegar P.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.jogjadamai.infest.communication;
+
+import java.security.SecureRandom;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * <h1>class <code>ProtocolSessionRegistry</code></h1>
+ * <p><code>ProtocolSessionRegistry</code> is the concurrent store of
+ * <code>ProtocolSession</code>s held by <code>ProtocolServer</code>. Lookups
+ * are lock-free hash lookups by client remote reference. Sessions expire
+ * after an idle timeout or an absolute timeout, are removed by a background
+ * reaper that runs on a daemon thread for the life of the server, and the
+ * number of live sessions is bounded so that reconnecting clients cannot grow
+ * the heap (or keep RMI DGC leases alive) without limit.</p>
+ * <br>
+ * <p><b><i>Coded, built, and packaged with passion by Danang Galuh Tegar P for Infest.</i></b></p>
+ *
+ * @author Danang Galuh Tegar P
+ * @version 2017.03.10.0001
+ * @see com.jogjadamai.infest.communication.ProtocolSession
+ * @see com.jogjadamai.infest.communication.ProtocolServer
+ */
+final class ProtocolSessionRegistry {
+
+    private final ConcurrentMap<Integer, ProtocolSession> SESSION_MAP;
+    private final ConcurrentMap<IProtocolClient, ProtocolSession> CLIENT_MAP;
+    private final SecureRandom SECURE_RANDOM;
+    private final ScheduledExecutorService REAPER;
+    private final int MAXIMUM_SIZE;
+    private final long IDLE_TIMEOUT;
+    private final long ABSOLUTE_TIMEOUT;
+
+    /**
+     * <h2>constructor <code>ProtocolSessionRegistry()</code></h2>
+     * <p>Create a new session registry and start its background reaper.</p>
+     *
+     * @param maximumSize     Maximum number of live sessions.
+     * @param idleTimeout     Maximum idle time of a session in milliseconds.
+     * @param absoluteTimeout Maximum life time of a session in milliseconds.
+     * @param reapInterval    Interval between reaper runs in milliseconds.
+     */
+    protected ProtocolSessionRegistry(int maximumSize, long idleTimeout, long absoluteTimeout, long reapInterval) {
+        this.SESSION_MAP = new ConcurrentHashMap<Integer, ProtocolSession>();
+        this.CLIENT_MAP = new ConcurrentHashMap<IProtocolClient, ProtocolSession>();
+        this.SECURE_RANDOM = new SecureRandom();
+        this.MAXIMUM_SIZE = maximumSize;
+        this.IDLE_TIMEOUT = idleTimeout;
+        this.ABSOLUTE_TIMEOUT = absoluteTimeout;
+        this.REAPER = Executors.newSingleThreadScheduledExecutor((runnable) -> {
+            Thread thread = new Thread(runnable, "ProtocolSessionReaper");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.REAPER.scheduleWithFixedDelay(this::reap, reapInterval, reapInterval, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * <h2>method <code>open()</code></h2>
+     * <p>Method <code>open</code> is used to open a new session for a verified
+     * client. Any previous session of the same client is replaced. When the
+     * registry is full, expired sessions are reaped first and, if it is still
+     * full, the least recently used session is evicted.</p>
+     *
+     * @param client Remote reference of the verified client.
+     * @param type   <code>IProtocolClient.Type</code> of the verified client.
+     * @return The newly opened <code>ProtocolSession</code>.
+     */
+    protected synchronized ProtocolSession open(IProtocolClient client, IProtocolClient.Type type) {
+        ProtocolSession previous = CLIENT_MAP.remove(client);
+        if(previous != null) SESSION_MAP.remove(previous.getToken(), previous);
+        if(SESSION_MAP.size() >= MAXIMUM_SIZE) reap();
+        if(SESSION_MAP.size() >= MAXIMUM_SIZE) evictLeastRecentlyUsed();
+        ProtocolSession session;
+        do {
+            session = new ProtocolSession(SECURE_RANDOM.nextInt() & Integer.MAX_VALUE, client, type);
+        } while(SESSION_MAP.putIfAbsent(session.getToken(), session) != null);
+        CLIENT_MAP.put(client, session);
+        return session;
+    }
+
+    /**
+     * <h2>method <code>get()</code></h2>
+     * <p>Method <code>get</code> is used to get the live session of a client
+     * and mark it as used. Expired sessions are closed and never returned.</p>
+     *
+     * @param client Remote reference of the client.
+     * @return <code>ProtocolSession</code> of the client, or <code>null</code>
+     *         when the client has no live session.
+     */
+    protected ProtocolSession get(IProtocolClient client) {
+        // Remote stubs resolve equals() and hashCode() locally from their
+        // remote reference, so this lookup never calls back into the client.
+        return (client == null) ? null : validate(CLIENT_MAP.get(client));
+    }
+
+    /**
+     * <h2>method <code>close()</code></h2>
+     * <p>Method <code>close</code> is used to remove a session from the
+     * registry.</p>
+     *
+     * @param session <code>ProtocolSession</code> to be closed.
+     */
+    protected void close(ProtocolSession session) {
+        SESSION_MAP.remove(session.getToken(), session);
+        CLIENT_MAP.remove(session.getClient(), session);
+    }
+
+    /**
+     * <h2>method <code>size()</code></h2>
+     * <p>Method <code>size</code> is used to get the number of sessions
+     * currently held by the registry.</p>
+     *
+     * @return Number of sessions.
+     */
+    protected int size() {
+        return SESSION_MAP.size();
+    }
+
+    /**
+     * <h2>method <code>countByType()</code></h2>
+     * <p>Method <code>countByType</code> is used to count the sessions
+     * currently held by the registry for every client type.</p>
+     *
+     * @return Number of sessions by <code>IProtocolClient.Type</code>.
+     */
+    protected Map<IProtocolClient.Type, Integer> countByType() {
+        Map<IProtocolClient.Type, Integer> counts = new EnumMap<IProtocolClient.Type, Integer>(IProtocolClient.Type.class);
+        for(IProtocolClient.Type type : IProtocolClient.Type.values()) counts.put(type, 0);
+        for(ProtocolSession session : SESSION_MAP.values()) counts.merge(session.getType(), 1, Integer::sum);
+        return counts;
+    }
+
+    /**
+     * <h2>method <code>reap()</code></h2>
+     * <p>Method <code>reap</code> is used to close every expired session. It is
+     * run periodically by the background reaper.</p>
+     *
+     * @return Number of sessions closed.
+     */
+    protected int reap() {
+        long now = System.currentTimeMillis();
+        int reaped = 0;
+        for(ProtocolSession session : SESSION_MAP.values()) {
+            if(session.isExpired(now, IDLE_TIMEOUT, ABSOLUTE_TIMEOUT)) {
+                close(session);
+                reaped++;
+            }
+        }
+        return reaped;
+    }
+
+    private ProtocolSession validate(ProtocolSession session) {
+        if(session == null) return null;
+        long now = System.currentTimeMillis();
+        if(session.isExpired(now, IDLE_TIMEOUT, ABSOLUTE_TIMEOUT)) {
+            close(session);
+            return null;
+        }
+        session.touch(now);
+        return session;
+    }
+
+    private void evictLeastRecentlyUsed() {
+        ProtocolSession eldest = null;
+        for(ProtocolSession session : SESSION_MAP.values()) {
+            if(eldest == null || session.getLastAccessedAt() < eldest.getLastAccessedAt()) eldest = session;
+        }
+        if(eldest != null) close(eldest);
+    }
+
+}
@@ -0,0 +1,63 @@
+/*
+ * Copyright 2017 Danang Galuh Tegar P.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.jogjadamai.infest.communication;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.temporal.TemporalAdjusters;
+
+/**
+ * <h1>enum <code>ReportBucket</code></h1>
+ * <p><code>ReportBucket</code> is the period a date-range finance report is
+ * grouped by. Weeks start on Monday and months on their first day; the first
+ * and the last bucket of a report are cut to the requested range.</p>
+ * <br>
+ * <p><b><i>Coded, built, and packaged with passion by Danang Galuh Tegar P for Infest.</i></b></p>
+ *
+ * @author Danang Galuh Tegar P
+ * @version 2017.03.10.0001
+ * @see com.jogjadamai.infest.communication.IExtendedProtocolServer
+ */
+public enum ReportBucket {
+
+    DAY {
+        @Override
+        LocalDate nextStart(LocalDate date) {
+            return date.plusDays(1);
+        }
+    },
+
+    WEEK {
+        @Override
+        LocalDate nextStart(LocalDate date) {
+            return date.with(TemporalAdjusters.next(DayOfWeek.MONDAY));
+        }
+    },
+
+    MONTH {
+        @Override
+        LocalDate nextStart(LocalDate date) {
+            return date.with(TemporalAdjusters.firstDayOfNextMonth());
+        }
+    };
+
+    /**
+     * @param date A day inside a bucket.
+     * @return The first day of the following bucket.
+     */
+    abstract LocalDate nextStart(LocalDate date);
+
+}
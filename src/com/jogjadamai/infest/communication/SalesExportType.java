@@ -0,0 +1,36 @@
+/*
+ * Copyright 2017 Danang Galuh Tegar P.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.jogjadamai.infest.communication;
+
+/**
+ * <h1>enum <code>SalesExportType</code></h1>
+ * <p><code>SalesExportType</code> is the content of a CSV sales export.</p>
+ * <ul>
+ * <li><code>ORDERS</code>: one row per order, with the date and time of its
+ * cart and the current price of its menu.</li>
+ * <li><code>DAILY_SALES</code>: one row per menu sold on every day, read from
+ * the daily sales rollup.</li>
+ * </ul>
+ * <br>
+ * <p><b><i>Coded, built, and packaged with passion by Danang Galuh Tegar P for Infest.</i></b></p>
+ *
+ * @author Danang Galuh Tegar P
+ * @version 2017.03.10.0001
+ * @see com.jogjadamai.infest.communication.IExtendedProtocolServer
+ */
+public enum SalesExportType {
+    ORDERS, DAILY_SALES
+}
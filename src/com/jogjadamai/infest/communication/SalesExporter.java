@@ -0,0 +1,256 @@
+/*
+ * Copyright 2017 Danang Galuh Tegar P.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.jogjadamai.infest.communication;
+
+import com.jogjadamai.infest.entity.Menus;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+import javax.persistence.EntityManager;
+import javax.persistence.TemporalType;
+
+/**
+ * <h1>class <code>SalesExporter</code></h1>
+ * <p><code>SalesExporter</code> streams sales data of
+ * <code>ProtocolServer</code> as CSV in chunks. An export is opened once and
+ * then pulled chunk by chunk; every chunk is produced only when it is pulled,
+ * from a cursor that remembers nothing but its position, so an export of any
+ * length takes the same memory on the server.</p>
+ * <p>Orders are read with keyset pagination on their ID: every chunk is one
+ * query for the next page of scalar columns, so no entity is kept managed
+ * between chunks. Daily sales are read from the <code>SalesRollup</code>.</p>
+ * <p>Exports belong to the client that opened them and are dropped once they
+ * are finished, closed, or left idle for longer than the idle timeout.</p>
+ * <br>
+ * <p><b><i>Coded, built, and packaged with passion by Danang Galuh Tegar P for Infest.</i></b></p>
+ *
+ * @author Danang Galuh Tegar P
+ * @version 2017.03.10.0001
+ * @see com.jogjadamai.infest.communication.SalesExportType
+ * @see com.jogjadamai.infest.communication.ProtocolServer
+ */
+final class SalesExporter {
+
+    private final Supplier<EntityManager> ENTITY_MANAGER_SUPPLIER;
+    private final MenuCatalog MENU_CATALOG;
+    private final SalesRollup SALES_ROLLUP;
+    private final ProtocolMetrics METRICS;
+    private final ConcurrentMap<Long, Cursor> CURSOR_MAP;
+    private final AtomicLong LAST_ID;
+    private final int CHUNK_ROWS;
+    private final long IDLE_TIMEOUT;
+
+    private abstract static class Cursor {
+
+        private final IProtocolClient owner;
+        private final String header;
+        private boolean isHeaderWritten;
+        private boolean isFinished;
+        private volatile long lastReadAt;
+
+        private Cursor(IProtocolClient owner, String header) {
+            this.owner = owner;
+            this.header = header;
+            this.lastReadAt = System.currentTimeMillis();
+        }
+
+        /**
+         * Appends the next rows to the chunk.
+         *
+         * @return <code>true</code> if more rows may follow.
+         */
+        protected abstract boolean fill(StringBuilder csv);
+
+    }
+
+    private final class OrdersCursor extends Cursor {
+
+        private final Date from;
+        private final Date to;
+        private Integer lastId;
+
+        private OrdersCursor(IProtocolClient owner, LocalDate from, LocalDate to) {
+            super(owner, "order_id,cart_id,date,time,menu_id,menu_name,quantity,price,amount");
+            this.from = SalesRollup.toDate(from);
+            this.to = SalesRollup.toDate(to);
+            this.lastId = 0;
+        }
+
+        @Override
+        protected boolean fill(StringBuilder csv) {
+            final long startedAt = System.nanoTime();
+            EntityManager entityManager = ENTITY_MANAGER_SUPPLIER.get();
+            try {
+                List<Object[]> rows = entityManager.createQuery("SELECT o.id, c.id, c.date, c.time, o.idmenu.id, o.total FROM Orders o JOIN o.idcart c WHERE o.id > :lastId AND c.date BETWEEN :from AND :to ORDER BY o.id", Object[].class)
+                        .setParameter("lastId", lastId)
+                        .setParameter("from", from, TemporalType.DATE)
+                        .setParameter("to", to, TemporalType.DATE)
+                        .setMaxResults(CHUNK_ROWS)
+                        .getResultList();
+                for(Object[] row : rows) {
+                    Menus menu = MENU_CATALOG.read((Integer) row[4]);
+                    int price = (menu == null) ? 0 : menu.getPrice();
+                    int total = ((Number) row[5]).intValue();
+                    appendRow(csv, row[0], row[1],
+                            (row[2] == null) ? "" : SalesRollup.toLocalDate((Date) row[2]),
+                            (row[3] == null) ? "" : Instant.ofEpochMilli(((Date) row[3]).getTime()).atZone(ZoneId.systemDefault()).toLocalTime().withNano(0),
+                            row[4], (menu == null) ? "" : menu.getName(), total, price, (long) total * price);
+                    lastId = (Integer) row[0];
+                }
+                return rows.size() == CHUNK_ROWS;
+            } finally {
+                entityManager.close();
+                METRICS.recordDatabase(startedAt);
+            }
+        }
+
+    }
+
+    private final class DailySalesCursor extends Cursor {
+
+        private final LocalDate to;
+        private LocalDate nextDay;
+
+        private DailySalesCursor(IProtocolClient owner, LocalDate from, LocalDate to) {
+            super(owner, "date,menu_id,menu_name,quantity,income");
+            this.to = to;
+            this.nextDay = from;
+        }
+
+        @Override
+        protected boolean fill(StringBuilder csv) {
+            int rows = 0;
+            while(rows < CHUNK_ROWS && !nextDay.isAfter(to)) {
+                for(Map.Entry<Integer, long[]> sales : new TreeMap<Integer, long[]>(SALES_ROLLUP.readDay(nextDay)).entrySet()) {
+                    Menus menu = MENU_CATALOG.read(sales.getKey());
+                    appendRow(csv, nextDay, sales.getKey(), (menu == null) ? "" : menu.getName(), sales.getValue()[0], sales.getValue()[1]);
+                    rows++;
+                }
+                nextDay = nextDay.plusDays(1);
+            }
+            return !nextDay.isAfter(to);
+        }
+
+    }
+
+    /**
+     * <h2>constructor <code>SalesExporter()</code></h2>
+     * <p>Create a new exporter without any open export.</p>
+     *
+     * @param entityManagerSupplier Opens an <code>EntityManager</code> for
+     *                              every chunk of orders.
+     * @param menuCatalog           <code>MenuCatalog</code> naming and pricing
+     *                              the exported menus.
+     * @param salesRollup           <code>SalesRollup</code> of the daily sales.
+     * @param metrics               <code>ProtocolMetrics</code> recording the
+     *                              time spent in the database.
+     * @param chunkRows             Number of rows per chunk.
+     * @param idleTimeout           Time in milliseconds an export may stay
+     *                              unread before it is dropped.
+     */
+    protected SalesExporter(Supplier<EntityManager> entityManagerSupplier, MenuCatalog menuCatalog, SalesRollup salesRollup, ProtocolMetrics metrics, int chunkRows, long idleTimeout) {
+        this.ENTITY_MANAGER_SUPPLIER = entityManagerSupplier;
+        this.MENU_CATALOG = menuCatalog;
+        this.SALES_ROLLUP = salesRollup;
+        this.METRICS = metrics;
+        this.CURSOR_MAP = new ConcurrentHashMap<Long, Cursor>();
+        this.LAST_ID = new AtomicLong(System.currentTimeMillis() * 1000L);
+        this.CHUNK_ROWS = chunkRows;
+        this.IDLE_TIMEOUT = idleTimeout;
+    }
+
+    /**
+     * <h2>method <code>open()</code></h2>
+     * <p>Method <code>open</code> is used to open a new export. Nothing is read
+     * until the first chunk is pulled.</p>
+     *
+     * @param owner Client opening the export.
+     * @param type  <code>SalesExportType</code> of the export.
+     * @param from  First day of the export.
+     * @param to    Last day of the export, inclusive.
+     * @return ID of the export.
+     */
+    protected Long open(IProtocolClient owner, SalesExportType type, LocalDate from, LocalDate to) {
+        long now = System.currentTimeMillis();
+        CURSOR_MAP.values().removeIf((cursor) -> now - cursor.lastReadAt > IDLE_TIMEOUT);
+        Long id = LAST_ID.incrementAndGet();
+        CURSOR_MAP.put(id, (type == SalesExportType.ORDERS) ? new OrdersCursor(owner, from, to) : new DailySalesCursor(owner, from, to));
+        return id;
+    }
+
+    /**
+     * <h2>method <code>read()</code></h2>
+     * <p>Method <code>read</code> is used to produce the next chunk of an
+     * export. The first chunk starts with the CSV header.</p>
+     *
+     * @param owner Client that opened the export.
+     * @param id    ID of the export.
+     * @return The next chunk as UTF-8 CSV, or <code>null</code> if the export
+     *         is finished, unknown, expired, or owned by another client.
+     */
+    protected byte[] read(IProtocolClient owner, Long id) {
+        Cursor cursor = (id == null) ? null : CURSOR_MAP.get(id);
+        if(cursor == null || !cursor.owner.equals(owner)) return null;
+        synchronized(cursor) {
+            if(cursor.isFinished) {
+                CURSOR_MAP.remove(id);
+                return null;
+            }
+            StringBuilder csv = new StringBuilder();
+            if(!cursor.isHeaderWritten) {
+                csv.append(cursor.header).append("\r\n");
+                cursor.isHeaderWritten = true;
+            }
+            cursor.isFinished = !cursor.fill(csv);
+            cursor.lastReadAt = System.currentTimeMillis();
+            return csv.toString().getBytes(StandardCharsets.UTF_8);
+        }
+    }
+
+    /**
+     * <h2>method <code>close()</code></h2>
+     * <p>Method <code>close</code> is used to drop an export before it is
+     * finished.</p>
+     *
+     * @param owner Client that opened the export.
+     * @param id    ID of the export.
+     * @return <code>true</code> if the export was open.
+     */
+    protected boolean close(IProtocolClient owner, Long id) {
+        Cursor cursor = (id == null) ? null : CURSOR_MAP.get(id);
+        return cursor != null && cursor.owner.equals(owner) && CURSOR_MAP.remove(id, cursor);
+    }
+
+    private static void appendRow(StringBuilder csv, Object... fields) {
+        for(int i = 0; i < fields.length; i++) {
+            if(i > 0) csv.append(',');
+            String field = (fields[i] == null) ? "" : String.valueOf(fields[i]);
+            if(field.indexOf(',') < 0 && field.indexOf('"') < 0 && field.indexOf('\n') < 0 && field.indexOf('\r') < 0) csv.append(field);
+            else csv.append('"').append(field.replace("\"", "\"\"")).append('"');
+        }
+        csv.append("\r\n");
+    }
+
+}
@@ -0,0 +1,112 @@
+/*
+ * Copyright 2017 Danang Galuh Tegar P.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.jogjadamai.infest.communication;
+
+import java.io.Serializable;
+import java.time.DayOfWeek;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * <h1>class <code>SalesHeatmap</code></h1>
+ * <p><code>SalesHeatmap</code> is the number of orders and the income of a
+ * range of dates, bucketed by day of the week and hour of the day, for every
+ * menu type. Orders whose cart has no time are not counted; orders of a menu
+ * that no longer exists are counted under type <code>-1</code>.</p>
+ * <br>
+ * <p><b><i>Coded, built, and packaged with passion by Danang Galuh Tegar P for Infest.</i></b></p>
+ *
+ * @author Danang Galuh Tegar P
+ * @version 2017.03.10.0001
+ * @see com.jogjadamai.infest.communication.IExtendedProtocolServer
+ */
+public final class SalesHeatmap implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * Number of cells of one type: seven days of 24 hours, Monday first.
+     */
+    static final int CELLS = 7 * 24;
+
+    private final Map<Integer, long[]> orderCountMap;
+    private final Map<Integer, long[]> incomeMap;
+
+    protected SalesHeatmap(Map<Integer, long[]> orderCountMap, Map<Integer, long[]> incomeMap) {
+        this.orderCountMap = orderCountMap;
+        this.incomeMap = incomeMap;
+    }
+
+    /**
+     * @return Menu types with at least one order.
+     */
+    public Set<Integer> getTypes() {
+        return Collections.unmodifiableSet(orderCountMap.keySet());
+    }
+
+    /**
+     * @param dayOfWeek Day of the week.
+     * @param hour      Hour of the day, from 0 to 23.
+     * @return Number of orders of every type in the bucket.
+     */
+    public long getOrderCount(DayOfWeek dayOfWeek, int hour) {
+        return sum(orderCountMap, cell(dayOfWeek, hour));
+    }
+
+    /**
+     * @param type      Menu type.
+     * @param dayOfWeek Day of the week.
+     * @param hour      Hour of the day, from 0 to 23.
+     * @return Number of orders of the type in the bucket.
+     */
+    public long getOrderCount(int type, DayOfWeek dayOfWeek, int hour) {
+        long[] cells = orderCountMap.get(type);
+        return (cells == null) ? 0 : cells[cell(dayOfWeek, hour)];
+    }
+
+    /**
+     * @param dayOfWeek Day of the week.
+     * @param hour      Hour of the day, from 0 to 23.
+     * @return Income of every type in the bucket.
+     */
+    public long getIncome(DayOfWeek dayOfWeek, int hour) {
+        return sum(incomeMap, cell(dayOfWeek, hour));
+    }
+
+    /**
+     * @param type      Menu type.
+     * @param dayOfWeek Day of the week.
+     * @param hour      Hour of the day, from 0 to 23.
+     * @return Income of the type in the bucket.
+     */
+    public long getIncome(int type, DayOfWeek dayOfWeek, int hour) {
+        long[] cells = incomeMap.get(type);
+        return (cells == null) ? 0 : cells[cell(dayOfWeek, hour)];
+    }
+
+    private static int cell(DayOfWeek dayOfWeek, int hour) {
+        if(hour < 0 || hour > 23) throw new IllegalArgumentException("Hour must be from 0 to 23.");
+        return (dayOfWeek.getValue() - 1) * 24 + hour;
+    }
+
+    private static long sum(Map<Integer, long[]> cellMap, int cell) {
+        long sum = 0;
+        for(long[] cells : cellMap.values()) sum += cells[cell];
+        return sum;
+    }
+
+}
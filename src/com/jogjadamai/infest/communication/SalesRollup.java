@@ -0,0 +1,315 @@
+/*
+ * Copyright 2017 Danang Galuh Tegar P.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.jogjadamai.infest.communication;
+
+import com.jogjadamai.infest.entity.Carts;
+import com.jogjadamai.infest.entity.Orders;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * <h1>class <code>SalesRollup</code></h1>
+ * <p><code>SalesRollup</code> keeps the daily sales of
+ * <code>ProtocolServer</code> in memory: for every day and every menu, the
+ * quantity ordered and the income it made. It is updated after every
+ * committed order, together with the <code>OrderFactStore</code> it is built
+ * from, and can be rebuilt from scratch by reloading the store from the
+ * database, so reports never have to read raw orders.</p>
+ * <p>Income is taken at the price the menu had at the time of the cart, from
+ * the <code>MenuPriceHistory</code>, both when an order is recorded and when
+ * the rollup is rebuilt, so a rebuild gives back the same income.</p>
+ * <p>A cart moved to another time has its orders moved by appending facts
+ * that take them out of their old time and add them at the new one, so the
+ * order facts stay append-only.</p>
+ * <p>Writers hold the update lock from before their commit until their orders
+ * are recorded, and a rebuild holds it exclusively, so every committed order
+ * is counted exactly once whether it committed before or after the rebuild
+ * read the database.</p>
+ * <br>
+ * <p><b><i>Coded, built, and packaged with passion by Danang Galuh Tegar P for Infest.</i></b></p>
+ *
+ * @author Danang Galuh Tegar P
+ * @version 2017.03.10.0001
+ * @see com.jogjadamai.infest.communication.ProtocolServer
+ */
+final class SalesRollup {
+
+    private final OrderFactStore ORDER_FACTS;
+    private final TopSellerTracker TOP_SELLERS;
+    private final MenuPriceHistory MENU_PRICES;
+    private final ReadWriteLock LOCK;
+
+    private volatile ConcurrentMap<LocalDate, ConcurrentMap<Integer, Totals>> days;
+
+    private static final class Totals {
+
+        private final LongAdder quantity;
+        private final LongAdder income;
+
+        private Totals() {
+            this.quantity = new LongAdder();
+            this.income = new LongAdder();
+        }
+
+        private void add(long quantity, long income) {
+            this.quantity.add(quantity);
+            this.income.add(income);
+        }
+
+        private long getQuantity() {
+            return quantity.sum();
+        }
+
+        private long getIncome() {
+            return income.sum();
+        }
+
+    }
+
+    private static final class RangeTask extends RecursiveTask<Map<Integer, long[]>> {
+
+        private static final long serialVersionUID = 1L;
+        private static final long THRESHOLD = 32L;
+
+        private final Map<LocalDate, ConcurrentMap<Integer, Totals>> days;
+        private final long fromDay;
+        private final long toDay;
+
+        private RangeTask(Map<LocalDate, ConcurrentMap<Integer, Totals>> days, long fromDay, long toDay) {
+            this.days = days;
+            this.fromDay = fromDay;
+            this.toDay = toDay;
+        }
+
+        @Override
+        protected Map<Integer, long[]> compute() {
+            Map<Integer, long[]> sums = new HashMap<Integer, long[]>();
+            if(toDay - fromDay <= THRESHOLD) {
+                for(long epochDay = fromDay; epochDay < toDay; epochDay++) {
+                    Map<Integer, Totals> day = days.get(LocalDate.ofEpochDay(epochDay));
+                    if(day != null) day.forEach((menuId, totals) -> {
+                        long[] sum = sums.computeIfAbsent(menuId, (key) -> new long[2]);
+                        sum[0] += totals.getQuantity();
+                        sum[1] += totals.getIncome();
+                    });
+                }
+                return sums;
+            }
+            long middleDay = (fromDay + toDay) >>> 1;
+            RangeTask left = new RangeTask(days, fromDay, middleDay);
+            left.fork();
+            sums.putAll(new RangeTask(days, middleDay, toDay).compute());
+            left.join().forEach((menuId, sum) -> sums.merge(menuId, sum, (a, b) -> new long[] {a[0] + b[0], a[1] + b[1]}));
+            return sums;
+        }
+
+    }
+
+    protected SalesRollup(OrderFactStore orderFacts, TopSellerTracker topSellers, MenuPriceHistory menuPrices) {
+        this.ORDER_FACTS = orderFacts;
+        this.TOP_SELLERS = topSellers;
+        this.MENU_PRICES = menuPrices;
+        this.LOCK = new ReentrantReadWriteLock();
+        this.days = new ConcurrentHashMap<LocalDate, ConcurrentMap<Integer, Totals>>();
+    }
+
+    /**
+     * <h2>method <code>getUpdateLock()</code></h2>
+     * <p>Method <code>getUpdateLock</code> is used to get the lock a writer
+     * must hold from before committing orders until they are recorded. It is
+     * shared between writers.</p>
+     *
+     * @return The shared update <code>Lock</code>.
+     */
+    protected Lock getUpdateLock() {
+        return LOCK.readLock();
+    }
+
+    /**
+     * <h2>method <code>record()</code></h2>
+     * <p>Method <code>record</code> is used to add a committed order to the
+     * day of its cart, append its fact to the <code>OrderFactStore</code>,
+     * and count it in the <code>TopSellerTracker</code>.</p>
+     *
+     * @param order The committed <code>Orders</code> entity.
+     * @return The day the order was recorded under.
+     */
+    protected LocalDate record(Orders order) {
+        Carts cart = order.getIdcart();
+        LocalDate date = (cart != null && cart.getDate() != null) ? toLocalDate(cart.getDate()) : LocalDate.now();
+        int minute = (cart != null) ? OrderFactStore.toMinute(cart.getTime()) : -1;
+        append(order.getIdmenu().getId(), order.getTotal(), date, minute);
+        return date;
+    }
+
+    /**
+     * <h2>method <code>move()</code></h2>
+     * <p>Method <code>move</code> is used to move the recorded orders of a
+     * cart from the date and time it had to the ones it has now. The caller
+     * must hold the update lock from before the cart is committed.</p>
+     *
+     * @param previous The cart as its orders were recorded.
+     * @param cart     The cart as it is committed now.
+     * @param orders   The orders of the cart.
+     */
+    protected void move(Carts previous, Carts cart, List<Orders> orders) {
+        LocalDate previousDate = toLocalDate(previous.getDate());
+        int previousMinute = OrderFactStore.toMinute(previous.getTime());
+        LocalDate date = toLocalDate(cart.getDate());
+        int minute = OrderFactStore.toMinute(cart.getTime());
+        for(Orders order : orders) {
+            if(order.getIdmenu() == null) continue;
+            append(order.getIdmenu().getId(), -order.getTotal(), previousDate, previousMinute);
+            append(order.getIdmenu().getId(), order.getTotal(), date, minute);
+        }
+    }
+
+    private void append(int menuId, int quantity, LocalDate date, int minute) {
+        int price = MENU_PRICES.priceAt(menuId, TopSellerTracker.toMinuteIndex(date.toEpochDay(), minute));
+        ORDER_FACTS.append(menuId, quantity, date, minute, price);
+        TOP_SELLERS.record(menuId, quantity, date, minute);
+        add(days, date, menuId, quantity, price);
+    }
+
+    /**
+     * <h2>method <code>readDay()</code></h2>
+     * <p>Method <code>readDay</code> is used to read the sales of every menu
+     * on one day.</p>
+     *
+     * @param date The day to be read.
+     * @return Quantity and income, in that order, by menu ID; menus without
+     *         sales are absent.
+     */
+    protected Map<Integer, long[]> readDay(LocalDate date) {
+        Map<Integer, long[]> sums = new HashMap<Integer, long[]>();
+        Map<Integer, Totals> day = days.get(date);
+        if(day != null) day.forEach((menuId, totals) -> {
+            // Orders moved away from the day leave their totals at zero.
+            if(totals.getQuantity() != 0) sums.put(menuId, new long[] {totals.getQuantity(), totals.getIncome()});
+        });
+        return sums;
+    }
+
+    /**
+     * <h2>method <code>readAll()</code></h2>
+     * <p>Method <code>readAll</code> is used to read the sales of every menu
+     * summed over every day, in one pass over the order facts.</p>
+     *
+     * @return Quantity and income, in that order, by menu ID.
+     */
+    protected Map<Integer, long[]> readAll() {
+        return ORDER_FACTS.sumByMenu(Long.MIN_VALUE, Long.MAX_VALUE);
+    }
+
+    /**
+     * <h2>method <code>readRange()</code></h2>
+     * <p>Method <code>readRange</code> is used to read the sales of every menu
+     * over a range of days, grouped into buckets. Every bucket is summed as
+     * its own fork/join task, and long buckets are split further, so the days
+     * of the range are summed in parallel.</p>
+     *
+     * @param from   First day of the range.
+     * @param to     Last day of the range, inclusive.
+     * @param bucket Period of every bucket, or <code>null</code> for one
+     *               bucket spanning the whole range.
+     * @return Quantity and income by menu ID, by the first day of every
+     *         bucket in the range.
+     */
+    protected SortedMap<LocalDate, Map<Integer, long[]>> readRange(LocalDate from, LocalDate to, ReportBucket bucket) {
+        ConcurrentMap<LocalDate, ConcurrentMap<Integer, Totals>> days = this.days;
+        SortedMap<LocalDate, RangeTask> tasks = new TreeMap<LocalDate, RangeTask>();
+        for(LocalDate start = from; !start.isAfter(to); ) {
+            LocalDate next = (bucket == null) ? to.plusDays(1) : bucket.nextStart(start);
+            LocalDate end = next.isAfter(to) ? to.plusDays(1) : next;
+            RangeTask task = new RangeTask(days, start.toEpochDay(), end.toEpochDay());
+            task.fork();
+            tasks.put(start, task);
+            start = end;
+        }
+        SortedMap<LocalDate, Map<Integer, long[]>> buckets = new TreeMap<LocalDate, Map<Integer, long[]>>();
+        tasks.forEach((start, task) -> buckets.put(start, task.join()));
+        return buckets;
+    }
+
+    /**
+     * <h2>method <code>rebuild()</code></h2>
+     * <p>Method <code>rebuild</code> is used to reload the
+     * <code>OrderFactStore</code> from every order in the database and build
+     * the rollup and the top sellers again from its facts.</p>
+     */
+    protected void rebuild() {
+        Lock lock = LOCK.writeLock();
+        lock.lock();
+        try {
+            ORDER_FACTS.load();
+            OrderFactStore.Columns columns = ORDER_FACTS.getColumns();
+            ConcurrentMap<LocalDate, ConcurrentMap<Integer, Totals>> rebuilt = new ConcurrentHashMap<LocalDate, ConcurrentMap<Integer, Totals>>();
+            for(int i = 0; i < columns.size; i++) {
+                add(rebuilt, LocalDate.ofEpochDay(columns.epochDays[i]), columns.menuIds[i], columns.quantities[i], columns.prices[i]);
+            }
+            days = rebuilt;
+            TOP_SELLERS.reload();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * <h2>static method <code>toLocalDate()</code></h2>
+     * <p>Method <code>toLocalDate</code> is used to get the day of a
+     * <code>Date</code> in the system time zone. It also accepts
+     * <code>java.sql.Date</code>, which does not support
+     * <code>toInstant()</code>.</p>
+     *
+     * @param date The <code>Date</code> to be converted.
+     * @return The day of the date.
+     */
+    protected static LocalDate toLocalDate(Date date) {
+        return Instant.ofEpochMilli(date.getTime()).atZone(ZoneId.systemDefault()).toLocalDate();
+    }
+
+    /**
+     * <h2>static method <code>toDate()</code></h2>
+     * <p>Method <code>toDate</code> is used to get the start of a day in the
+     * system time zone as a <code>Date</code>.</p>
+     *
+     * @param date The day to be converted.
+     * @return The <code>Date</code> at the start of the day.
+     */
+    protected static Date toDate(LocalDate date) {
+        return Date.from(date.atStartOfDay(ZoneId.systemDefault()).toInstant());
+    }
+
+    private static void add(ConcurrentMap<LocalDate, ConcurrentMap<Integer, Totals>> days, LocalDate date, Integer menuId, long quantity, long price) {
+        ConcurrentMap<Integer, Totals> day = days.computeIfAbsent(date, (key) -> new ConcurrentHashMap<Integer, Totals>());
+        day.computeIfAbsent(menuId, (key) -> new Totals()).add(quantity, quantity * price);
+    }
+
+}
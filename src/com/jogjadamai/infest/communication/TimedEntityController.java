@@ -0,0 +1,117 @@
+/*
+ * Copyright 2017 Danang Galuh Tegar P.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.jogjadamai.infest.communication;
+
+import com.jogjadamai.infest.persistence.InfestEntityController;
+import com.jogjadamai.infest.persistence.exceptions.IllegalOrphanException;
+import com.jogjadamai.infest.persistence.exceptions.NonexistentEntityException;
+import java.util.List;
+
+/**
+ * <h1>class <code>TimedEntityController</code></h1>
+ * <p><code>TimedEntityController</code> is an <code>InfestEntityController</code>
+ * decorator used by <code>ProtocolServer</code> to record the time spent in
+ * every database call into <code>ProtocolMetrics</code>.</p>
+ * <br>
+ * <p><b><i>Coded, built, and packaged with passion by Danang Galuh Tegar P for Infest.</i></b></p>
+ *
+ * @author Danang Galuh Tegar P
+ * @version 2017.03.10.0001
+ * @param <T> Infest entity type of the decorated controller.
+ * @see com.jogjadamai.infest.persistence.InfestEntityController
+ * @see com.jogjadamai.infest.communication.ProtocolMetrics
+ */
+final class TimedEntityController<T> implements InfestEntityController<T> {
+
+    private final InfestEntityController<T> CONTROLLER;
+    private final ProtocolMetrics METRICS;
+
+    protected TimedEntityController(InfestEntityController<T> controller, ProtocolMetrics metrics) {
+        this.CONTROLLER = controller;
+        this.METRICS = metrics;
+    }
+
+    @Override
+    public void create(T entity) {
+        final long startedAt = System.nanoTime();
+        try {
+            CONTROLLER.create(entity);
+        } finally {
+            METRICS.recordDatabase(startedAt);
+        }
+    }
+
+    @Override
+    public void update(T entity) throws IllegalOrphanException, NonexistentEntityException, Exception {
+        final long startedAt = System.nanoTime();
+        try {
+            CONTROLLER.update(entity);
+        } finally {
+            METRICS.recordDatabase(startedAt);
+        }
+    }
+
+    @Override
+    public void delete(Integer id) throws IllegalOrphanException, NonexistentEntityException {
+        final long startedAt = System.nanoTime();
+        try {
+            CONTROLLER.delete(id);
+        } finally {
+            METRICS.recordDatabase(startedAt);
+        }
+    }
+
+    @Override
+    public List<T> readAll() {
+        final long startedAt = System.nanoTime();
+        try {
+            return CONTROLLER.readAll();
+        } finally {
+            METRICS.recordDatabase(startedAt);
+        }
+    }
+
+    @Override
+    public List<T> readEntities(int maxResults, int firstResult) {
+        final long startedAt = System.nanoTime();
+        try {
+            return CONTROLLER.readEntities(maxResults, firstResult);
+        } finally {
+            METRICS.recordDatabase(startedAt);
+        }
+    }
+
+    @Override
+    public T read(Integer id) {
+        final long startedAt = System.nanoTime();
+        try {
+            return CONTROLLER.read(id);
+        } finally {
+            METRICS.recordDatabase(startedAt);
+        }
+    }
+
+    @Override
+    public int getEntitiesCount() {
+        final long startedAt = System.nanoTime();
+        try {
+            return CONTROLLER.getEntitiesCount();
+        } finally {
+            METRICS.recordDatabase(startedAt);
+        }
+    }
+
+}
@@ -0,0 +1,78 @@
+/*
+ * Copyright 2017 Danang Galuh Tegar P.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.jogjadamai.infest.communication;
+
+import java.io.Serializable;
+
+/**
+ * <h1>class <code>TopSeller</code></h1>
+ * <p><code>TopSeller</code> is one menu of a top sellers list with the
+ * quantity ordered in its <code>TopSellerWindow</code>. Live lists are
+ * counted with a bounded sketch that may overestimate a menu by at most its
+ * error; exact lists always have an error of zero.</p>
+ * <br>
+ * <p><b><i>Coded, built, and packaged with passion by Danang Galuh Tegar P for Infest.</i></b></p>
+ *
+ * @author Danang Galuh Tegar P
+ * @version 2017.03.10.0001
+ * @see com.jogjadamai.infest.communication.IExtendedProtocolServer
+ */
+public final class TopSeller implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private final Integer menuId;
+    private final String menuName;
+    private final long quantity;
+    private final long error;
+
+    protected TopSeller(Integer menuId, String menuName, long quantity, long error) {
+        this.menuId = menuId;
+        this.menuName = menuName;
+        this.quantity = quantity;
+        this.error = error;
+    }
+
+    /**
+     * @return The ID of the menu.
+     */
+    public Integer getMenuId() {
+        return menuId;
+    }
+
+    /**
+     * @return The name of the menu, or <code>null</code> if it no longer
+     *         exists.
+     */
+    public String getMenuName() {
+        return menuName;
+    }
+
+    /**
+     * @return Quantity ordered in the window.
+     */
+    public long getQuantity() {
+        return quantity;
+    }
+
+    /**
+     * @return Maximum amount by which the quantity may be overestimated.
+     */
+    public long getError() {
+        return error;
+    }
+
+}
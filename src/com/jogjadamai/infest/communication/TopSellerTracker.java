@@ -0,0 +1,247 @@
+/*
+ * Copyright 2017 Danang Galuh Tegar P.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.jogjadamai.infest.communication;
+
+import com.jogjadamai.infest.entity.Menus;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * <h1>class <code>TopSellerTracker</code></h1>
+ * <p><code>TopSellerTracker</code> keeps the best selling menus of
+ * <code>ProtocolServer</code> live for every <code>TopSellerWindow</code>.
+ * Every window is a ring of time slices, and every slice counts its orders
+ * with a Space-Saving sketch of a fixed number of counters, so the memory
+ * taken is bounded however many menus are ordered. When there are no more
+ * menus than counters, the counts are exact.</p>
+ * <p>Time is counted in local minutes since the epoch, the same timeline the
+ * <code>OrderFactStore</code> uses, so the exact counts read from the store
+ * can be compared with the live ones.</p>
+ * <br>
+ * <p><b><i>Coded, built, and packaged with passion by Danang Galuh Tegar P for Infest.</i></b></p>
+ *
+ * @author Danang Galuh Tegar P
+ * @version 2017.03.10.0001
+ * @see com.jogjadamai.infest.communication.TopSellerWindow
+ * @see com.jogjadamai.infest.communication.SalesRollup
+ */
+final class TopSellerTracker {
+
+    private final OrderFactStore ORDER_FACTS;
+    private final MenuCatalog MENU_CATALOG;
+    private final int CAPACITY;
+    private final Map<TopSellerWindow, SlidingSketch> SKETCH_MAP;
+
+    private final class Sketch {
+
+        // Quantity and maximum overestimate, by menu ID.
+        private final Map<Integer, long[]> counters = new HashMap<Integer, long[]>();
+
+        private void add(int menuId, long quantity) {
+            long[] counter = counters.get(menuId);
+            if(counter != null) {
+                counter[0] += quantity;
+                return;
+            }
+            // A menu taken back after its counter was evicted is already
+            // within the error of the counter that took its place.
+            if(quantity < 0) return;
+            if(counters.size() < CAPACITY) {
+                counters.put(menuId, new long[] {quantity, 0});
+                return;
+            }
+            // Space-Saving: the new menu takes over the smallest counter and
+            // inherits its count as the bound of its error.
+            Map.Entry<Integer, long[]> smallest = null;
+            for(Map.Entry<Integer, long[]> entry : counters.entrySet()) {
+                if(smallest == null || entry.getValue()[0] < smallest.getValue()[0]) smallest = entry;
+            }
+            long[] taken = counters.remove(smallest.getKey());
+            counters.put(menuId, new long[] {taken[0] + quantity, taken[0]});
+        }
+
+    }
+
+    private final class SlidingSketch {
+
+        private final TopSellerWindow window;
+        private final long[] slices;
+        private final Sketch[] sketches;
+
+        private SlidingSketch(TopSellerWindow window) {
+            this.window = window;
+            this.slices = new long[window.sliceCount];
+            this.sketches = new Sketch[window.sliceCount];
+            Arrays.fill(slices, Long.MIN_VALUE);
+        }
+
+        private void add(int menuId, long quantity, long minute, long now) {
+            long slice = Math.floorDiv(minute, window.sliceMinutes);
+            long currentSlice = Math.floorDiv(now, window.sliceMinutes);
+            if(slice <= currentSlice - window.sliceCount || slice < slices[slotOf(slice)]) return;
+            int slot = slotOf(slice);
+            if(slices[slot] != slice) {
+                slices[slot] = slice;
+                sketches[slot] = new Sketch();
+            }
+            sketches[slot].add(menuId, quantity);
+        }
+
+        private Map<Integer, long[]> merge(long now) {
+            long currentSlice = Math.floorDiv(now, window.sliceMinutes);
+            Map<Integer, long[]> merged = new HashMap<Integer, long[]>();
+            for(int slot = 0; slot < slices.length; slot++) {
+                if(slices[slot] <= currentSlice - window.sliceCount || slices[slot] > currentSlice) continue;
+                sketches[slot].counters.forEach((menuId, counter) -> merged.merge(menuId, counter.clone(), (a, b) -> new long[] {a[0] + b[0], a[1] + b[1]}));
+            }
+            return merged;
+        }
+
+        private int slotOf(long slice) {
+            return (int) Math.floorMod(slice, (long) window.sliceCount);
+        }
+
+    }
+
+    /**
+     * <h2>constructor <code>TopSellerTracker()</code></h2>
+     * <p>Create a new tracker without any order.</p>
+     *
+     * @param orderFacts  <code>OrderFactStore</code> read for exact counts.
+     * @param menuCatalog <code>MenuCatalog</code> naming the menus.
+     * @param capacity    Number of counters of every slice.
+     */
+    protected TopSellerTracker(OrderFactStore orderFacts, MenuCatalog menuCatalog, int capacity) {
+        this.ORDER_FACTS = orderFacts;
+        this.MENU_CATALOG = menuCatalog;
+        this.CAPACITY = capacity;
+        this.SKETCH_MAP = new EnumMap<TopSellerWindow, SlidingSketch>(TopSellerWindow.class);
+        for(TopSellerWindow window : TopSellerWindow.values()) SKETCH_MAP.put(window, new SlidingSketch(window));
+    }
+
+    /**
+     * <h2>method <code>record()</code></h2>
+     * <p>Method <code>record</code> is used to count a committed order in
+     * every window.</p>
+     *
+     * @param menuId   The ID of the ordered menu.
+     * @param quantity Quantity ordered, negative to take back an order moved
+     *                 to another time.
+     * @param date     Date of the cart.
+     * @param minute   Minute of the day of the cart, or <code>-1</code> if
+     *                 unknown.
+     */
+    protected synchronized void record(int menuId, int quantity, LocalDate date, int minute) {
+        long orderMinute = toMinuteIndex(date.toEpochDay(), minute);
+        long now = now();
+        for(SlidingSketch sketch : SKETCH_MAP.values()) sketch.add(menuId, quantity, orderMinute, now);
+    }
+
+    /**
+     * <h2>method <code>reload()</code></h2>
+     * <p>Method <code>reload</code> is used to discard every count and count
+     * again the orders of the last seven days in the
+     * <code>OrderFactStore</code>. Orders recorded while reloading must be
+     * held back by the caller until it returns.</p>
+     */
+    protected synchronized void reload() {
+        for(TopSellerWindow window : TopSellerWindow.values()) SKETCH_MAP.put(window, new SlidingSketch(window));
+        long now = now();
+        long from = now - 7L * 1440L;
+        OrderFactStore.Columns columns = ORDER_FACTS.getColumns();
+        for(int i = 0; i < columns.size; i++) {
+            long orderMinute = toMinuteIndex(columns.epochDays[i], columns.minutes[i]);
+            if(orderMinute <= from) continue;
+            for(SlidingSketch sketch : SKETCH_MAP.values()) sketch.add(columns.menuIds[i], columns.quantities[i], orderMinute, now);
+        }
+    }
+
+    /**
+     * <h2>method <code>read()</code></h2>
+     * <p>Method <code>read</code> is used to read the best selling menus of a
+     * window, either from the live sketches or exactly from the
+     * <code>OrderFactStore</code>.</p>
+     *
+     * @param window <code>TopSellerWindow</code> to be read.
+     * @param limit  Maximum number of menus.
+     * @param exact  <code>true</code> to count every order in the window
+     *               instead of reading the sketches.
+     * @return The <code>TopSeller</code> list, best selling first.
+     */
+    protected List<TopSeller> read(TopSellerWindow window, int limit, boolean exact) {
+        long now = now();
+        Map<Integer, long[]> counts;
+        if(!exact) {
+            synchronized(this) {
+                counts = SKETCH_MAP.get(window).merge(now);
+            }
+        } else if(window == TopSellerWindow.TODAY) {
+            counts = ORDER_FACTS.sumByMenu(Math.floorDiv(now, 1440L), Math.floorDiv(now, 1440L));
+        } else {
+            counts = ORDER_FACTS.sumByMenuSince(now - (long) window.sliceMinutes * window.sliceCount + 1);
+        }
+        return toTopSellers(counts, limit, exact);
+    }
+
+    /**
+     * <h2>method <code>readDay()</code></h2>
+     * <p>Method <code>readDay</code> is used to read the best selling menus of
+     * one day, counted exactly from the <code>OrderFactStore</code>.</p>
+     *
+     * @param date  The day to be read.
+     * @param limit Maximum number of menus.
+     * @return The <code>TopSeller</code> list, best selling first.
+     */
+    protected List<TopSeller> readDay(LocalDate date, int limit) {
+        return toTopSellers(ORDER_FACTS.sumByMenu(date.toEpochDay(), date.toEpochDay()), limit, true);
+    }
+
+    private List<TopSeller> toTopSellers(Map<Integer, long[]> counts, int limit, boolean exact) {
+        List<TopSeller> topSellers = new ArrayList<TopSeller>(counts.size());
+        counts.forEach((menuId, count) -> {
+            Menus menu = MENU_CATALOG.read(menuId);
+            topSellers.add(new TopSeller(menuId, (menu == null) ? null : menu.getName(), count[0], exact ? 0 : count[1]));
+        });
+        topSellers.sort((a, b) -> Long.compare(b.getQuantity(), a.getQuantity()));
+        return (topSellers.size() > limit) ? new ArrayList<TopSeller>(topSellers.subList(0, limit)) : topSellers;
+    }
+
+    /**
+     * <h2>static method <code>toMinuteIndex()</code></h2>
+     * <p>Method <code>toMinuteIndex</code> is used to get the local minutes
+     * since the epoch of a minute of a day. An unknown minute is taken as the
+     * start of the day.</p>
+     *
+     * @param epochDay Epoch day.
+     * @param minute   Minute of the day, or <code>-1</code> if unknown.
+     * @return Local minutes since the epoch.
+     */
+    protected static long toMinuteIndex(long epochDay, int minute) {
+        return epochDay * 1440L + Math.max(minute, 0);
+    }
+
+    private static long now() {
+        LocalDateTime now = LocalDateTime.now();
+        return toMinuteIndex(now.toLocalDate().toEpochDay(), now.getHour() * 60 + now.getMinute());
+    }
+
+}
@@ -0,0 +1,45 @@
+/*
+ * Copyright 2017 Danang Galuh Tegar P.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.jogjadamai.infest.communication;
+
+/**
+ * <h1>enum <code>TopSellerWindow</code></h1>
+ * <p><code>TopSellerWindow</code> is the period the top sellers are counted
+ * over. The live counts slide in slices: the last hour by five minutes and the
+ * last seven days by six hours, so they cover the period plus up to one slice
+ * more. <code>TODAY</code> starts at midnight.</p>
+ * <br>
+ * <p><b><i>Coded, built, and packaged with passion by Danang Galuh Tegar P for Infest.</i></b></p>
+ *
+ * @author Danang Galuh Tegar P
+ * @version 2017.03.10.0001
+ * @see com.jogjadamai.infest.communication.IExtendedProtocolServer
+ */
+public enum TopSellerWindow {
+
+    LAST_HOUR(5, 12),
+    TODAY(1440, 1),
+    LAST_7_DAYS(360, 28);
+
+    final int sliceMinutes;
+    final int sliceCount;
+
+    private TopSellerWindow(int sliceMinutes, int sliceCount) {
+        this.sliceMinutes = sliceMinutes;
+        this.sliceCount = sliceCount;
+    }
+
+}
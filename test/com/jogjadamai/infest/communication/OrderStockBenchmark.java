@@ -0,0 +1,202 @@
+/*
+ * Copyright 2017 Danang Galuh Tegar P.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.jogjadamai.infest.communication;
+import com.jogjadamai.infest.entity.Carts;
+import com.jogjadamai.infest.entity.Menus;
+import com.jogjadamai.infest.entity.Orders;
+import java.rmi.RemoteException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * <h1>class <code>OrderStockBenchmark</code></h1>
+ * <p><code>OrderStockBenchmark</code> places 100 simultaneous orders on one
+ * menu through a <code>ProtocolServer</code> over a
+ * <code>StubPersistence</code>, from 100 customer clients released at once.
+ * The menu holds less stock than is ordered, so some orders must be
+ * rejected. Each round checks that:</p>
+ * <ul>
+ * <li>every order is either accepted or counted as rejected,</li>
+ * <li>the final stock is the initial stock minus the accepted orders,</li>
+ * <li>the stock never went below zero, and</li>
+ * <li>the stock served by the server matches the stored stock.</li>
+ * </ul>
+ * <p>It runs one round through <code>createOrder()</code>, one through
+ * <code>createCartWithOrders()</code>, and then throughput rounds with
+ * enough stock for every order, printing orders per second.</p>
+ * <p>Run it with <code>main()</code>; it exits with status 0 when every check
+ * passes. The server writes its <code>log</code>, <code>report</code>, and
+ * <code>thumbnail</code> directories in the working directory.</p>
+ * <br>
+ * <p><b><i>Coded, built, and packaged with passion by Danang Galuh Tegar P for Infest.</i></b></p>
+ *
+ * @author Danang Galuh Tegar P
+ * @version 2017.03.10.0001
+ */
+public final class OrderStockBenchmark {
+
+    private static final int SERVICE_PORT = 42791;
+    private static final int ORDER_COUNT = 100;
+    private static final int SHORT_STOCK = 60;
+    private static final int THROUGHPUT_ROUNDS = 5;
+    private static final int THROUGHPUT_ORDERS_PER_CLIENT = 100;
+
+    private final StubPersistence PERSISTENCE;
+    private final ProtocolServer SERVER;
+    private final List<IProtocolClient> CLIENTS;
+    private final List<String> FAILURES;
+
+    private OrderStockBenchmark() throws RemoteException {
+        this.PERSISTENCE = new StubPersistence();
+        // The server serves menus from its catalog, loaded when it starts,
+        // so the menu of every round is added beforehand.
+        addMenu("createOrder", SHORT_STOCK);
+        addMenu("createCartWithOrders", SHORT_STOCK);
+        for(int round = 1; round <= THROUGHPUT_ROUNDS; round++) addMenu("throughput round " + round, ORDER_COUNT * THROUGHPUT_ORDERS_PER_CLIENT);
+        this.SERVER = new ProtocolServer(SERVICE_PORT, PERSISTENCE::getController, PERSISTENCE::createEntityManager);
+        this.CLIENTS = new ArrayList<IProtocolClient>(ORDER_COUNT);
+        this.FAILURES = Collections.synchronizedList(new ArrayList<String>());
+    }
+
+    /**
+     * <h2>method <code>main()</code></h2>
+     * <p>Method <code>main</code> is used to run the benchmark.</p>
+     *
+     * @param args Not used.
+     * @throws Exception Any exception failing the run.
+     */
+    public static void main(String[] args) throws Exception {
+        OrderStockBenchmark benchmark = new OrderStockBenchmark();
+        boolean isPassed = benchmark.run();
+        // The RMI registry of the server keeps the VM alive.
+        System.exit(isPassed ? 0 : 1);
+    }
+
+    private boolean run() throws Exception {
+        SERVER.start();
+        for(int i = 0; i < ORDER_COUNT; i++) {
+            IProtocolClient client = new StubProtocolClient(IProtocolClient.Type.CUSTOMER);
+            SERVER.authenticate(client);
+            CLIENTS.add(client);
+        }
+        ExecutorService executor = Executors.newFixedThreadPool(ORDER_COUNT);
+        try {
+            runShortStockRound("createOrder", executor, false);
+            runShortStockRound("createCartWithOrders", executor, true);
+            for(int round = 1; round <= THROUGHPUT_ROUNDS; round++) runThroughputRound(round, executor);
+        } finally {
+            executor.shutdownNow();
+        }
+        FAILURES.forEach(System.out::println);
+        System.out.println(FAILURES.isEmpty() ? "PASSED" : "FAILED with " + FAILURES.size() + " failure(s)");
+        return FAILURES.isEmpty();
+    }
+
+    private void runShortStockRound(String method, ExecutorService executor, boolean isInCart) throws Exception {
+        Menus menu = findMenu(method);
+        int[] counts = placeOrders(menu, 1, executor, isInCart);
+        int accepted = counts[0], rejected = counts[1];
+        System.out.println(String.format("%s: %d simultaneous orders on a stock of %d, %d accepted, %d rejected.", method, ORDER_COUNT, SHORT_STOCK, accepted, rejected));
+        check(method, accepted + rejected == ORDER_COUNT, (accepted + rejected) + " of " + ORDER_COUNT + " orders were answered");
+        check(method, accepted == SHORT_STOCK, accepted + " orders were accepted, expected " + SHORT_STOCK);
+        check(method, rejected == ORDER_COUNT - SHORT_STOCK, rejected + " orders were rejected, expected " + (ORDER_COUNT - SHORT_STOCK));
+        checkStock(method, menu, SHORT_STOCK, accepted);
+    }
+
+    private void runThroughputRound(int round, ExecutorService executor) throws Exception {
+        String name = "throughput round " + round;
+        int initialStock = ORDER_COUNT * THROUGHPUT_ORDERS_PER_CLIENT;
+        Menus menu = findMenu(name);
+        final long startedAt = System.nanoTime();
+        int[] counts = placeOrders(menu, THROUGHPUT_ORDERS_PER_CLIENT, executor, false);
+        final double seconds = (System.nanoTime() - startedAt) / 1e9;
+        int accepted = counts[0], rejected = counts[1];
+        System.out.println(String.format("%s: %d orders from %d clients in %.3f s (%.0f orders/s), %d rejected.", name, accepted + rejected, ORDER_COUNT, seconds, (accepted + rejected) / seconds, rejected));
+        check(name, rejected == 0, rejected + " orders were rejected with enough stock");
+        checkStock(name, menu, initialStock, accepted);
+    }
+
+    private void addMenu(String name, int stock) {
+        Menus menu = new Menus();
+        menu.setName(name);
+        menu.setPrice(1000);
+        menu.setStock(stock);
+        menu.setStatus(1);
+        PERSISTENCE.getTable(Menus.class).create(menu);
+    }
+
+    private Menus findMenu(String name) {
+        return PERSISTENCE.getTable(Menus.class).readAll().stream().filter((menu) -> name.equals(menu.getName())).findFirst().get();
+    }
+
+    private int[] placeOrders(Menus menu, int ordersPerClient, ExecutorService executor, boolean isInCart) throws Exception {
+        CountDownLatch startLatch = new CountDownLatch(1);
+        List<Future<int[]>> results = new ArrayList<Future<int[]>>(ORDER_COUNT);
+        for(IProtocolClient client : CLIENTS) {
+            results.add(executor.submit(() -> {
+                int[] counts = new int[2];
+                startLatch.await();
+                for(int i = 0; i < ordersPerClient; i++) {
+                    Orders order = new Orders();
+                    order.setIdmenu(menu);
+                    order.setTotal(1);
+                    boolean isAccepted;
+                    if(isInCart) {
+                        Carts cart = new Carts();
+                        cart.setDate(new Date());
+                        cart.setTime(new Date());
+                        isAccepted = (SERVER.createCartWithOrders(client, cart, Collections.singletonList(order)) != null);
+                    } else {
+                        isAccepted = (SERVER.createOrder(client, order) != null);
+                    }
+                    counts[isAccepted ? 0 : 1]++;
+                }
+                return counts;
+            }));
+        }
+        startLatch.countDown();
+        int[] counts = new int[2];
+        for(Future<int[]> result : results) {
+            int[] clientCounts = result.get(1, TimeUnit.MINUTES);
+            counts[0] += clientCounts[0];
+            counts[1] += clientCounts[1];
+        }
+        return counts;
+    }
+
+    private void checkStock(String name, Menus menu, int initialStock, int accepted) throws RemoteException {
+        int storedStock = PERSISTENCE.getTable(Menus.class).read(menu.getId()).getStock();
+        int lowestStock = PERSISTENCE.getLowestStock(menu.getId());
+        Menus servedMenu = SERVER.readMenu(CLIENTS.get(0), menu.getId());
+        long storedOrders = PERSISTENCE.getTable(Orders.class).readAll().stream().filter((order) -> menu.getId().equals(order.getIdmenu().getId())).count();
+        check(name, storedStock == initialStock - accepted, "the stock is " + storedStock + ", expected " + initialStock + " - " + accepted);
+        check(name, lowestStock >= 0, "the stock went down to " + lowestStock);
+        check(name, servedMenu != null && servedMenu.getStock() == storedStock, "the server serves a stock of " + ((servedMenu == null) ? null : servedMenu.getStock()) + " for a stored stock of " + storedStock);
+        check(name, storedOrders == accepted, storedOrders + " orders are stored for " + accepted + " accepted");
+    }
+
+    private void check(String name, boolean isPassed, String failure) {
+        if(!isPassed) FAILURES.add(name + ": " + failure + ".");
+    }
+
+}
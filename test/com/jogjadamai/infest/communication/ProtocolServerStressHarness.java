@@ -0,0 +1,227 @@
+/*
+ * Copyright 2017 Danang Galuh Tegar P.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.jogjadamai.infest.communication;
+import com.jogjadamai.infest.entity.Carts;
+import com.jogjadamai.infest.entity.Features;
+import com.jogjadamai.infest.entity.Menus;
+import com.jogjadamai.infest.entity.Orders;
+import com.jogjadamai.infest.entity.Tables;
+import java.rmi.RemoteException;
+import java.util.Date;
+import java.util.List;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * <h1>class <code>ProtocolServerStressHarness</code></h1>
+ * <p><code>ProtocolServerStressHarness</code> drives one
+ * <code>ProtocolServer</code> from hundreds of clients at once, each on its
+ * own thread, over a <code>StubPersistence</code>. Every client checks that
+ * what the server returns is its own: the entity it asked for, the cart it
+ * created, and the answer meant for its client type. Results crossed between
+ * callers, lost carts, or repeated IDs fail the run.</p>
+ * <p>Run it with <code>main()</code>; it exits with status 0 when every check
+ * passes. The server writes its <code>log</code>, <code>report</code>, and
+ * <code>thumbnail</code> directories in the working directory.</p>
+ * <br>
+ * <p><b><i>Coded, built, and packaged with passion by Danang Galuh Tegar P for Infest.</i></b></p>
+ *
+ * @author Danang Galuh Tegar P
+ * @version 2017.03.10.0001
+ */
+public final class ProtocolServerStressHarness {
+
+    private static final int SERVICE_PORT = 42790;
+    private static final int CLIENT_COUNT = 300;
+    private static final int THREAD_COUNT = 64;
+    private static final int CALLS_PER_CLIENT = 50;
+    private static final int MENU_COUNT = 20;
+    private static final int TABLE_COUNT = 10;
+
+    private final StubPersistence PERSISTENCE;
+    private final ProtocolServer SERVER;
+    private final Queue<String> FAILURES;
+    private final Set<Integer> CART_IDS;
+    private final AtomicInteger CREATED_CARTS;
+    private final AtomicInteger CALLS;
+
+    private ProtocolServerStressHarness() throws RemoteException {
+        this.PERSISTENCE = new StubPersistence();
+        seed(PERSISTENCE);
+        this.SERVER = new ProtocolServer(SERVICE_PORT, PERSISTENCE::getController, PERSISTENCE::createEntityManager);
+        this.FAILURES = new ConcurrentLinkedQueue<String>();
+        this.CART_IDS = ConcurrentHashMap.newKeySet();
+        this.CREATED_CARTS = new AtomicInteger();
+        this.CALLS = new AtomicInteger();
+    }
+
+    private static void seed(StubPersistence persistence) {
+        Features feature = new Features();
+        feature.setName("Infest");
+        feature.setStatus(1);
+        persistence.getTable(Features.class).create(feature);
+        for(int i = 1; i <= MENU_COUNT; i++) {
+            Menus menu = new Menus();
+            menu.setName("Menu " + i);
+            menu.setDescription("Menu " + i + " of the stress harness.");
+            menu.setType(i % 2);
+            menu.setPrice(1000 * i);
+            menu.setStock(1000);
+            menu.setStatus(1);
+            persistence.getTable(Menus.class).create(menu);
+        }
+        for(int i = 1; i <= TABLE_COUNT; i++) {
+            Tables table = new Tables();
+            table.setName("Table " + i);
+            table.setStatus(1);
+            persistence.getTable(Tables.class).create(table);
+        }
+    }
+
+    /**
+     * <h2>method <code>main()</code></h2>
+     * <p>Method <code>main</code> is used to run the harness.</p>
+     *
+     * @param args Not used.
+     * @throws Exception Any exception failing the run.
+     */
+    public static void main(String[] args) throws Exception {
+        ProtocolServerStressHarness harness = new ProtocolServerStressHarness();
+        boolean isPassed = harness.run();
+        // The RMI registry of the server keeps the VM alive.
+        System.exit(isPassed ? 0 : 1);
+    }
+
+    private boolean run() throws InterruptedException {
+        SERVER.start();
+        ExecutorService executor = Executors.newFixedThreadPool(THREAD_COUNT);
+        CountDownLatch startLatch = new CountDownLatch(1);
+        for(int i = 0; i < CLIENT_COUNT; i++) {
+            final int clientNumber = i;
+            final IProtocolClient.Type type = (i % 10 == 0) ? IProtocolClient.Type.OPERATOR : IProtocolClient.Type.CUSTOMER;
+            executor.execute(() -> {
+                try {
+                    startLatch.await();
+                    runClient(clientNumber, new StubProtocolClient(type));
+                } catch (Exception ex) {
+                    fail(clientNumber, "caught " + ex);
+                }
+            });
+        }
+        final long startedAt = System.nanoTime();
+        startLatch.countDown();
+        executor.shutdown();
+        if(!executor.awaitTermination(5, TimeUnit.MINUTES)) FAILURES.add("Clients did not finish in 5 minutes.");
+        final double seconds = (System.nanoTime() - startedAt) / 1e9;
+        int storedCarts = PERSISTENCE.getTable(Carts.class).getEntitiesCount();
+        if(storedCarts != CREATED_CARTS.get()) FAILURES.add(CREATED_CARTS.get() + " carts were created but " + storedCarts + " are stored.");
+        if(CART_IDS.size() != CREATED_CARTS.get()) FAILURES.add(CREATED_CARTS.get() + " carts were created but " + CART_IDS.size() + " IDs were given.");
+        System.out.println(String.format("%d clients on %d threads made %d calls in %.2f s (%.0f calls/s).", CLIENT_COUNT, THREAD_COUNT, CALLS.get(), seconds, CALLS.get() / seconds));
+        FAILURES.stream().limit(20).forEach(System.out::println);
+        System.out.println(FAILURES.isEmpty() ? "PASSED" : "FAILED with " + FAILURES.size() + " failure(s)");
+        return FAILURES.isEmpty();
+    }
+
+    private void runClient(int clientNumber, IProtocolClient client) throws RemoteException {
+        Integer token = SERVER.authenticate(client);
+        if(token == null || token < 0 || !token.equals(client.getClientSession())) {
+            fail(clientNumber, "was not authenticated");
+            return;
+        }
+        boolean isCustomer = (client.getType() == IProtocolClient.Type.CUSTOMER);
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        Carts lastCart = null;
+        for(int call = 0; call < CALLS_PER_CLIENT; call++) {
+            CALLS.incrementAndGet();
+            switch(random.nextInt(6)) {
+                case 0: {
+                    List<Menus> menus = SERVER.readAllMenu(client);
+                    if(menus == null || menus.size() != MENU_COUNT) {
+                        fail(clientNumber, "read " + ((menus == null) ? "no" : menus.size()) + " menus");
+                        break;
+                    }
+                    for(int i = 0; i < menus.size(); i++) {
+                        Object menu = menus.get(i);
+                        if(!(menu instanceof Menus) || !Integer.valueOf(i + 1).equals(((Menus) menu).getId())) fail(clientNumber, "read " + menu + " as menu " + (i + 1));
+                    }
+                    break;
+                }
+                case 1: {
+                    List<Tables> tables = SERVER.readAllTable(client);
+                    if(tables == null || tables.size() != TABLE_COUNT) {
+                        fail(clientNumber, "read " + ((tables == null) ? "no" : tables.size()) + " tables");
+                        break;
+                    }
+                    for(Object table : tables) {
+                        if(!(table instanceof Tables)) fail(clientNumber, "read " + table + " as a table");
+                    }
+                    break;
+                }
+                case 2: {
+                    Integer id = 1 + random.nextInt(MENU_COUNT);
+                    Menus menu = SERVER.readMenu(client, id);
+                    if(menu == null || !id.equals(menu.getId()) || !("Menu " + id).equals(menu.getName())) fail(clientNumber, "read " + menu + " as menu " + id);
+                    break;
+                }
+                case 3: {
+                    Carts cart = new Carts();
+                    cart.setIdtable(PERSISTENCE.getTable(Tables.class).read(1 + random.nextInt(TABLE_COUNT)));
+                    cart.setNote("client " + clientNumber + " call " + call);
+                    cart.setDate(new Date());
+                    cart.setTime(new Date());
+                    Carts created = SERVER.createCart(client, cart);
+                    if(!isCustomer) {
+                        if(created != null) fail(clientNumber, "created a cart as " + client.getType());
+                        break;
+                    }
+                    if(created == null || created.getId() == null || !cart.getNote().equals(created.getNote())) {
+                        fail(clientNumber, "created " + created + " for the cart of " + cart.getNote());
+                        break;
+                    }
+                    CREATED_CARTS.incrementAndGet();
+                    if(!CART_IDS.add(created.getId())) fail(clientNumber, "was given the ID " + created.getId() + " of another cart");
+                    lastCart = created;
+                    break;
+                }
+                case 4: {
+                    if(lastCart == null) break;
+                    Carts cart = SERVER.readCart(client, lastCart.getId());
+                    if(cart == null || !lastCart.getNote().equals(cart.getNote())) fail(clientNumber, "read " + ((cart == null) ? null : cart.getNote()) + " as its cart " + lastCart.getNote());
+                    break;
+                }
+                default: {
+                    List<Orders> orders = SERVER.readAllOrder(client);
+                    if(isCustomer && orders != null) fail(clientNumber, "read all orders as CUSTOMER");
+                    if(!isCustomer && orders == null) fail(clientNumber, "could not read all orders as OPERATOR");
+                    break;
+                }
+            }
+        }
+    }
+
+    private void fail(int clientNumber, String failure) {
+        FAILURES.add("Client " + clientNumber + " " + failure + ".");
+    }
+
+}
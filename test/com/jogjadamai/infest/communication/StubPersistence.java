@@ -0,0 +1,335 @@
+/*
+ * Copyright 2017 Danang Galuh Tegar P.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.jogjadamai.infest.communication;
+import com.jogjadamai.infest.entity.Carts;
+import com.jogjadamai.infest.entity.Features;
+import com.jogjadamai.infest.entity.Menus;
+import com.jogjadamai.infest.entity.Orders;
+import com.jogjadamai.infest.entity.Tables;
+import com.jogjadamai.infest.persistence.InfestEntityController;
+import com.jogjadamai.infest.persistence.InfestPersistence;
+import com.jogjadamai.infest.persistence.exceptions.NonexistentEntityException;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Proxy;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+import javax.persistence.EntityManager;
+import javax.persistence.EntityTransaction;
+import javax.persistence.Query;
+import javax.persistence.TypedQuery;
+
+/**
+ * <h1>class <code>StubPersistence</code></h1>
+ * <p><code>StubPersistence</code> is an in-memory persistence layer that a
+ * <code>ProtocolServer</code> can be run against instead of the Infest
+ * persistence unit. Every entity is a table of rows by ID, served through an
+ * <code>InfestEntityController</code>, and <code>EntityManager</code>s run
+ * transactions over the same tables.</p>
+ * <p>Only what the server uses is supported: <code>persist</code>,
+ * <code>merge</code>, <code>find</code>, transactions, and the conditional
+ * stock decrement of <code>OrderIngestor</code>, which is applied atomically
+ * per menu and undone on rollback, and the stock read after it. Other selects
+ * return no rows, so a server started on it holds no orders.</p>
+ * <br>
+ * <p><b><i>Coded, built, and packaged with passion by Danang Galuh Tegar P for Infest.</i></b></p>
+ *
+ * @author Danang Galuh Tegar P
+ * @version 2017.03.10.0001
+ * @see com.jogjadamai.infest.communication.ProtocolServerStressHarness
+ * @see com.jogjadamai.infest.communication.OrderStockBenchmark
+ */
+final class StubPersistence {
+
+    private final Map<InfestPersistence.Entity, Table<?>> TABLE_MAP;
+    private final Map<Class<?>, Table<?>> CLASS_MAP;
+    private final Map<Integer, AtomicInteger> LOWEST_STOCK_MAP;
+    private final Map<Integer, ReentrantLock> ROW_LOCK_MAP;
+
+    /**
+     * <h2>class <code>Table</code></h2>
+     * <p>The rows of one entity, by ID. IDs are given on creation.</p>
+     */
+    protected static final class Table<T> implements InfestEntityController<T> {
+
+        private final ConcurrentSkipListMap<Integer, T> rows = new ConcurrentSkipListMap<Integer, T>();
+        private final AtomicInteger lastId = new AtomicInteger();
+        private final Function<T, Integer> idGetter;
+        private final BiConsumer<T, Integer> idSetter;
+
+        private Table(Function<T, Integer> idGetter, BiConsumer<T, Integer> idSetter) {
+            this.idGetter = idGetter;
+            this.idSetter = idSetter;
+        }
+
+        @Override
+        public void create(T entity) {
+            idSetter.accept(entity, lastId.incrementAndGet());
+            rows.put(idGetter.apply(entity), entity);
+        }
+
+        @Override
+        public void update(T entity) throws NonexistentEntityException {
+            Integer id = idGetter.apply(entity);
+            if(id == null || rows.replace(id, entity) == null) throw new NonexistentEntityException("The entity with id " + id + " no longer exists.");
+        }
+
+        @Override
+        public void delete(Integer id) throws NonexistentEntityException {
+            if(rows.remove(id) == null) throw new NonexistentEntityException("The entity with id " + id + " no longer exists.");
+        }
+
+        @Override
+        public List<T> readAll() {
+            return new ArrayList<T>(rows.values());
+        }
+
+        @Override
+        public List<T> readEntities(int maxResults, int firstResult) {
+            List<T> all = readAll();
+            return new ArrayList<T>(all.subList(Math.min(firstResult, all.size()), Math.min(firstResult + maxResults, all.size())));
+        }
+
+        @Override
+        public T read(Integer id) {
+            return (id == null) ? null : rows.get(id);
+        }
+
+        @Override
+        public int getEntitiesCount() {
+            return rows.size();
+        }
+
+    }
+
+    /**
+     * <h2>constructor <code>StubPersistence()</code></h2>
+     * <p>Create a new persistence layer with every table empty.</p>
+     */
+    protected StubPersistence() {
+        this.TABLE_MAP = new EnumMap<InfestPersistence.Entity, Table<?>>(InfestPersistence.Entity.class);
+        this.CLASS_MAP = new HashMap<Class<?>, Table<?>>();
+        this.LOWEST_STOCK_MAP = new ConcurrentHashMap<Integer, AtomicInteger>();
+        this.ROW_LOCK_MAP = new ConcurrentHashMap<Integer, ReentrantLock>();
+        addTable(InfestPersistence.Entity.FEATURES, Features.class, new Table<Features>(Features::getId, Features::setId));
+        addTable(InfestPersistence.Entity.MENUS, Menus.class, new Table<Menus>(Menus::getId, Menus::setId));
+        addTable(InfestPersistence.Entity.TABLES, Tables.class, new Table<Tables>(Tables::getId, Tables::setId));
+        addTable(InfestPersistence.Entity.CARTS, Carts.class, new Table<Carts>(Carts::getId, Carts::setId));
+        addTable(InfestPersistence.Entity.ORDERS, Orders.class, new Table<Orders>(Orders::getId, Orders::setId));
+    }
+
+    private void addTable(InfestPersistence.Entity entity, Class<?> entityClass, Table<?> table) {
+        TABLE_MAP.put(entity, table);
+        CLASS_MAP.put(entityClass, table);
+    }
+
+    /**
+     * <h2>method <code>getController()</code></h2>
+     * <p>Method <code>getController</code> is used to get the controller of
+     * the table of an entity.</p>
+     *
+     * @param entity The entity.
+     * @return The <code>Table</code> of the entity.
+     */
+    protected InfestEntityController<?> getController(InfestPersistence.Entity entity) {
+        Table<?> table = TABLE_MAP.get(entity);
+        if(table == null) throw new UnsupportedOperationException("No stub table for " + entity + ".");
+        return table;
+    }
+
+    /**
+     * <h2>method <code>getTable()</code></h2>
+     * <p>Method <code>getTable</code> is used to get the table of an entity
+     * class, to seed it or to read it back.</p>
+     *
+     * @param <T>         The entity class.
+     * @param entityClass The entity class.
+     * @return The <code>Table</code> of the entity class.
+     */
+    @SuppressWarnings("unchecked")
+    protected <T> Table<T> getTable(Class<T> entityClass) {
+        return (Table<T>) CLASS_MAP.get(entityClass);
+    }
+
+    /**
+     * <h2>method <code>getLowestStock()</code></h2>
+     * <p>Method <code>getLowestStock</code> is used to get the lowest stock a
+     * menu has had since it was seeded.</p>
+     *
+     * @param menuId The ID of the menu.
+     * @return The lowest stock, or <code>Integer.MAX_VALUE</code> if the
+     *         stock was never decremented.
+     */
+    protected int getLowestStock(Integer menuId) {
+        AtomicInteger lowest = LOWEST_STOCK_MAP.get(menuId);
+        return (lowest == null) ? Integer.MAX_VALUE : lowest.get();
+    }
+
+    /**
+     * <h2>method <code>createEntityManager()</code></h2>
+     * <p>Method <code>createEntityManager</code> is used to open a new
+     * <code>EntityManager</code> over the tables.</p>
+     *
+     * @return The <code>EntityManager</code>.
+     */
+    protected EntityManager createEntityManager() {
+        // Undo actions of the running transaction, newest first.
+        Deque<Runnable> undoLog = new ArrayDeque<Runnable>();
+        // Menu rows locked by the running transaction, released when it ends
+        // as the database would.
+        List<ReentrantLock> rowLocks = new ArrayList<ReentrantLock>();
+        boolean[] isActive = {false};
+        EntityTransaction transaction = proxy(EntityTransaction.class, (proxy, method, args) -> {
+            switch(method.getName()) {
+                case "begin":
+                    isActive[0] = true;
+                    return null;
+                case "commit":
+                    undoLog.clear();
+                    unlockAll(rowLocks);
+                    isActive[0] = false;
+                    return null;
+                case "rollback":
+                    while(!undoLog.isEmpty()) undoLog.pop().run();
+                    unlockAll(rowLocks);
+                    isActive[0] = false;
+                    return null;
+                case "isActive":
+                    return isActive[0];
+                default:
+                    throw new UnsupportedOperationException(method.getName());
+            }
+        });
+        return proxy(EntityManager.class, (proxy, method, args) -> {
+            switch(method.getName()) {
+                case "getTransaction":
+                    return transaction;
+                case "persist":
+                    Table<Object> table = tableOf(args[0]);
+                    table.create(args[0]);
+                    Integer id = table.idGetter.apply(args[0]);
+                    undoLog.push(() -> table.rows.remove(id));
+                    return null;
+                case "merge":
+                    Table<Object> mergedTable = tableOf(args[0]);
+                    Integer mergedId = mergedTable.idGetter.apply(args[0]);
+                    Object previous = mergedTable.rows.put(mergedId, args[0]);
+                    undoLog.push(() -> {
+                        if(previous == null) mergedTable.rows.remove(mergedId);
+                        else mergedTable.rows.put(mergedId, previous);
+                    });
+                    return args[0];
+                case "find":
+                    return CLASS_MAP.get((Class<?>) args[0]).read((Integer) args[1]);
+                case "createQuery":
+                    return createQuery((String) args[0], (args.length > 1), undoLog, rowLocks);
+                case "close":
+                    while(!undoLog.isEmpty()) undoLog.pop().run();
+                    unlockAll(rowLocks);
+                    return null;
+                case "isOpen":
+                    return true;
+                default:
+                    throw new UnsupportedOperationException(method.getName());
+            }
+        });
+    }
+
+    private Object createQuery(String jpql, boolean isTyped, Deque<Runnable> undoLog, List<ReentrantLock> rowLocks) {
+        Map<String, Object> parameters = new HashMap<String, Object>();
+        InvocationHandler handler = (proxy, method, args) -> {
+            switch(method.getName()) {
+                case "setParameter":
+                    parameters.put((String) args[0], args[1]);
+                    return proxy;
+                case "setMaxResults":
+                case "setFirstResult":
+                    return proxy;
+                case "getResultList":
+                    return Collections.emptyList();
+                case "getSingleResult":
+                    if(!jpql.startsWith("SELECT m.stock FROM Menus m WHERE m.id = :id")) throw new UnsupportedOperationException(jpql);
+                    return readStock((Integer) parameters.get("id"));
+                case "executeUpdate":
+                    if(!jpql.startsWith("UPDATE Menus m SET m.stock = m.stock - :total")) throw new UnsupportedOperationException(jpql);
+                    return decrementStock((Integer) parameters.get("id"), (Integer) parameters.get("total"), undoLog, rowLocks);
+                default:
+                    throw new UnsupportedOperationException(method.getName());
+            }
+        };
+        return isTyped ? proxy(TypedQuery.class, handler) : proxy(Query.class, handler);
+    }
+
+    private Integer readStock(Integer menuId) {
+        Menus menu = getTable(Menus.class).read(menuId);
+        if(menu == null) return null;
+        synchronized(menu) {
+            return menu.getStock();
+        }
+    }
+
+    private int decrementStock(Integer menuId, int total, Deque<Runnable> undoLog, List<ReentrantLock> rowLocks) {
+        Menus menu = getTable(Menus.class).read(menuId);
+        if(menu == null) return 0;
+        // The row stays locked until the transaction ends, so the stock read
+        // after the decrement is the one committed.
+        ReentrantLock rowLock = ROW_LOCK_MAP.computeIfAbsent(menuId, (key) -> new ReentrantLock());
+        if(!rowLock.isHeldByCurrentThread()) {
+            rowLock.lock();
+            rowLocks.add(rowLock);
+        }
+        synchronized(menu) {
+            if(menu.getStock() < total) return 0;
+            menu.setStock(menu.getStock() - total);
+            LOWEST_STOCK_MAP.computeIfAbsent(menuId, (key) -> new AtomicInteger(Integer.MAX_VALUE)).accumulateAndGet(menu.getStock(), Math::min);
+        }
+        undoLog.push(() -> {
+            synchronized(menu) {
+                menu.setStock(menu.getStock() + total);
+            }
+        });
+        return 1;
+    }
+
+    private static void unlockAll(List<ReentrantLock> rowLocks) {
+        for(ReentrantLock rowLock : rowLocks) rowLock.unlock();
+        rowLocks.clear();
+    }
+
+    @SuppressWarnings("unchecked")
+    private Table<Object> tableOf(Object entity) {
+        Table<?> table = CLASS_MAP.get(entity.getClass());
+        if(table == null) throw new UnsupportedOperationException("No stub table for " + entity.getClass().getName() + ".");
+        return (Table<Object>) table;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T proxy(Class<T> type, InvocationHandler handler) {
+        return (T) Proxy.newProxyInstance(StubPersistence.class.getClassLoader(), new Class<?>[] {type}, handler);
+    }
+
+}
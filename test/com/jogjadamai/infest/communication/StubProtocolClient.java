@@ -0,0 +1,88 @@
+/*
+ * Copyright 2017 Danang Galuh Tegar P.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.jogjadamai.infest.communication;
+/**
+ * <h1>class <code>StubProtocolClient</code></h1>
+ * <p><code>StubProtocolClient</code> is an <code>IProtocolClient</code> that
+ * calls a <code>ProtocolServer</code> in the same process, without being
+ * exported. The server tells clients apart by their references, so every
+ * instance is a separate client.</p>
+ * <br>
+ * <p><b><i>Coded, built, and packaged with passion by Danang Galuh Tegar P for Infest.</i></b></p>
+ *
+ * @author Danang Galuh Tegar P
+ * @version 2017.03.10.0001
+ */
+final class StubProtocolClient implements IProtocolClient {
+
+    private final IProtocolClient.Type TYPE;
+    private final Integer SECURITY_NUMBER;
+    private volatile byte[] serverSession;
+    private volatile Integer clientSession;
+
+    /**
+     * <h2>constructor <code>StubProtocolClient()</code></h2>
+     * <p>Create a new client of the given type, carrying the security number
+     * of that type.</p>
+     *
+     * @param type <code>IProtocolClient.Type</code> of the client.
+     */
+    protected StubProtocolClient(IProtocolClient.Type type) {
+        this.TYPE = type;
+        switch(type) {
+            case ADMINISTRATOR:
+                this.SECURITY_NUMBER = -1874213221;
+                break;
+            case OPERATOR:
+                this.SECURITY_NUMBER = -1062208929;
+                break;
+            default:
+                this.SECURITY_NUMBER = 1159584749;
+                break;
+        }
+    }
+
+    @Override
+    public IProtocolClient.Type getType() {
+        return TYPE;
+    }
+
+    @Override
+    public Integer getSecurityNumber() {
+        return SECURITY_NUMBER;
+    }
+
+    @Override
+    public byte[] getServerSession() {
+        return serverSession;
+    }
+
+    @Override
+    public void setServerSession(byte[] serverSession) {
+        this.serverSession = serverSession;
+    }
+
+    @Override
+    public Integer getClientSession() {
+        return clientSession;
+    }
+
+    @Override
+    public void setClientSession(Integer clientSession) {
+        this.clientSession = clientSession;
+    }
+
+}